@@ -1,150 +1,182 @@
-import java.util.Scanner;
-
-import airlock.entities.AirLock;
-import airlock.entities.Door;
-import airlock.entities.DoorState;
-import airlock.entities.IAirLock;
-import airlock.entities.IDoor;
-import airlock.entities.IPressureSensor;
-import airlock.entities.PressureSensor;
-import airlock.exceptions.AirLockException;
-
-public class Main {
-
-	public static void main(String[] args) {
-		try {
-			double exteriorPressure = 1.0;
-			double lockPressure = 1.0;
-			double interiorPressure = 1.0;
-			
-			IPressureSensor exteriorSensor = new PressureSensor(exteriorPressure);
-			IPressureSensor lockSensor     = new PressureSensor(lockPressure);
-			IPressureSensor interiorSensor = new PressureSensor(interiorPressure);
-			
-			IDoor exteriorDoor = new Door(exteriorSensor, lockSensor, DoorState.CLOSED);
-			IDoor interiorDoor = new Door(interiorSensor, lockSensor, DoorState.CLOSED);
-			
-			IAirLock airLock = new AirLock(exteriorDoor, interiorDoor, lockSensor);
-			
-			String menuFormatString = 
-			"""
-			
-			%s
-			Exterior %s 
-			Lock %s 
-			Interior %s
-			Exterior %s, 
-			Interior %s
-			
-			Select option:
-			    OX - open external door
-			    OI - open internal door
-	
-			    CX - close external door
-			    CI - close internal door
-	
-			    SX - set external pressure
-			    SI - set internal pressure
-			    
-			    EX - equalise lock with external pressure
-			    EI - equalise lock with internal pressure
-			    
-			    TM - toggle operation mode
-			    
-			    Q  - quit
-			
-			Selection: """;
-			
-			Scanner scanner = new Scanner(System.in);
-			//testLoop
-			boolean finished = false;
-			
-			while (!finished) {		
-				String ans = null;
-				
-				try {
-					System.out.printf(menuFormatString,
-						airLock,
-						exteriorSensor, lockSensor, interiorSensor,
-						exteriorDoor, interiorDoor);
-					
-					ans = scanner.nextLine();
-					
-					switch (ans.toUpperCase().strip()) {
-					
-						case "OX" :					
-							airLock.openOuterDoor();
-							break;
-							
-						case "OI" :
-							airLock.openInnerDoor();
-							break;
-							
-						case "CX" :
-							airLock.closeOuterDoor();
-							break;
-							
-						case "CI" :
-							airLock.closeInnerDoor();
-							break;
-							
-						case "SX" :
-							System.out.println("Enter external pressure: ");
-							ans = scanner.nextLine();
-							double exP = Double.valueOf(ans).doubleValue();
-							exteriorSensor.setPressure(exP);
-							if (exteriorDoor.isOpen()) {
-								lockSensor.setPressure(exP);
-								if (interiorDoor.isOpen()) {
-									interiorSensor.setPressure(exP);
-								}
-							}
-							break;
-						
-						case "SI" :
-							System.out.println("Enter internal pressure: ");
-							ans = scanner.nextLine();
-							double inP = Double.valueOf(ans).doubleValue();
-							interiorSensor.setPressure(inP);
-							if (interiorDoor.isOpen()) {
-								lockSensor.setPressure(inP);
-								if (exteriorDoor.isOpen()) {
-									exteriorSensor.setPressure(inP);
-								}
-							}
-							break;
-							
-						case "EX" :
-							airLock.equaliseWithEnvironmentPressure();
-							break;
-	
-						case "EI" :
-							airLock.equaliseWithCabinPressure();
-							break;
-	
-						case "TM" :
-							System.out.println("Toggle operation mode");
-							airLock.toggleOperationMode();
-							break;
-							
-						case "Q" :
-							finished = true;
-							break;						
-							
-						default:
-							System.out.printf("Unrecognised option: %s\n", ans);
-					}		
-				}
-				catch (AirLockException e) {
-					System.err.println(e.getMessage());
-				}
-			} //while
-			scanner.close();
-		}
-		catch (Exception e) {
-			System.err.println("General error: " + e.getMessage());				
-		}
-		System.out.println("\nExiting\n");
-	}
-
-}
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Scanner;
+
+import airlock.entities.AirLockAssembly;
+import airlock.entities.IAirLock;
+import airlock.exceptions.AirLockException;
+import airlock.script.ScriptRunner;
+import airlock.status.StatusRenderer;
+
+public class Main {
+
+	public static void main(String[] args) {
+		// Main --script <file> [--output <file>] [--airlocks <count>] runs a recorded
+		// command file without the interactive menu
+		if (args.length > 0) {
+			runScript(args);
+			return;
+		}
+		try {
+			double exteriorPressure = 1.0;
+			double lockPressure = 1.0;
+			double interiorPressure = 1.0;
+			
+			AirLockAssembly assembly = new AirLockAssembly(exteriorPressure, lockPressure, interiorPressure);
+			
+			IAirLock airLock = assembly.getAirLock();
+			
+			// The status block is rendered into one reused builder ahead of the menu
+			StringBuilder screen = new StringBuilder(1024);
+			String menuString = 
+			"""
+			
+			Select option:
+			    OX - open external door
+			    OI - open internal door
+	
+			    CX - close external door
+			    CI - close internal door
+	
+			    SX - set external pressure
+			    SI - set internal pressure
+			    
+			    EX - equalise lock with external pressure
+			    EI - equalise lock with internal pressure
+			    
+			    TM - toggle operation mode
+			    
+			    Q  - quit
+			
+			Selection: """;
+			
+			Scanner scanner = new Scanner(System.in);
+			//testLoop
+			boolean finished = false;
+			
+			while (!finished) {		
+				String ans = null;
+				
+				try {
+					screen.setLength(0);
+					StatusRenderer.appendAssembly(screen, assembly).append(menuString);
+					System.out.print(screen);
+					
+					ans = scanner.nextLine();
+					
+					switch (ans.toUpperCase().strip()) {
+					
+						case "OX" :					
+							airLock.openOuterDoor();
+							break;
+							
+						case "OI" :
+							airLock.openInnerDoor();
+							break;
+							
+						case "CX" :
+							airLock.closeOuterDoor();
+							break;
+							
+						case "CI" :
+							airLock.closeInnerDoor();
+							break;
+							
+						case "SX" :
+							System.out.println("Enter external pressure: ");
+							ans = scanner.nextLine();
+							double exP = Double.valueOf(ans).doubleValue();
+							assembly.setExteriorPressure(exP);
+							break;
+						
+						case "SI" :
+							System.out.println("Enter internal pressure: ");
+							ans = scanner.nextLine();
+							double inP = Double.valueOf(ans).doubleValue();
+							assembly.setInteriorPressure(inP);
+							break;
+							
+						case "EX" :
+							airLock.equaliseWithEnvironmentPressure();
+							break;
+	
+						case "EI" :
+							airLock.equaliseWithCabinPressure();
+							break;
+	
+						case "TM" :
+							System.out.println("Toggle operation mode");
+							airLock.toggleOperationMode();
+							break;
+							
+						case "Q" :
+							finished = true;
+							break;						
+							
+						default:
+							System.out.printf("Unrecognised option: %s\n", ans);
+					}		
+				}
+				catch (AirLockException e) {
+					System.err.println(e.getMessage());
+				}
+			} //while
+			scanner.close();
+		}
+		catch (Exception e) {
+			System.err.println("General error: " + e.getMessage());				
+		}
+		System.out.println("\nExiting\n");
+	}
+
+	private static void runScript(String[] args) {
+		Path script = null;
+		Path output = null;
+		int airLockCount = 1;
+		try {
+			for (int i = 0; i < args.length; i++) {
+				switch (args[i]) {
+					case "--script" :
+						script = Path.of(args[++i]);
+						break;
+					case "--output" :
+						output = Path.of(args[++i]);
+						break;
+					case "--airlocks" :
+						airLockCount = Integer.parseInt(args[++i]);
+						break;
+					default:
+						throw new IllegalArgumentException("Unrecognised argument: " + args[i]);
+				}
+			}
+			if (script == null) {
+				throw new IllegalArgumentException("Missing --script <file>");
+			}
+
+			// Airlocks are numbered from 0 and start with every pressure at 1.0 bar
+			Map<Long, AirLockAssembly> airLocks = new HashMap<>();
+			for (long id = 0; id < airLockCount; id++) {
+				airLocks.put(id, new AirLockAssembly(1.0, 1.0, 1.0));
+			}
+
+			ScriptRunner runner = new ScriptRunner(airLocks);
+			try (BufferedReader reader = Files.newBufferedReader(script);
+					BufferedWriter writer = output == null
+							? new BufferedWriter(new OutputStreamWriter(System.out))
+							: Files.newBufferedWriter(output)) {
+				runner.run(reader, writer);
+			}
+			System.err.printf("Commands: %d, rejected: %d\n",
+					runner.getCommandCount(), runner.getRejectedCount());
+		}
+		catch (Exception e) {
+			System.err.println("General error: " + e.getMessage());
+		}
+	}
+
+}
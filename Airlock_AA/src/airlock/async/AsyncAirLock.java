@@ -0,0 +1,128 @@
+package airlock.async;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import airlock.entities.AirLockResult;
+import airlock.entities.IResultAirLock;
+
+public class AsyncAirLock {
+
+	private final IResultAirLock airLock;
+	private final Executor executor;
+	private final long doorMillis;
+	private final long pumpMillis;
+
+	// Every command is chained after the previous one, so one airlock runs its
+	// commands in order while no thread is held between steps
+	private CompletableFuture<AirLockResult> tail = CompletableFuture.completedFuture(AirLockResult.OK);
+
+	public AsyncAirLock(IResultAirLock airLock, Executor executor, long doorMillis, long pumpMillis) {
+		// Check airLock and executor are not null and the actuator times are not negative
+		if (airLock == null || executor == null) {
+			throw new IllegalArgumentException("Airlock and executor cannot be null");
+		}
+		if (doorMillis < 0 || pumpMillis < 0) {
+			throw new IllegalArgumentException("Actuator times cannot be negative");
+		}
+		this.airLock = airLock;
+		this.executor = executor;
+		this.doorMillis = doorMillis;
+		this.pumpMillis = pumpMillis;
+	}
+
+	public IResultAirLock getAirLock() {
+		return airLock;
+	}
+
+	public CompletableFuture<AirLockResult> openOuterDoor() {
+		return enqueue(() -> {
+			// in AUTO mode close the inner door and equalise with the environment first
+			if (!airLock.isInAutoMode()) {
+				return step(airLock::tryOpenOuterDoor, doorMillis);
+			}
+			// a door already open is rejected before the other door or the pressure is touched
+			if (!airLock.isOuterDoorClosed()) {
+				return CompletableFuture.completedFuture(AirLockResult.OUTER_DOOR_ALREADY_OPEN);
+			}
+			CompletableFuture<AirLockResult> sequence = airLock.isInnerDoorClosed()
+					? CompletableFuture.completedFuture(AirLockResult.OK)
+					: step(airLock::tryCloseInnerDoor, doorMillis);
+			return sequence
+					.thenCompose(result -> then(result, airLock::tryEqualiseWithEnvironmentPressure, pumpMillis))
+					.thenCompose(result -> then(result, airLock::tryOpenOuterDoor, doorMillis));
+		});
+	}
+
+	public CompletableFuture<AirLockResult> openInnerDoor() {
+		return enqueue(() -> {
+			// in AUTO mode close the outer door and equalise with the cabin first
+			if (!airLock.isInAutoMode()) {
+				return step(airLock::tryOpenInnerDoor, doorMillis);
+			}
+			// a door already open is rejected before the other door or the pressure is touched
+			if (!airLock.isInnerDoorClosed()) {
+				return CompletableFuture.completedFuture(AirLockResult.INNER_DOOR_ALREADY_OPEN);
+			}
+			CompletableFuture<AirLockResult> sequence = airLock.isOuterDoorClosed()
+					? CompletableFuture.completedFuture(AirLockResult.OK)
+					: step(airLock::tryCloseOuterDoor, doorMillis);
+			return sequence
+					.thenCompose(result -> then(result, airLock::tryEqualiseWithCabinPressure, pumpMillis))
+					.thenCompose(result -> then(result, airLock::tryOpenInnerDoor, doorMillis));
+		});
+	}
+
+	public CompletableFuture<AirLockResult> closeOuterDoor() {
+		return enqueue(() -> step(airLock::tryCloseOuterDoor, doorMillis));
+	}
+
+	public CompletableFuture<AirLockResult> closeInnerDoor() {
+		return enqueue(() -> step(airLock::tryCloseInnerDoor, doorMillis));
+	}
+
+	public CompletableFuture<AirLockResult> equaliseWithEnvironmentPressure() {
+		return enqueue(() -> step(airLock::tryEqualiseWithEnvironmentPressure, pumpMillis));
+	}
+
+	public CompletableFuture<AirLockResult> equaliseWithCabinPressure() {
+		return enqueue(() -> step(airLock::tryEqualiseWithCabinPressure, pumpMillis));
+	}
+
+	public CompletableFuture<AirLockResult> toggleOperationMode() {
+		return enqueue(() -> step(airLock::tryToggleOperationMode, 0));
+	}
+
+	private synchronized CompletableFuture<AirLockResult> enqueue(
+			Supplier<CompletableFuture<AirLockResult>> command) {
+		// Starts the command once everything queued before it has finished,
+		// whatever the earlier commands returned
+		CompletableFuture<AirLockResult> next = tail
+				.handle((result, error) -> null)
+				.thenComposeAsync(ignored -> command.get(), executor);
+		tail = next;
+		return next;
+	}
+
+	private CompletableFuture<AirLockResult> then(AirLockResult previous,
+			Supplier<AirLockResult> action, long actuatorMillis) {
+		// A rejected step ends the sequence with its result
+		if (!previous.isOk()) {
+			return CompletableFuture.completedFuture(previous);
+		}
+		return step(action, actuatorMillis);
+	}
+
+	private CompletableFuture<AirLockResult> step(Supplier<AirLockResult> action, long actuatorMillis) {
+		// Runs the step, then completes once the actuator would have finished moving,
+		// the wait is a timer rather than a sleeping thread
+		AirLockResult result = action.get();
+		if (!result.isOk() || actuatorMillis == 0) {
+			return CompletableFuture.completedFuture(result);
+		}
+		return CompletableFuture.supplyAsync(() -> result,
+				CompletableFuture.delayedExecutor(actuatorMillis, TimeUnit.MILLISECONDS, executor));
+	}
+}
@@ -1,189 +1,397 @@
-package airlock.entities;
-
-import airlock.exceptions.AirLockException;
-import airlock.exceptions.DoorException;
-import airlock.exceptions.PressureException;
-
-public class AirLock implements IAirLock {
-
-	private IDoor outerDoor;
-	private IDoor innerDoor;
-	private IPressureSensor lockSensor;
-
-	private AirLockState state;
-	private OperationMode mode;
-
-	public AirLock(IDoor externalDoor, IDoor internalDoor, IPressureSensor lockSensor) {
-		// Sets door and sensor
-		this.outerDoor = externalDoor;
-		this.innerDoor = internalDoor;
-		this.lockSensor = lockSensor;
-
-		// Sets the initial operation state to MANUAL
-		mode = OperationMode.MANUAL;
-
-		// If both doors are CLOSED then, sets initial airlock state to SEALED
-		if (innerDoor.isClosed() && outerDoor.isClosed()) {
-			state = AirLockState.SEALED;
-		}
-		// Otherwise, sets initial airlock state to UNSEALED
-		else {
-			state = AirLockState.UNSEALED;
-		}
-	}
-
-	@Override
-	public void openOuterDoor() throws AirLockException {
-		// if outer door is already open, then throw an AirLockException reporting door
-		// is open
-		if (outerDoor.isOpen()) {
-			throw new AirLockException("Outer door is already open");
-		}
-		// try, if operation mode is AUTO then close inner door
-		try {
-			if (mode == OperationMode.AUTO) {
-				if (innerDoor.isOpen()) {
-					closeInnerDoor();
-				}
-				equaliseWithEnvironmentPressure();
-			}
-			// open outer door
-			outerDoor.open();
-			// set airlock state to UNSEALED
-			state = AirLockState.UNSEALED;
-		} catch (DoorException e) {
-			throw new AirLockException("Error while opening outer door. " + e.getMessage());
-		}
-	}
-
-	@Override
-	public void openInnerDoor() throws AirLockException {
-		// if inner door is already open then throw AirLockException reporting door is
-		// open
-		if (innerDoor.isOpen()) {
-			throw new AirLockException("Inner door is already open");
-		}
-		try {
-			// if operation mode is AUTO
-			if (mode == OperationMode.AUTO) {
-				// if outer door is open
-				if (outerDoor.isOpen()) {
-					// close outer door
-					closeOuterDoor();
-				}
-				// equalise pressure
-				equaliseWithCabinPressure();
-			}
-			innerDoor.open();
-			state = AirLockState.UNSEALED;
-		} catch (DoorException e) {
-			throw new AirLockException("Error while opening inner door. " + e.getMessage());
-		}
-	}
-
-	@Override
-	public void closeOuterDoor() throws AirLockException {
-		try {
-			outerDoor.close();
-			if (innerDoor.isClosed()) {
-				state = AirLockState.SEALED;
-			}
-		} catch (DoorException e) {
-			throw new AirLockException("Outer door is already closed " + e.getMessage());
-		}
-	}
-
-	@Override
-	public void closeInnerDoor() throws AirLockException {
-		try {
-			innerDoor.close();
-			if (outerDoor.isClosed()) {
-				state = AirLockState.SEALED;
-			}
-		} catch (DoorException e) {
-			throw new AirLockException("DoorException thrown: " + e);
-		}
-	}
-
-	@Override
-	public void equaliseWithEnvironmentPressure() throws AirLockException {
-		// if airlock state is not SEALED then throw AirLockException reporting airlock
-		// is not sealed
-		if (state != AirLockState.SEALED) {
-			throw new AirLockException("Airlock is not sealed");
-		}
-		// equalise lockSensor pressure with environment pressure
-		try {
-			lockSensor.setPressure(outerDoor.getExternalPressure());
-		} catch (PressureException e) {
-			throw new AirLockException(e.getMessage());
-		}
-	}
-
-	@Override
-	public void equaliseWithCabinPressure() throws AirLockException {
-		// if airlock state is not SEALED then throw AirLockException reporting airlock
-		// is not sealed
-		if (state != AirLockState.SEALED) {
-			throw new AirLockException("Airlock is not sealed");
-		}
-		// equalise lockSensor pressure with cabin pressure
-		try {
-			lockSensor.setPressure(innerDoor.getExternalPressure());
-		} catch (PressureException e) {
-			throw new AirLockException(e.getMessage());
-		}
-	}
-
-	@Override
-	public void toggleOperationMode() throws AirLockException {
-		// if airlock state is not SEALED then throws AirLockException
-		if (state != AirLockState.SEALED) {
-			throw new AirLockException("Airlock is not sealed");
-		} else {
-			// otherwise toggles operationState between MANUAL and AUTO
-			if (mode == OperationMode.MANUAL) {
-				mode = OperationMode.AUTO;
-			} else {
-				mode = OperationMode.MANUAL;
-			}
-		}
-	}
-
-	@Override
-	public boolean isOuterDoorClosed() {
-		return outerDoor.isClosed();
-	}
-
-	@Override
-	public boolean isInnerDoorClosed() {
-		return innerDoor.isClosed();
-	}
-
-	@Override
-	public boolean isInManualMode() {
-		return mode == OperationMode.MANUAL;
-	}
-
-	@Override
-	public boolean isInAutoMode() {
-		return mode == OperationMode.AUTO;
-	}
-
-	@Override
-	public boolean isSealed() {
-		return state == AirLockState.SEALED;
-	}
-
-	@Override
-	public boolean isUnsealed() {
-		return state == AirLockState.UNSEALED;
-	}
-
-	public String toString() {
-		return String.format(
-				"Airlock: state: %s, mode: %s",
-				state, mode);
-
-	}
+package airlock.entities;
+
+import airlock.exceptions.AirLockException;
+import airlock.exceptions.DoorException;
+import airlock.exceptions.PressureException;
+import airlock.status.StatusRenderer;
+
+public class AirLock implements IResultAirLock {
+
+	private IDoor outerDoor;
+	private IDoor innerDoor;
+	private IPressureSensor lockSensor;
+
+	private AirLockState state;
+	private OperationMode mode;
+
+	// Decides which commands are allowed in which states
+	private final TransitionTable rules;
+
+	// Told about every accepted command, null when nothing is tracking changes
+	private IDirtyListener dirtyListener;
+
+	// Told how long each AUTO mode open spent preparing, null when nothing is timing it
+	private IAutoSequenceListener autoSequenceListener;
+
+	public AirLock(IDoor externalDoor, IDoor internalDoor, IPressureSensor lockSensor) {
+		// Sets the initial operation state to MANUAL
+		this(externalDoor, internalDoor, lockSensor, OperationMode.MANUAL);
+	}
+
+	public AirLock(IDoor externalDoor, IDoor internalDoor, IPressureSensor lockSensor, OperationMode initialMode) {
+		this(externalDoor, internalDoor, lockSensor, initialMode, TransitionTable.STANDARD);
+	}
+
+	public AirLock(IDoor externalDoor, IDoor internalDoor, IPressureSensor lockSensor, OperationMode initialMode,
+			TransitionTable rules) {
+		// Check rules is not null
+		if (rules == null) {
+			throw new IllegalArgumentException("Rules cannot be null");
+		}
+		this.rules = rules;
+
+		// Sets door and sensor
+		this.outerDoor = externalDoor;
+		this.innerDoor = internalDoor;
+		this.lockSensor = lockSensor;
+
+		// Sets the initial operation state, restoring a saved airlock may start in AUTO
+		mode = initialMode;
+
+		// If both doors are CLOSED then, sets initial airlock state to SEALED
+		if (innerDoor.isClosed() && outerDoor.isClosed()) {
+			state = AirLockState.SEALED;
+		}
+		// Otherwise, sets initial airlock state to UNSEALED
+		else {
+			state = AirLockState.UNSEALED;
+		}
+	}
+
+	@Override
+	public void openOuterDoor() throws AirLockException {
+		throwIfRejected(tryOpenOuterDoor());
+	}
+
+	@Override
+	public void openInnerDoor() throws AirLockException {
+		throwIfRejected(tryOpenInnerDoor());
+	}
+
+	@Override
+	public void closeOuterDoor() throws AirLockException {
+		throwIfRejected(tryCloseOuterDoor());
+	}
+
+	@Override
+	public void closeInnerDoor() throws AirLockException {
+		throwIfRejected(tryCloseInnerDoor());
+	}
+
+	@Override
+	public void equaliseWithEnvironmentPressure() throws AirLockException {
+		throwIfRejected(tryEqualiseWithEnvironmentPressure());
+	}
+
+	@Override
+	public void equaliseWithCabinPressure() throws AirLockException {
+		throwIfRejected(tryEqualiseWithCabinPressure());
+	}
+
+	@Override
+	public void toggleOperationMode() throws AirLockException {
+		throwIfRejected(tryToggleOperationMode());
+	}
+
+	@Override
+	public AirLockResult tryOpenOuterDoor() {
+		// validate against the rule table before touching any door
+		AirLockResult result = validate(AirLockCommand.OPEN_OUTER);
+		if (!result.isOk()) {
+			return result;
+		}
+		// if operation mode is AUTO then close inner door and equalise
+		if (mode == OperationMode.AUTO) {
+			long start = autoSequenceListener != null ? System.nanoTime() : 0;
+			if (innerDoor.isOpen()) {
+				result = tryCloseInnerDoor();
+				if (!result.isOk()) {
+					return result;
+				}
+			}
+			result = tryEqualiseWithEnvironmentPressure();
+			if (!result.isOk()) {
+				return result;
+			}
+			if (autoSequenceListener != null) {
+				autoSequenceListener.autoSequenceCompleted(AirLockCommand.OPEN_OUTER, System.nanoTime() - start);
+			}
+		}
+		try {
+			outerDoor.open();
+		} catch (DoorException e) {
+			return AirLockResult.OUTER_DOOR_PRESSURE_NOT_EQUAL;
+		}
+		// set airlock state to UNSEALED
+		state = AirLockState.UNSEALED;
+		changed();
+		return AirLockResult.OK;
+	}
+
+	@Override
+	public AirLockResult tryOpenInnerDoor() {
+		AirLockResult result = validate(AirLockCommand.OPEN_INNER);
+		if (!result.isOk()) {
+			return result;
+		}
+		// if operation mode is AUTO then close outer door and equalise
+		if (mode == OperationMode.AUTO) {
+			long start = autoSequenceListener != null ? System.nanoTime() : 0;
+			if (outerDoor.isOpen()) {
+				result = tryCloseOuterDoor();
+				if (!result.isOk()) {
+					return result;
+				}
+			}
+			result = tryEqualiseWithCabinPressure();
+			if (!result.isOk()) {
+				return result;
+			}
+			if (autoSequenceListener != null) {
+				autoSequenceListener.autoSequenceCompleted(AirLockCommand.OPEN_INNER, System.nanoTime() - start);
+			}
+		}
+		try {
+			innerDoor.open();
+		} catch (DoorException e) {
+			return AirLockResult.INNER_DOOR_PRESSURE_NOT_EQUAL;
+		}
+		state = AirLockState.UNSEALED;
+		changed();
+		return AirLockResult.OK;
+	}
+
+	@Override
+	public AirLockResult tryCloseOuterDoor() {
+		AirLockResult result = validate(AirLockCommand.CLOSE_OUTER);
+		if (!result.isOk()) {
+			return result;
+		}
+		try {
+			outerDoor.close();
+		} catch (DoorException e) {
+			return AirLockResult.OUTER_DOOR_ALREADY_CLOSED;
+		}
+		if (innerDoor.isClosed()) {
+			state = AirLockState.SEALED;
+		}
+		changed();
+		return AirLockResult.OK;
+	}
+
+	@Override
+	public AirLockResult tryCloseInnerDoor() {
+		AirLockResult result = validate(AirLockCommand.CLOSE_INNER);
+		if (!result.isOk()) {
+			return result;
+		}
+		try {
+			innerDoor.close();
+		} catch (DoorException e) {
+			return AirLockResult.INNER_DOOR_ALREADY_CLOSED;
+		}
+		if (outerDoor.isClosed()) {
+			state = AirLockState.SEALED;
+		}
+		changed();
+		return AirLockResult.OK;
+	}
+
+	@Override
+	public AirLockResult tryEqualiseWithEnvironmentPressure() {
+		// equalise lockSensor pressure with environment pressure
+		return equalise(AirLockCommand.EQUALISE_ENVIRONMENT, outerDoor.getExternalPressure());
+	}
+
+	@Override
+	public AirLockResult tryEqualiseWithCabinPressure() {
+		// equalise lockSensor pressure with cabin pressure
+		return equalise(AirLockCommand.EQUALISE_CABIN, innerDoor.getExternalPressure());
+	}
+
+	@Override
+	public AirLockResult tryToggleOperationMode() {
+		AirLockResult result = validate(AirLockCommand.TOGGLE_MODE);
+		if (!result.isOk()) {
+			return result;
+		}
+		// toggles operationState between MANUAL and AUTO
+		if (mode == OperationMode.MANUAL) {
+			mode = OperationMode.AUTO;
+		} else {
+			mode = OperationMode.MANUAL;
+		}
+		changed();
+		return AirLockResult.OK;
+	}
+
+	private AirLockResult equalise(AirLockCommand command, double pressure) {
+		AirLockResult result = validate(command);
+		if (!result.isOk()) {
+			return result;
+		}
+		try {
+			lockSensor.setPressure(pressure);
+		} catch (PressureException e) {
+			return AirLockResult.NEGATIVE_PRESSURE;
+		}
+		changed();
+		return AirLockResult.OK;
+	}
+
+	public void setDirtyListener(IDirtyListener dirtyListener) {
+		this.dirtyListener = dirtyListener;
+	}
+
+	public IDirtyListener getDirtyListener() {
+		return dirtyListener;
+	}
+
+	public void setAutoSequenceListener(IAutoSequenceListener autoSequenceListener) {
+		this.autoSequenceListener = autoSequenceListener;
+	}
+
+	public IAutoSequenceListener getAutoSequenceListener() {
+		return autoSequenceListener;
+	}
+
+	private void changed() {
+		if (dirtyListener != null) {
+			dirtyListener.markDirty();
+		}
+	}
+
+	public AirLockResult check(AirLockCommand command) {
+		// The result the rules give the command in the current state, without running it
+		return validate(command);
+	}
+
+	private AirLockResult validate(AirLockCommand command) {
+		// The standard rules are checked directly, in rule order, so only the flags that
+		// decide the result are read. Any other table is looked up.
+		if (rules == TransitionTable.STANDARD) {
+			return validateStandard(command);
+		}
+		return rules.lookup(command, currentState(command));
+	}
+
+	private AirLockResult validateStandard(AirLockCommand command) {
+		// Compares the command rather than switching on it, so each caller's constant
+		// command folds this down to its own checks
+		if (command == AirLockCommand.OPEN_OUTER) {
+			if (outerDoor.isOpen()) {
+				return AirLockResult.OUTER_DOOR_ALREADY_OPEN;
+			}
+			if (mode != OperationMode.AUTO && !outerDoor.isPressureEqual()) {
+				return AirLockResult.OUTER_DOOR_PRESSURE_NOT_EQUAL;
+			}
+			return AirLockResult.OK;
+		}
+		if (command == AirLockCommand.OPEN_INNER) {
+			if (innerDoor.isOpen()) {
+				return AirLockResult.INNER_DOOR_ALREADY_OPEN;
+			}
+			if (mode != OperationMode.AUTO && !innerDoor.isPressureEqual()) {
+				return AirLockResult.INNER_DOOR_PRESSURE_NOT_EQUAL;
+			}
+			return AirLockResult.OK;
+		}
+		if (command == AirLockCommand.CLOSE_OUTER) {
+			return outerDoor.isOpen() ? AirLockResult.OK : AirLockResult.OUTER_DOOR_ALREADY_CLOSED;
+		}
+		if (command == AirLockCommand.CLOSE_INNER) {
+			return innerDoor.isOpen() ? AirLockResult.OK : AirLockResult.INNER_DOOR_ALREADY_CLOSED;
+		}
+		// Equalising and toggling the mode need the airlock sealed
+		return state == AirLockState.SEALED ? AirLockResult.OK : AirLockResult.NOT_SEALED;
+	}
+
+	private int currentState(AirLockCommand command) {
+		// Packs the doors, seal, mode and pressures into a TransitionTable state, reading
+		// only the flags the command's rules look at
+		int used = rules.getUsedFlags(command);
+		int current = 0;
+		if ((used & TransitionTable.OUTER_OPEN) != 0 && outerDoor.isOpen()) {
+			current |= TransitionTable.OUTER_OPEN;
+		}
+		if ((used & TransitionTable.INNER_OPEN) != 0 && innerDoor.isOpen()) {
+			current |= TransitionTable.INNER_OPEN;
+		}
+		if ((used & TransitionTable.SEALED) != 0 && state == AirLockState.SEALED) {
+			current |= TransitionTable.SEALED;
+		}
+		if ((used & TransitionTable.AUTO) != 0 && mode == OperationMode.AUTO) {
+			current |= TransitionTable.AUTO;
+		}
+		if ((used & TransitionTable.OUTER_EQUAL) != 0 && outerDoor.isPressureEqual()) {
+			current |= TransitionTable.OUTER_EQUAL;
+		}
+		if ((used & TransitionTable.INNER_EQUAL) != 0 && innerDoor.isPressureEqual()) {
+			current |= TransitionTable.INNER_EQUAL;
+		}
+		return current;
+	}
+
+	private void throwIfRejected(AirLockResult result) throws AirLockException {
+		if (!result.isOk()) {
+			throw rejection(result);
+		}
+	}
+
+	@Override
+	public AirLockException rejection(AirLockResult result) {
+		// The exception messages are only built here, once a command has been rejected,
+		// and match the messages the exception API has always reported
+		switch (result) {
+			case OUTER_DOOR_PRESSURE_NOT_EQUAL:
+				return new AirLockException("Error while opening outer door. "
+						+ "Pressure sensors must be equal when door is open, but were "
+						+ outerDoor.getExternalPressure() + " and " + outerDoor.getInternalPressure());
+			case INNER_DOOR_PRESSURE_NOT_EQUAL:
+				return new AirLockException("Error while opening inner door. "
+						+ "Pressure sensors must be equal when door is open, but were "
+						+ innerDoor.getExternalPressure() + " and " + innerDoor.getInternalPressure());
+			case OUTER_DOOR_ALREADY_CLOSED:
+				return new AirLockException("Outer door is already closed Door is already closed");
+			case INNER_DOOR_ALREADY_CLOSED:
+				return new AirLockException(
+						"DoorException thrown: airlock.exceptions.DoorException: Door is already closed");
+			default:
+				return new AirLockException(result.getMessage());
+		}
+	}
+
+	@Override
+	public boolean isOuterDoorClosed() {
+		return outerDoor.isClosed();
+	}
+
+	@Override
+	public boolean isInnerDoorClosed() {
+		return innerDoor.isClosed();
+	}
+
+	@Override
+	public boolean isInManualMode() {
+		return mode == OperationMode.MANUAL;
+	}
+
+	@Override
+	public boolean isInAutoMode() {
+		return mode == OperationMode.AUTO;
+	}
+
+	@Override
+	public boolean isSealed() {
+		return state == AirLockState.SEALED;
+	}
+
+	@Override
+	public boolean isUnsealed() {
+		return state == AirLockState.UNSEALED;
+	}
+
+	public String toString() {
+		return StatusRenderer.appendAirLock(new StringBuilder(40), this).toString();
+	}
 }
\ No newline at end of file
@@ -0,0 +1,118 @@
+package airlock.entities;
+
+import airlock.exceptions.DoorException;
+import airlock.exceptions.PressureException;
+import airlock.topology.PressureTopology;
+
+public class AirLockAssembly {
+
+	private final PressureTopology topology;
+	private final int exteriorChamber;
+	private final int lockChamber;
+	private final int interiorChamber;
+
+	private final IPressureSensor exteriorSensor;
+	private final IPressureSensor lockSensor;
+	private final IPressureSensor interiorSensor;
+
+	private final IDoor exteriorDoor;
+	private final IDoor interiorDoor;
+
+	private final AirLock airLock;
+
+	public AirLockAssembly(double exteriorPressure, double lockPressure, double interiorPressure)
+			throws PressureException, DoorException {
+		this(exteriorPressure, lockPressure, interiorPressure, PressureTolerance.DEFAULT);
+	}
+
+	public AirLockAssembly(double exteriorPressure, double lockPressure, double interiorPressure,
+			PressureTolerance tolerance) throws PressureException, DoorException {
+		// Wires up the three chambers and two doors as a topology, so pressure set
+		// on any chamber flows through whichever doors are open
+		topology = new PressureTopology();
+		exteriorChamber = topology.addChamber(exteriorPressure);
+		lockChamber = topology.addChamber(lockPressure);
+		interiorChamber = topology.addChamber(interiorPressure);
+
+		exteriorSensor = topology.getSensor(exteriorChamber);
+		lockSensor = topology.getSensor(lockChamber);
+		interiorSensor = topology.getSensor(interiorChamber);
+
+		exteriorDoor = topology.getDoor(topology.addDoor(exteriorChamber, lockChamber, tolerance));
+		interiorDoor = topology.getDoor(topology.addDoor(interiorChamber, lockChamber, tolerance));
+
+		airLock = new AirLock(exteriorDoor, interiorDoor, lockSensor);
+	}
+
+	public void setExteriorPressure(double pressure) throws PressureException {
+		topology.setPressure(exteriorChamber, pressure);
+	}
+
+	public void setInteriorPressure(double pressure) throws PressureException {
+		topology.setPressure(interiorChamber, pressure);
+	}
+
+	public void setLockPressure(double pressure) throws PressureException {
+		topology.setPressure(lockChamber, pressure);
+	}
+
+	public void setDirtyListener(IDirtyListener dirtyListener) {
+		// The airlock reports commands, the topology reports every door and pressure change
+		airLock.setDirtyListener(dirtyListener);
+		topology.setDirtyListener(dirtyListener);
+	}
+
+	public IDirtyListener getDirtyListener() {
+		return airLock.getDirtyListener();
+	}
+
+	public void addDirtyListener(IDirtyListener dirtyListener) {
+		// Chained onto the airlock and the topology separately, so a listener added
+		// to only one of them is never copied across to the other
+		airLock.setDirtyListener(IDirtyListener.both(airLock.getDirtyListener(), dirtyListener));
+		topology.setDirtyListener(IDirtyListener.both(topology.getDirtyListener(), dirtyListener));
+	}
+
+	public void removeDirtyListener(IDirtyListener dirtyListener) {
+		airLock.setDirtyListener(IDirtyListener.without(airLock.getDirtyListener(), dirtyListener));
+		topology.setDirtyListener(IDirtyListener.without(topology.getDirtyListener(), dirtyListener));
+	}
+
+	public void addCommandListener(IDirtyListener commandListener) {
+		// Told only of commands the airlock accepted, such as an equalise, and not of
+		// pressure arriving through the sensors
+		airLock.setDirtyListener(IDirtyListener.both(airLock.getDirtyListener(), commandListener));
+	}
+
+	public void removeCommandListener(IDirtyListener commandListener) {
+		airLock.setDirtyListener(IDirtyListener.without(airLock.getDirtyListener(), commandListener));
+	}
+
+	public PressureTopology getTopology() {
+		return topology;
+	}
+
+	public IPressureSensor getExteriorSensor() {
+		return exteriorSensor;
+	}
+
+	public IPressureSensor getLockSensor() {
+		return lockSensor;
+	}
+
+	public IPressureSensor getInteriorSensor() {
+		return interiorSensor;
+	}
+
+	public IDoor getExteriorDoor() {
+		return exteriorDoor;
+	}
+
+	public IDoor getInteriorDoor() {
+		return interiorDoor;
+	}
+
+	public IResultAirLock getAirLock() {
+		return airLock;
+	}
+}
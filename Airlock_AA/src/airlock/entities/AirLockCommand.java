@@ -0,0 +1,80 @@
+package airlock.entities;
+
+import airlock.exceptions.AirLockException;
+
+public enum AirLockCommand {
+	OPEN_OUTER("OX"),
+	OPEN_INNER("OI"),
+	CLOSE_OUTER("CX"),
+	CLOSE_INNER("CI"),
+	EQUALISE_ENVIRONMENT("EX"),
+	EQUALISE_CABIN("EI"),
+	TOGGLE_MODE("TM");
+
+	private final String code;
+
+	AirLockCommand(String code) {
+		this.code = code;
+	}
+
+	public String getCode() {
+		return code;
+	}
+
+	public void execute(IAirLock airLock) throws AirLockException {
+		// Dispatches the command to the matching IAirLock operation
+		switch (this) {
+			case OPEN_OUTER:
+				airLock.openOuterDoor();
+				break;
+			case OPEN_INNER:
+				airLock.openInnerDoor();
+				break;
+			case CLOSE_OUTER:
+				airLock.closeOuterDoor();
+				break;
+			case CLOSE_INNER:
+				airLock.closeInnerDoor();
+				break;
+			case EQUALISE_ENVIRONMENT:
+				airLock.equaliseWithEnvironmentPressure();
+				break;
+			case EQUALISE_CABIN:
+				airLock.equaliseWithCabinPressure();
+				break;
+			case TOGGLE_MODE:
+				airLock.toggleOperationMode();
+				break;
+		}
+	}
+
+	public AirLockResult tryExecute(IResultAirLock airLock) {
+		// Same dispatch as execute, without exceptions for rejected commands
+		switch (this) {
+			case OPEN_OUTER:
+				return airLock.tryOpenOuterDoor();
+			case OPEN_INNER:
+				return airLock.tryOpenInnerDoor();
+			case CLOSE_OUTER:
+				return airLock.tryCloseOuterDoor();
+			case CLOSE_INNER:
+				return airLock.tryCloseInnerDoor();
+			case EQUALISE_ENVIRONMENT:
+				return airLock.tryEqualiseWithEnvironmentPressure();
+			case EQUALISE_CABIN:
+				return airLock.tryEqualiseWithCabinPressure();
+			default:
+				return airLock.tryToggleOperationMode();
+		}
+	}
+
+	public static AirLockCommand fromCode(String code) {
+		// Returns the command for a menu code such as "OX", or null if unrecognised
+		for (AirLockCommand command : values()) {
+			if (command.code.equalsIgnoreCase(code)) {
+				return command;
+			}
+		}
+		return null;
+	}
+}
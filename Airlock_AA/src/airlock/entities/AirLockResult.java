@@ -0,0 +1,27 @@
+package airlock.entities;
+
+public enum AirLockResult {
+	OK("OK"),
+	OUTER_DOOR_ALREADY_OPEN("Outer door is already open"),
+	INNER_DOOR_ALREADY_OPEN("Inner door is already open"),
+	OUTER_DOOR_ALREADY_CLOSED("Outer door is already closed"),
+	INNER_DOOR_ALREADY_CLOSED("Inner door is already closed"),
+	OUTER_DOOR_PRESSURE_NOT_EQUAL("Error while opening outer door. Pressure sensors must be equal"),
+	INNER_DOOR_PRESSURE_NOT_EQUAL("Error while opening inner door. Pressure sensors must be equal"),
+	NOT_SEALED("Airlock is not sealed"),
+	NEGATIVE_PRESSURE("The new value for Pressure cannot be negative");
+
+	private final String message;
+
+	AirLockResult(String message) {
+		this.message = message;
+	}
+
+	public String getMessage() {
+		return message;
+	}
+
+	public boolean isOk() {
+		return this == OK;
+	}
+}
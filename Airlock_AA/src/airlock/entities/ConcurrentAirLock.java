@@ -0,0 +1,270 @@
+package airlock.entities;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import airlock.exceptions.AirLockException;
+import airlock.exceptions.PressureException;
+import airlock.status.StatusRenderer;
+
+public class ConcurrentAirLock implements IAirLock {
+
+	// Door, mode and busy flags live in the low bits of a single word, the
+	// remaining bits hold a version that changes on every transition so a
+	// stale compare-and-set can never succeed
+	private static final long OUTER_OPEN = 1;
+	private static final long INNER_OPEN = 2;
+	private static final long AUTO = 4;
+	private static final long BUSY = 8;
+	private static final long FLAGS = 15;
+	private static final long VERSION_STEP = 16;
+
+	// How long a waiter spins on BUSY before yielding, then parking with a growing backoff
+	private static final int SPIN_LIMIT = 64;
+	private static final int YIELD_LIMIT = 128;
+	private static final long MAX_PARK_NANOS = 1_000_000;
+
+	private final IPressureSensor exteriorSensor;
+	private final IPressureSensor lockSensor;
+	private final IPressureSensor interiorSensor;
+
+	private final AtomicLong word;
+
+	public ConcurrentAirLock(IPressureSensor exteriorSensor, IPressureSensor lockSensor,
+			IPressureSensor interiorSensor, DoorState outerDoorState, DoorState innerDoorState)
+			throws AirLockException {
+		// Check sensors and initial door states are not null
+		if (exteriorSensor == null || lockSensor == null || interiorSensor == null) {
+			throw new AirLockException("Pressure sensors cannot be null");
+		}
+		if (outerDoorState == null || innerDoorState == null) {
+			throw new AirLockException("Initial door states cannot be null");
+		}
+		this.exteriorSensor = exteriorSensor;
+		this.lockSensor = lockSensor;
+		this.interiorSensor = interiorSensor;
+
+		// Both doors may never be open at the same time
+		if (outerDoorState == DoorState.OPEN && innerDoorState == DoorState.OPEN) {
+			throw new AirLockException("Outer and inner doors cannot both be open");
+		}
+
+		// An open door must have equal pressures either side, the same as Door
+		long flags = 0;
+		if (outerDoorState == DoorState.OPEN) {
+			checkPressuresEqual(exteriorSensor, "Outer");
+			flags |= OUTER_OPEN;
+		}
+		if (innerDoorState == DoorState.OPEN) {
+			checkPressuresEqual(interiorSensor, "Inner");
+			flags |= INNER_OPEN;
+		}
+
+		// Initial operation mode is MANUAL
+		word = new AtomicLong(flags);
+	}
+
+	@Override
+	public void openOuterDoor() throws AirLockException {
+		openDoor(OUTER_OPEN, INNER_OPEN, exteriorSensor, "Outer", "Inner");
+	}
+
+	@Override
+	public void openInnerDoor() throws AirLockException {
+		openDoor(INNER_OPEN, OUTER_OPEN, interiorSensor, "Inner", "Outer");
+	}
+
+	@Override
+	public void closeOuterDoor() throws AirLockException {
+		closeDoor(OUTER_OPEN, "Outer door is already closed");
+	}
+
+	@Override
+	public void closeInnerDoor() throws AirLockException {
+		closeDoor(INNER_OPEN, "Inner door is already closed");
+	}
+
+	@Override
+	public void equaliseWithEnvironmentPressure() throws AirLockException {
+		equalise(exteriorSensor);
+	}
+
+	@Override
+	public void equaliseWithCabinPressure() throws AirLockException {
+		equalise(interiorSensor);
+	}
+
+	@Override
+	public void toggleOperationMode() throws AirLockException {
+		while (true) {
+			long current = awaitIdle();
+			// if airlock state is not SEALED then throws AirLockException
+			if (!isSealed(current)) {
+				throw new AirLockException("Airlock is not sealed");
+			}
+			if (transition(current, (current & FLAGS) ^ AUTO)) {
+				return;
+			}
+		}
+	}
+
+	@Override
+	public boolean isOuterDoorClosed() {
+		return (word.get() & OUTER_OPEN) == 0;
+	}
+
+	@Override
+	public boolean isInnerDoorClosed() {
+		return (word.get() & INNER_OPEN) == 0;
+	}
+
+	@Override
+	public boolean isSealed() {
+		return isSealed(word.get());
+	}
+
+	@Override
+	public boolean isUnsealed() {
+		return !isSealed(word.get());
+	}
+
+	@Override
+	public boolean isInManualMode() {
+		return (word.get() & AUTO) == 0;
+	}
+
+	@Override
+	public boolean isInAutoMode() {
+		return (word.get() & AUTO) != 0;
+	}
+
+	public boolean areBothDoorsOpen() {
+		// Reads both door flags from one snapshot of the state word
+		long current = word.get();
+		return (current & OUTER_OPEN) != 0 && (current & INNER_OPEN) != 0;
+	}
+
+	private void openDoor(long door, long otherDoor, IPressureSensor outsideSensor,
+			String name, String otherName) throws AirLockException {
+		while (true) {
+			long current = awaitIdle();
+			if ((current & door) != 0) {
+				throw new AirLockException(name + " door is already open");
+			}
+			long opened = (current & AUTO) | door;
+
+			if ((current & AUTO) != 0) {
+				// AUTO mode closes the other door, equalises and opens as one transition
+				if (claim(current)) {
+					// BUSY is released whatever the sensor throws, the door only opens
+					// once the lock pressure has been written
+					long released = current & FLAGS;
+					try {
+						lockSensor.setPressure(outsideSensor.getPressure());
+						released = opened;
+					} catch (PressureException e) {
+						throw new AirLockException(e.getMessage());
+					} finally {
+						release(current, released);
+					}
+					return;
+				}
+			} else {
+				// MANUAL mode never opens a door while the other one is open
+				if ((current & otherDoor) != 0) {
+					throw new AirLockException("Error while opening " + name.toLowerCase() + " door. "
+							+ otherName + " door is open");
+				}
+				checkPressuresEqual(outsideSensor, name);
+				if (transition(current, opened)) {
+					return;
+				}
+			}
+		}
+	}
+
+	private void closeDoor(long door, String alreadyClosed) throws AirLockException {
+		while (true) {
+			long current = awaitIdle();
+			if ((current & door) == 0) {
+				throw new AirLockException(alreadyClosed);
+			}
+			if (transition(current, (current & FLAGS) & ~door)) {
+				return;
+			}
+		}
+	}
+
+	private void equalise(IPressureSensor outsideSensor) throws AirLockException {
+		while (true) {
+			long current = awaitIdle();
+			// if airlock state is not SEALED then throw AirLockException reporting airlock
+			// is not sealed
+			if (!isSealed(current)) {
+				throw new AirLockException("Airlock is not sealed");
+			}
+			if (claim(current)) {
+				try {
+					lockSensor.setPressure(outsideSensor.getPressure());
+				} catch (PressureException e) {
+					throw new AirLockException(e.getMessage());
+				} finally {
+					release(current, current & FLAGS);
+				}
+				return;
+			}
+		}
+	}
+
+	private void checkPressuresEqual(IPressureSensor outsideSensor, String name) throws AirLockException {
+		if (Math.abs(outsideSensor.getPressure() - lockSensor.getPressure()) > Door.TOLERANCE) {
+			throw new AirLockException("Error while opening " + name.toLowerCase() + " door. "
+					+ "Pressure sensors must be equal when door is open, but were "
+					+ outsideSensor.getPressure() + " and " + lockSensor.getPressure());
+		}
+	}
+
+	private long awaitIdle() {
+		// Waits out the window where another thread is writing the lock sensor. That
+		// is normally a few nanoseconds, so spin first, then yield, then park with an
+		// exponential backoff so a slow sensor does not burn a core per waiter.
+		long current = word.get();
+		int attempts = 0;
+		long parkNanos = 1_000;
+		while ((current & BUSY) != 0) {
+			if (attempts < SPIN_LIMIT) {
+				Thread.onSpinWait();
+			} else if (attempts < YIELD_LIMIT) {
+				Thread.yield();
+			} else {
+				LockSupport.parkNanos(parkNanos);
+				parkNanos = Math.min(parkNanos * 2, MAX_PARK_NANOS);
+			}
+			attempts++;
+			current = word.get();
+		}
+		return current;
+	}
+
+	private boolean transition(long current, long flags) {
+		return word.compareAndSet(current, (current & ~FLAGS) + VERSION_STEP | flags);
+	}
+
+	private boolean claim(long current) {
+		return word.compareAndSet(current, current | BUSY);
+	}
+
+	private void release(long claimed, long flags) {
+		word.set((claimed & ~FLAGS) + VERSION_STEP | flags);
+	}
+
+	private static boolean isSealed(long current) {
+		return (current & (OUTER_OPEN | INNER_OPEN)) == 0;
+	}
+
+	public String toString() {
+		long current = word.get();
+		return StatusRenderer.appendAirLock(new StringBuilder(40), isSealed(current), (current & AUTO) != 0)
+				.toString();
+	}
+}
@@ -0,0 +1,20 @@
+package airlock.entities;
+
+class DirtyListenerPair implements IDirtyListener {
+
+	// One link of a listener chain built by IDirtyListener.both, kept as a class
+	// rather than a lambda so IDirtyListener.without can take a listener back out
+	final IDirtyListener first;
+	final IDirtyListener second;
+
+	DirtyListenerPair(IDirtyListener first, IDirtyListener second) {
+		this.first = first;
+		this.second = second;
+	}
+
+	@Override
+	public void markDirty() {
+		first.markDirty();
+		second.markDirty();
+	}
+}
@@ -1,92 +1,148 @@
-package airlock.entities;
-
-import airlock.exceptions.DoorException;
-
-public class Door implements IDoor{
-	
-	private static final double TOLERANCE = 0.001;
-	
-	IPressureSensor inSensor;
-	IPressureSensor exSensor;
-	
-	private DoorState state;
-	
-	public Door(IPressureSensor exSensor, IPressureSensor inSensor, 
-	            DoorState initialState) throws DoorException {
-		// Check exSensor and inSensor are not null
-		if (exSensor == null || inSensor == null) {
-			throw new DoorException("Pressure sensors cannot be null");
-		}else{
-			this.exSensor = exSensor;
-			this.inSensor = inSensor;
-		}
-
-		// Check initialState is not null
-		if (initialState == null) {
-			throw new DoorException("Initial state cannot be null");
-		}else {
-			this.state = initialState;
-		}
-
-		// if initialState is OPEN, check that the pressure sensors are equal
-		if (initialState == DoorState.OPEN) {
-			if (Math.abs(exSensor.getPressure() - inSensor.getPressure()) > TOLERANCE) {
-				throw new DoorException("Pressure sensors must be equal when door is open, but were " + exSensor.getPressure() + " and " + inSensor.getPressure());
-			}
-		}
-
-	}
-	
-	@Override
-	public void open() throws DoorException {
-		// Check that the door is not already open
-		if (state == DoorState.OPEN) {
-			throw new DoorException("Door is already open");
-		} else{
-			// Check that the pressure sensors are equal
-			if (Math.abs(exSensor.getPressure() - inSensor.getPressure()) > TOLERANCE) {
-				throw new DoorException("Pressure sensors must be equal when door is open, but were " + exSensor.getPressure() + " and " + inSensor.getPressure());
-			}else{
-				state = DoorState.OPEN;
-			}
-		}
-	}
-	
-	@Override
-	public void close() throws DoorException {
-		// Check that the door is not already closed
-		if (state == DoorState.CLOSED) {
-			throw new DoorException("Door is already closed");
-		} else{
-			state = DoorState.CLOSED;
-		}
-	}
-
-	@Override
-	public double getExternalPressure() {
-
-		return exSensor.getPressure();
-	}
-
-	@Override
-	public double getInternalPressure() {
-		return inSensor.getPressure();
-	}
-
-	@Override
-	public boolean isOpen() {
-		return state.equals(DoorState.OPEN);
-	}
-
-	@Override
-	public boolean isClosed() {
-		return state.equals(DoorState.CLOSED);
-	}
-
-	public String toString() {
-		return String.format(
-			"Door: state: %s, external pressure: %3.1f bar, internal pressure: %3.1f bar", 
-			state, exSensor.getPressure(), inSensor.getPressure());
-	}	
-
-}
+package airlock.entities;
+
+import airlock.exceptions.DoorException;
+import airlock.status.StatusRenderer;
+
+public class Door implements IDoor{
+	
+	public static final double TOLERANCE = 0.001;
+	
+	IPressureSensor inSensor;
+	IPressureSensor exSensor;
+	
+	private DoorState state;
+
+	private IDirtyListener dirtyListener;
+
+	private final PressureTolerance tolerance;
+
+	// Whether the pressures either side are equal under the tolerance. Sensors that
+	// report their changes keep it up to date, any others are read again on each open.
+	private boolean pressureEqual;
+	private final boolean notified;
+	
+	public Door(IPressureSensor exSensor, IPressureSensor inSensor, 
+	            DoorState initialState) throws DoorException {
+		this(exSensor, inSensor, initialState, PressureTolerance.DEFAULT);
+	}
+
+	public Door(IPressureSensor exSensor, IPressureSensor inSensor, 
+	            DoorState initialState, PressureTolerance tolerance) throws DoorException {
+		// Check exSensor and inSensor are not null
+		if (exSensor == null || inSensor == null) {
+			throw new DoorException("Pressure sensors cannot be null");
+		}else{
+			this.exSensor = exSensor;
+			this.inSensor = inSensor;
+		}
+
+		// Check initialState is not null
+		if (initialState == null) {
+			throw new DoorException("Initial state cannot be null");
+		}else {
+			this.state = initialState;
+		}
+
+		// Check tolerance is not null
+		if (tolerance == null) {
+			throw new DoorException("Pressure tolerance cannot be null");
+		}else {
+			this.tolerance = tolerance;
+		}
+
+		// if initialState is OPEN, check that the pressure sensors are equal
+		pressureEqual = tolerance.isEqual(false, exSensor.getPressure(), inSensor.getPressure());
+		if (initialState == DoorState.OPEN && !pressureEqual) {
+			throw new DoorException("Pressure sensors must be equal when door is open, but were " + exSensor.getPressure() + " and " + inSensor.getPressure());
+		}
+
+		// Only when both sides report their changes can the flag be trusted between them
+		if (exSensor instanceof INotifyingPressureSensor && inSensor instanceof INotifyingPressureSensor) {
+			((INotifyingPressureSensor) exSensor).addPressureListener(this::pressureChanged);
+			((INotifyingPressureSensor) inSensor).addPressureListener(this::pressureChanged);
+			notified = true;
+		}else {
+			notified = false;
+		}
+	}
+	
+	@Override
+	public void open() throws DoorException {
+		// Check that the door is not already open
+		if (state == DoorState.OPEN) {
+			throw new DoorException("Door is already open");
+		} else{
+			// Check that the pressure sensors are equal
+			if (!isPressureEqual()) {
+				throw new DoorException("Pressure sensors must be equal when door is open, but were " + exSensor.getPressure() + " and " + inSensor.getPressure());
+			}else{
+				state = DoorState.OPEN;
+				changed();
+			}
+		}
+	}
+	
+	@Override
+	public void close() throws DoorException {
+		// Check that the door is not already closed
+		if (state == DoorState.CLOSED) {
+			throw new DoorException("Door is already closed");
+		} else{
+			state = DoorState.CLOSED;
+			changed();
+		}
+	}
+
+	@Override
+	public boolean isPressureEqual() {
+		if (!notified) {
+			pressureChanged();
+		}
+		return pressureEqual;
+	}
+
+	public PressureTolerance getTolerance() {
+		return tolerance;
+	}
+
+	private void pressureChanged() {
+		// Runs only when a side has changed, so noise is filtered through the hysteresis
+		pressureEqual = tolerance.isEqual(pressureEqual, exSensor.getPressure(), inSensor.getPressure());
+	}
+
+	public void setDirtyListener(IDirtyListener dirtyListener) {
+		this.dirtyListener = dirtyListener;
+	}
+
+	private void changed() {
+		if (dirtyListener != null) {
+			dirtyListener.markDirty();
+		}
+	}
+
+	@Override
+	public double getExternalPressure() {
+
+		return exSensor.getPressure();
+	}
+
+	@Override
+	public double getInternalPressure() {
+		return inSensor.getPressure();
+	}
+
+	@Override
+	public boolean isOpen() {
+		return state.equals(DoorState.OPEN);
+	}
+
+	@Override
+	public boolean isClosed() {
+		return state.equals(DoorState.CLOSED);
+	}
+
+	public String toString() {
+		return StatusRenderer.appendDoor(new StringBuilder(80), this).toString();
+	}	
+
+}
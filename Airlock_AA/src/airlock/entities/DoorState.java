@@ -1,5 +1,5 @@
-package airlock.entities;
-
-public enum DoorState {
-	OPEN, CLOSED
-}
+package airlock.entities;
+
+public enum DoorState {
+	OPEN, CLOSED
+}
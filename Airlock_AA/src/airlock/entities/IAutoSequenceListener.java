@@ -0,0 +1,22 @@
+package airlock.entities;
+
+public interface IAutoSequenceListener {
+
+	// Told how long an AUTO mode open spent closing the other door and equalising
+	// before it opened its own door
+	void autoSequenceCompleted(AirLockCommand command, long nanos);
+
+	static IAutoSequenceListener both(IAutoSequenceListener first, IAutoSequenceListener second) {
+		// Lets a second listener time an airlock that already has one
+		if (first == null) {
+			return second;
+		}
+		if (second == null) {
+			return first;
+		}
+		return (command, nanos) -> {
+			first.autoSequenceCompleted(command, nanos);
+			second.autoSequenceCompleted(command, nanos);
+		};
+	}
+}
@@ -0,0 +1,36 @@
+package airlock.entities;
+
+public interface IDirtyListener {
+
+	// Called after a state, mode or pressure change, possibly many times per change
+	void markDirty();
+
+	static IDirtyListener both(IDirtyListener first, IDirtyListener second) {
+		// Lets a second tracker listen to an entity that already has a listener
+		if (first == null) {
+			return second;
+		}
+		if (second == null) {
+			return first;
+		}
+		return new DirtyListenerPair(first, second);
+	}
+
+	static IDirtyListener without(IDirtyListener listeners, IDirtyListener removed) {
+		// Takes a listener added with both back out of a chain, returning what is left
+		if (listeners == removed) {
+			return null;
+		}
+		if (listeners instanceof DirtyListenerPair) {
+			DirtyListenerPair pair = (DirtyListenerPair) listeners;
+			IDirtyListener first = without(pair.first, removed);
+			IDirtyListener second = without(pair.second, removed);
+			if (first == pair.first && second == pair.second) {
+				return listeners;
+			}
+			return both(first, second);
+		}
+		return listeners;
+	}
+
+}
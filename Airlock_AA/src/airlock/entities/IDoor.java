@@ -1,16 +1,21 @@
-package airlock.entities;
-
-import airlock.exceptions.DoorException;
-
-public interface IDoor {
-	
-	void open()  throws DoorException;
-	void close() throws DoorException;
-	
-	double getExternalPressure();
-	double getInternalPressure();
-	
-	boolean isOpen();
-	boolean isClosed();
-	
-}
+package airlock.entities;
+
+import airlock.exceptions.DoorException;
+
+public interface IDoor {
+	
+	void open()  throws DoorException;
+	void close() throws DoorException;
+	
+	double getExternalPressure();
+	double getInternalPressure();
+	
+	boolean isOpen();
+	boolean isClosed();
+
+	default boolean isPressureEqual() {
+		// Doors without a tolerance of their own compare against the standard one
+		return Math.abs(getExternalPressure() - getInternalPressure()) <= Door.TOLERANCE;
+	}
+	
+}
@@ -0,0 +1,11 @@
+package airlock.entities;
+
+public interface INotifyingPressureSensor extends IPressureSensor {
+
+	// The listener is called after every actual change of pressure, listeners added
+	// earlier keep being called
+	void addPressureListener(IDirtyListener listener);
+
+	void removePressureListener(IDirtyListener listener);
+
+}
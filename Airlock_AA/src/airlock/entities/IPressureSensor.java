@@ -1,10 +1,10 @@
-package airlock.entities;
-
-import airlock.exceptions.PressureException;
-
-public interface IPressureSensor {
-	
-	double getPressure();
-	void setPressure(double newPressure) throws PressureException;
-
-}
+package airlock.entities;
+
+import airlock.exceptions.PressureException;
+
+public interface IPressureSensor {
+	
+	double getPressure();
+	void setPressure(double newPressure) throws PressureException;
+
+}
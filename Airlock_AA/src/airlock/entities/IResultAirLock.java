@@ -0,0 +1,26 @@
+package airlock.entities;
+
+import airlock.exceptions.AirLockException;
+
+public interface IResultAirLock extends IAirLock {
+
+	// The same commands as IAirLock, reporting a rejected command as a result
+	// code instead of throwing an AirLockException
+
+	AirLockResult tryOpenOuterDoor();
+	AirLockResult tryCloseOuterDoor();
+
+	AirLockResult tryOpenInnerDoor();
+	AirLockResult tryCloseInnerDoor();
+
+	AirLockResult tryEqualiseWithCabinPressure();
+	AirLockResult tryEqualiseWithEnvironmentPressure();
+
+	AirLockResult tryToggleOperationMode();
+
+	// The exception the IAirLock methods throw for a rejected result, so a wrapper
+	// reporting results throws the same one as the airlock it wraps
+	default AirLockException rejection(AirLockResult result) {
+		return new AirLockException(result.getMessage());
+	}
+}
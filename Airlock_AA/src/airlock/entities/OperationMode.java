@@ -1,5 +1,5 @@
-package airlock.entities;
-
-public enum OperationMode {
-	MANUAL, AUTO
+package airlock.entities;
+
+public enum OperationMode {
+	MANUAL, AUTO
 }
\ No newline at end of file
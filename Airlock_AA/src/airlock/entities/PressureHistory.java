@@ -0,0 +1,127 @@
+package airlock.entities;
+
+public class PressureHistory {
+
+	// A fixed size ring of timestamped samples. Rolling min and max are kept in
+	// monotonic queues of sample sequence numbers and the mean in a running sum,
+	// so every query is O(1) and recording never allocates.
+	private final int capacity;
+	private final long[] times;
+	private final double[] values;
+	private long count;
+	private double sum;
+
+	private final long[] minQueue;
+	private int minHead;
+	private int minSize;
+
+	private final long[] maxQueue;
+	private int maxHead;
+	private int maxSize;
+
+	public PressureHistory(int capacity) {
+		// Check capacity is at least two, one sample has no rate of change
+		if (capacity < 2) {
+			throw new IllegalArgumentException("History capacity must be at least 2");
+		}
+		this.capacity = capacity;
+		times = new long[capacity];
+		values = new double[capacity];
+		minQueue = new long[capacity];
+		maxQueue = new long[capacity];
+	}
+
+	public void record(long timeNanos, double pressure) {
+		long sequence = count;
+		int slot = (int) (sequence % capacity);
+
+		// The slot being overwritten drops out of the window
+		if (sequence >= capacity) {
+			sum -= values[slot];
+			long expired = sequence - capacity;
+			if (minSize > 0 && minQueue[minHead] == expired) {
+				minHead = (minHead + 1) % capacity;
+				minSize--;
+			}
+			if (maxSize > 0 && maxQueue[maxHead] == expired) {
+				maxHead = (maxHead + 1) % capacity;
+				maxSize--;
+			}
+		}
+		times[slot] = timeNanos;
+		values[slot] = pressure;
+		count++;
+
+		// Recompute the sum once per lap so rounding errors cannot build up
+		if (slot == capacity - 1) {
+			sum = 0;
+			for (double value : values) {
+				sum += value;
+			}
+		} else {
+			sum += pressure;
+		}
+
+		// Older samples that can never be the minimum or maximum again are dropped
+		while (minSize > 0 && valueOf(minQueue[(minHead + minSize - 1) % capacity]) >= pressure) {
+			minSize--;
+		}
+		minQueue[(minHead + minSize++) % capacity] = sequence;
+		while (maxSize > 0 && valueOf(maxQueue[(maxHead + maxSize - 1) % capacity]) <= pressure) {
+			maxSize--;
+		}
+		maxQueue[(maxHead + maxSize++) % capacity] = sequence;
+	}
+
+	public int size() {
+		return (int) Math.min(count, capacity);
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	public double getLatest() {
+		checkNotEmpty();
+		return valueOf(count - 1);
+	}
+
+	public double getMin() {
+		checkNotEmpty();
+		return valueOf(minQueue[minHead]);
+	}
+
+	public double getMax() {
+		checkNotEmpty();
+		return valueOf(maxQueue[maxHead]);
+	}
+
+	public double getMean() {
+		checkNotEmpty();
+		return sum / size();
+	}
+
+	public double getRateOfChange() {
+		// Bar per second between the oldest and newest samples in the window
+		if (size() < 2) {
+			return 0.0;
+		}
+		long oldest = count - size();
+		long newest = count - 1;
+		long elapsed = times[(int) (newest % capacity)] - times[(int) (oldest % capacity)];
+		if (elapsed <= 0) {
+			return 0.0;
+		}
+		return (valueOf(newest) - valueOf(oldest)) / (elapsed / 1e9);
+	}
+
+	private double valueOf(long sequence) {
+		return values[(int) (sequence % capacity)];
+	}
+
+	private void checkNotEmpty() {
+		if (count == 0) {
+			throw new IllegalStateException("No pressure samples recorded");
+		}
+	}
+}
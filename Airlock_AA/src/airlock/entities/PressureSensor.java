@@ -1,38 +1,90 @@
-package airlock.entities;
-
-import airlock.exceptions.PressureException;
-
-public class PressureSensor implements IPressureSensor {
-	
-	double pressure;
-	
-	public PressureSensor(double initialPressure) throws PressureException {
-		//Checks if initialPressure is negative, else sets pressure to initialPressure
-		if (initialPressure < 0) {
-			throw new PressureException("Pressure cannot be negative");
-		}else{
-			pressure = initialPressure;
-		}
-
-	}
-
-	public double getPressure() {
-		//returns current pressure value
-		return pressure;
-	}
-	
-	public void setPressure(double newPressure) throws PressureException {
-		//Checks if newPressure is negative, else sets pressure to newPressure
-		if (newPressure < 0) {
-			throw new PressureException("The new value for Pressure cannot be negative");
-		}else{
-			pressure = newPressure;
-		}
-	}
-
-	public String toString() {
-		return String.format(
-			"PressureSensor: pressure: %3.1f bar", getPressure());
-	}
-
+package airlock.entities;
+
+import airlock.exceptions.PressureException;
+import airlock.status.StatusRenderer;
+
+public class PressureSensor implements INotifyingPressureSensor {
+	
+	double pressure;
+	
+	private PressureHistory history;
+
+	private IDirtyListener dirtyListener;
+
+	// Doors watching this sensor, kept apart from the dirty listener so tracking
+	// changes never replaces them
+	private IDirtyListener pressureListener;
+	
+	public PressureSensor(double initialPressure) throws PressureException {
+		//Checks if initialPressure is negative, else sets pressure to initialPressure
+		if (initialPressure < 0) {
+			throw new PressureException("Pressure cannot be negative");
+		}else{
+			pressure = initialPressure;
+		}
+
+	}
+
+	public double getPressure() {
+		//returns current pressure value
+		return pressure;
+	}
+	
+	public void setPressure(double newPressure) throws PressureException {
+		//Checks if newPressure is negative, else sets pressure to newPressure
+		if (newPressure < 0) {
+			throw new PressureException("The new value for Pressure cannot be negative");
+		}else{
+			double oldPressure = pressure;
+			pressure = newPressure;
+			// Only an actual change marks the sensor dirty
+			if (newPressure != oldPressure) {
+				if (pressureListener != null) {
+					pressureListener.markDirty();
+				}
+				if (dirtyListener != null) {
+					dirtyListener.markDirty();
+				}
+			}
+		}
+		// Records the sample if history is enabled for this sensor
+		if (history != null) {
+			history.record(System.nanoTime(), newPressure);
+		}
+	}
+
+	public void setDirtyListener(IDirtyListener dirtyListener) {
+		this.dirtyListener = dirtyListener;
+	}
+
+	@Override
+	public void addPressureListener(IDirtyListener listener) {
+		pressureListener = IDirtyListener.both(pressureListener, listener);
+	}
+
+	@Override
+	public void removePressureListener(IDirtyListener listener) {
+		pressureListener = IDirtyListener.without(pressureListener, listener);
+	}
+
+	public void enableHistory(int capacity) {
+		// Keeps the last capacity samples, starting with the current pressure
+		history = new PressureHistory(capacity);
+		history.record(System.nanoTime(), pressure);
+	}
+
+	public double getSmoothedPressure() {
+		// The rolling mean when history is enabled, otherwise the current pressure
+		return history == null ? pressure : history.getMean();
+	}
+
+	public PressureHistory getHistory() {
+		// returns null unless enableHistory has been called
+		return history;
+	}
+
+	public String toString() {
+		return StatusRenderer.appendSensor(new StringBuilder(32), pressure).toString();
+	}
+
 }
\ No newline at end of file
@@ -0,0 +1,46 @@
+package airlock.entities;
+
+public class PressureTolerance {
+
+	// The tolerance every door used before it could be configured, with no hysteresis
+	public static final PressureTolerance DEFAULT = new PressureTolerance(Door.TOLERANCE, 0.0);
+
+	private final double tolerance;
+	private final double hysteresis;
+
+	// Pressures that have been equal stay equal until they drift this far apart
+	private final double releaseDifference;
+
+	public PressureTolerance(double tolerance, double hysteresis) {
+		// Check tolerance and hysteresis are finite and not negative
+		if (!(tolerance >= 0) || Double.isInfinite(tolerance)) {
+			throw new IllegalArgumentException("Tolerance must be a finite value that is not negative");
+		}
+		if (!(hysteresis >= 0) || Double.isInfinite(hysteresis)) {
+			throw new IllegalArgumentException("Hysteresis must be a finite value that is not negative");
+		}
+		this.tolerance = tolerance;
+		this.hysteresis = hysteresis;
+		this.releaseDifference = tolerance + hysteresis;
+	}
+
+	public boolean isEqual(boolean wasEqual, double firstPressure, double secondPressure) {
+		// Pressures become equal within the tolerance but only stop being equal once they
+		// are more than the tolerance plus the hysteresis apart, so noise around the
+		// tolerance does not flip the answer on every sample
+		double difference = Math.abs(firstPressure - secondPressure);
+		return difference <= (wasEqual ? releaseDifference : tolerance);
+	}
+
+	public double getTolerance() {
+		return tolerance;
+	}
+
+	public double getHysteresis() {
+		return hysteresis;
+	}
+
+	public String toString() {
+		return "Tolerance: " + tolerance + ", hysteresis: " + hysteresis;
+	}
+}
@@ -0,0 +1,48 @@
+package airlock.entities;
+
+public class TransitionRule {
+
+	private final AirLockCommand command;
+	private final int required;
+	private final int forbidden;
+	private final AirLockResult result;
+
+	public TransitionRule(AirLockCommand command, int required, int forbidden, AirLockResult result) {
+		// A rule matches a command in any state that has all of the required flags
+		// and none of the forbidden ones, flags are the TransitionTable state bits
+		if (command == null || result == null) {
+			throw new IllegalArgumentException("Command and result cannot be null");
+		}
+		if ((required & forbidden) != 0) {
+			throw new IllegalArgumentException("A flag cannot be both required and forbidden");
+		}
+		this.command = command;
+		this.required = required;
+		this.forbidden = forbidden;
+		this.result = result;
+	}
+
+	public boolean matches(AirLockCommand command, int state) {
+		return this.command == command && (state & required) == required && (state & forbidden) == 0;
+	}
+
+	public AirLockCommand getCommand() {
+		return command;
+	}
+
+	public int getRequired() {
+		return required;
+	}
+
+	public int getForbidden() {
+		return forbidden;
+	}
+
+	public AirLockResult getResult() {
+		return result;
+	}
+
+	public String toString() {
+		return String.format("%s required: %d forbidden: %d -> %s", command, required, forbidden, result);
+	}
+}
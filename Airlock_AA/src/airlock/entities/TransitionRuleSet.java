@@ -0,0 +1,65 @@
+package airlock.entities;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static airlock.entities.TransitionTable.*;
+
+public class TransitionRuleSet {
+
+	// Rules in priority order, the first rule matching a command and state decides
+	// the result, a command no rule matches is allowed
+	private final List<TransitionRule> rules = new ArrayList<>();
+
+	public TransitionRuleSet add(AirLockCommand command, int required, int forbidden, AirLockResult result) {
+		rules.add(new TransitionRule(command, required, forbidden, result));
+		return this;
+	}
+
+	public TransitionRuleSet add(TransitionRule rule) {
+		if (rule == null) {
+			throw new IllegalArgumentException("Rule cannot be null");
+		}
+		rules.add(rule);
+		return this;
+	}
+
+	public List<TransitionRule> getRules() {
+		return List.copyOf(rules);
+	}
+
+	public TransitionTable compile() {
+		// Evaluates every rule against every state once, so a lookup afterwards
+		// never walks the rule list
+		AirLockCommand[] commands = AirLockCommand.values();
+		byte[] results = new byte[commands.length << STATE_BITS];
+		for (AirLockCommand command : commands) {
+			for (int state = 0; state < STATE_COUNT; state++) {
+				AirLockResult result = AirLockResult.OK;
+				for (TransitionRule rule : rules) {
+					if (rule.matches(command, state)) {
+						result = rule.getResult();
+						break;
+					}
+				}
+				results[command.ordinal() << STATE_BITS | state] = (byte) result.ordinal();
+			}
+		}
+		return new TransitionTable(results);
+	}
+
+	public static TransitionRuleSet standard() {
+		// The rules AirLock has always enforced. In AUTO mode opening a door closes the
+		// other one and equalises first, so its pressure check does not apply.
+		return new TransitionRuleSet()
+				.add(AirLockCommand.OPEN_OUTER, OUTER_OPEN, 0, AirLockResult.OUTER_DOOR_ALREADY_OPEN)
+				.add(AirLockCommand.OPEN_OUTER, 0, AUTO | OUTER_EQUAL, AirLockResult.OUTER_DOOR_PRESSURE_NOT_EQUAL)
+				.add(AirLockCommand.OPEN_INNER, INNER_OPEN, 0, AirLockResult.INNER_DOOR_ALREADY_OPEN)
+				.add(AirLockCommand.OPEN_INNER, 0, AUTO | INNER_EQUAL, AirLockResult.INNER_DOOR_PRESSURE_NOT_EQUAL)
+				.add(AirLockCommand.CLOSE_OUTER, 0, OUTER_OPEN, AirLockResult.OUTER_DOOR_ALREADY_CLOSED)
+				.add(AirLockCommand.CLOSE_INNER, 0, INNER_OPEN, AirLockResult.INNER_DOOR_ALREADY_CLOSED)
+				.add(AirLockCommand.EQUALISE_ENVIRONMENT, 0, SEALED, AirLockResult.NOT_SEALED)
+				.add(AirLockCommand.EQUALISE_CABIN, 0, SEALED, AirLockResult.NOT_SEALED)
+				.add(AirLockCommand.TOGGLE_MODE, 0, SEALED, AirLockResult.NOT_SEALED);
+	}
+}
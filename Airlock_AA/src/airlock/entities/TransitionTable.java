@@ -0,0 +1,56 @@
+package airlock.entities;
+
+public class TransitionTable {
+
+	// State flags, together they index one row of the table per command
+	public static final int OUTER_OPEN = 1;
+	public static final int INNER_OPEN = 2;
+	public static final int SEALED = 4;
+	public static final int AUTO = 8;
+	public static final int OUTER_EQUAL = 16;
+	public static final int INNER_EQUAL = 32;
+
+	public static final int STATE_BITS = 6;
+	public static final int STATE_COUNT = 1 << STATE_BITS;
+
+	private static final AirLockResult[] RESULTS = AirLockResult.values();
+
+	public static final TransitionTable STANDARD = TransitionRuleSet.standard().compile();
+
+	private final byte[] results;
+
+	// Per command, the state flags that can change its result. The rest need not be
+	// read from the doors and sensors at all before a lookup.
+	private final int[] usedFlags;
+
+	TransitionTable(byte[] results) {
+		this.results = results;
+		usedFlags = new int[AirLockCommand.values().length];
+		for (int command = 0; command < usedFlags.length; command++) {
+			for (int flag = 1; flag < STATE_COUNT; flag <<= 1) {
+				for (int state = 0; state < STATE_COUNT; state++) {
+					int row = command << STATE_BITS;
+					if (results[row | state] != results[row | (state ^ flag)]) {
+						usedFlags[command] |= flag;
+						break;
+					}
+				}
+			}
+		}
+	}
+
+	public AirLockResult lookup(AirLockCommand command, int state) {
+		// Flags the command does not use may be left clear in state
+		return RESULTS[results[command.ordinal() << STATE_BITS | state]];
+	}
+
+	public int getUsedFlags(AirLockCommand command) {
+		return usedFlags[command.ordinal()];
+	}
+
+	public static int state(boolean outerOpen, boolean innerOpen, boolean sealed, boolean auto,
+			boolean outerEqual, boolean innerEqual) {
+		return (outerOpen ? OUTER_OPEN : 0) | (innerOpen ? INNER_OPEN : 0) | (sealed ? SEALED : 0)
+				| (auto ? AUTO : 0) | (outerEqual ? OUTER_EQUAL : 0) | (innerEqual ? INNER_EQUAL : 0);
+	}
+}
@@ -0,0 +1,214 @@
+package airlock.events;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+public class ChangeEventBus implements AutoCloseable {
+
+	private static final ChangeEventType[] TYPES = ChangeEventType.values();
+
+	// How long an idle subscriber or a producer waiting on a full ring parks for
+	private static final long PARK_NANOS = 50_000;
+	private static final int SPINS_BEFORE_PARKING = 100;
+
+	// Preallocated ring of primitive events. Producers claim a sequence, fill its
+	// slot and then publish the sequence into the slot's marker, subscribers read
+	// every slot whose marker matches the sequence they expect next.
+	private final int mask;
+	private final byte[] types;
+	private final long[] sources;
+	private final double[] values;
+	private final AtomicLongArray published;
+
+	private final AtomicLong nextSequence = new AtomicLong();
+	// Events published after the close, dropped rather than thrown back at the
+	// command that changed a sensor or door
+	private final AtomicLong dropped = new AtomicLong();
+
+	// The lowest sequence every subscriber has finished with, cached so producers
+	// only rescan the subscribers when the ring looks full
+	private volatile long gatingSequence = -1;
+
+	private final List<Subscriber> subscribers = new ArrayList<>();
+	private volatile boolean started;
+	private volatile boolean closed;
+
+	public ChangeEventBus(int capacity) {
+		// Check capacity is a power of two, so a sequence maps to a slot with a mask
+		if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+			throw new IllegalArgumentException("Capacity must be a power of two");
+		}
+		mask = capacity - 1;
+		types = new byte[capacity];
+		sources = new long[capacity];
+		values = new double[capacity];
+		published = new AtomicLongArray(capacity);
+		for (int slot = 0; slot < capacity; slot++) {
+			published.set(slot, -1);
+		}
+	}
+
+	public synchronized void subscribe(IChangeListener listener) {
+		// Subscribers are fixed before the bus starts, each gets its own thread
+		if (listener == null) {
+			throw new IllegalArgumentException("Listener cannot be null");
+		}
+		if (started) {
+			throw new IllegalStateException("Cannot subscribe after the bus has started");
+		}
+		subscribers.add(new Subscriber(listener));
+	}
+
+	public synchronized void start() {
+		if (started) {
+			throw new IllegalStateException("Bus has already started");
+		}
+		started = true;
+		for (int i = 0; i < subscribers.size(); i++) {
+			Thread thread = new Thread(subscribers.get(i), "change-event-bus-" + i);
+			thread.setDaemon(true);
+			subscribers.get(i).thread = thread;
+			thread.start();
+		}
+	}
+
+	public long publish(ChangeEventType type, long sourceId, double value) {
+		// Lock free for producers, returns the event's sequence or -1 if the bus is
+		// closed or was closed while waiting for room in the ring
+		if (closed) {
+			dropped.incrementAndGet();
+			return -1;
+		}
+		if (!started) {
+			throw new IllegalStateException("Bus has not started");
+		}
+		long sequence = nextSequence.getAndIncrement();
+		if (!subscribers.isEmpty()) {
+			long wrapPoint = sequence - types.length;
+			int spins = 0;
+			while (wrapPoint > gatingSequence) {
+				long lowest = lowestProcessed();
+				gatingSequence = lowest;
+				if (wrapPoint <= lowest) {
+					break;
+				}
+				if (closed) {
+					dropped.incrementAndGet();
+					return -1;
+				}
+				if (++spins < SPINS_BEFORE_PARKING) {
+					Thread.onSpinWait();
+				} else {
+					LockSupport.parkNanos(PARK_NANOS);
+				}
+			}
+		}
+		int slot = (int) sequence & mask;
+		types[slot] = (byte) type.ordinal();
+		sources[slot] = sourceId;
+		values[slot] = value;
+		published.setRelease(slot, sequence);
+		return sequence;
+	}
+
+	public long getPublishedCount() {
+		return nextSequence.get();
+	}
+
+	public long getDroppedCount() {
+		return dropped.get();
+	}
+
+	public long getListenerErrorCount() {
+		long errors = 0;
+		for (Subscriber subscriber : subscribers) {
+			errors += subscriber.errors.get();
+		}
+		return errors;
+	}
+
+	@Override
+	public void close() {
+		// Subscribers deliver everything published before the close, then their threads
+		// exit. An event published at the same moment as the close may be dropped. An
+		// interrupted caller stops waiting for them and keeps its interrupt flag.
+		closed = true;
+		try {
+			for (Subscriber subscriber : subscribers) {
+				if (subscriber.thread != null) {
+					subscriber.thread.join();
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private long lowestProcessed() {
+		long lowest = Long.MAX_VALUE;
+		for (Subscriber subscriber : subscribers) {
+			lowest = Math.min(lowest, subscriber.processed.get());
+		}
+		return lowest;
+	}
+
+	private class Subscriber implements Runnable {
+
+		private final IChangeListener listener;
+		private final AtomicLong processed = new AtomicLong(-1);
+		private final AtomicLong errors = new AtomicLong();
+		private Thread thread;
+
+		Subscriber(IChangeListener listener) {
+			this.listener = listener;
+		}
+
+		@Override
+		public void run() {
+			long next = 0;
+			int idle = 0;
+			while (true) {
+				// Read before scanning, so anything published before the close is seen
+				boolean closing = closed;
+
+				// Everything published contiguously from next forms one batch
+				long last = next - 1;
+				while (last - next + 1 < types.length && published.getAcquire((int) (last + 1) & mask) == last + 1) {
+					last++;
+				}
+				if (last >= next) {
+					for (long sequence = next; sequence <= last; sequence++) {
+						int slot = (int) sequence & mask;
+						deliver(TYPES[types[slot]], sources[slot], values[slot]);
+					}
+					try {
+						listener.onBatchEnd();
+					} catch (RuntimeException e) {
+						errors.incrementAndGet();
+					}
+					processed.set(last);
+					next = last + 1;
+					idle = 0;
+				} else if (closing) {
+					return;
+				} else if (++idle < SPINS_BEFORE_PARKING) {
+					Thread.onSpinWait();
+				} else {
+					LockSupport.parkNanos(PARK_NANOS);
+				}
+			}
+		}
+
+		private void deliver(ChangeEventType type, long sourceId, double value) {
+			// A failing listener must not stall the ring for everyone else
+			try {
+				listener.onChange(type, sourceId, value);
+			} catch (RuntimeException e) {
+				errors.incrementAndGet();
+			}
+		}
+	}
+}
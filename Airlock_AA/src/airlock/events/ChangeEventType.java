@@ -0,0 +1,7 @@
+package airlock.events;
+
+public enum ChangeEventType {
+	PRESSURE_CHANGED,
+	DOOR_OPENED,
+	DOOR_CLOSED
+}
@@ -0,0 +1,12 @@
+package airlock.events;
+
+public interface IChangeListener {
+
+	// Called for each event in order, value is the new pressure for
+	// PRESSURE_CHANGED and 0 for door events
+	void onChange(ChangeEventType type, long sourceId, double value);
+
+	// Called after the last event of each batch, a place to flush or redraw once
+	void onBatchEnd();
+
+}
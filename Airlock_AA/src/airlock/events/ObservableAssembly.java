@@ -0,0 +1,85 @@
+package airlock.events;
+
+import airlock.entities.AirLockAssembly;
+import airlock.entities.IDirtyListener;
+import airlock.entities.IDoor;
+import airlock.entities.INotifyingPressureSensor;
+import airlock.entities.IPressureSensor;
+
+public class ObservableAssembly implements IDirtyListener {
+
+	// Source ids of an assembly's sensors and doors, as offsets from its first id
+	public static final int EXTERIOR_SENSOR = 0;
+	public static final int LOCK_SENSOR = 1;
+	public static final int INTERIOR_SENSOR = 2;
+	public static final int EXTERIOR_DOOR = 3;
+	public static final int INTERIOR_DOOR = 4;
+
+	private final long firstId;
+	private final AirLockAssembly assembly;
+	private final ChangeEventBus bus;
+
+	// The door states last published, compared on every change the topology reports
+	private boolean exteriorOpen;
+	private boolean interiorOpen;
+
+	// Kept so detach can take them back off the chamber sensors
+	private final IDirtyListener exteriorListener;
+	private final IDirtyListener lockListener;
+	private final IDirtyListener interiorListener;
+
+	public ObservableAssembly(long firstId, AirLockAssembly assembly, ChangeEventBus bus) {
+		// Check assembly and bus are not null
+		if (assembly == null || bus == null) {
+			throw new IllegalArgumentException("Assembly and bus cannot be null");
+		}
+		this.firstId = firstId;
+		this.assembly = assembly;
+		this.bus = bus;
+		exteriorOpen = assembly.getExteriorDoor().isOpen();
+		interiorOpen = assembly.getInteriorDoor().isOpen();
+
+		// Each chamber reports its own pressure changes, including pressure that flows
+		// in through an open door, and the topology reports every door that moves
+		exteriorListener = publishPressure(assembly.getExteriorSensor(), EXTERIOR_SENSOR);
+		lockListener = publishPressure(assembly.getLockSensor(), LOCK_SENSOR);
+		interiorListener = publishPressure(assembly.getInteriorSensor(), INTERIOR_SENSOR);
+		assembly.addDirtyListener(this);
+	}
+
+	public void detach() {
+		// Stops publishing, the assembly keeps working without this observer
+		assembly.removeDirtyListener(this);
+		((INotifyingPressureSensor) assembly.getExteriorSensor()).removePressureListener(exteriorListener);
+		((INotifyingPressureSensor) assembly.getLockSensor()).removePressureListener(lockListener);
+		((INotifyingPressureSensor) assembly.getInteriorSensor()).removePressureListener(interiorListener);
+	}
+
+	public AirLockAssembly getAssembly() {
+		return assembly;
+	}
+
+	@Override
+	public void markDirty() {
+		exteriorOpen = publishDoor(assembly.getExteriorDoor(), exteriorOpen, EXTERIOR_DOOR);
+		interiorOpen = publishDoor(assembly.getInteriorDoor(), interiorOpen, INTERIOR_DOOR);
+	}
+
+	private IDirtyListener publishPressure(IPressureSensor sensor, int offset) {
+		if (!(sensor instanceof INotifyingPressureSensor)) {
+			throw new IllegalArgumentException("Assembly sensors must report their pressure changes");
+		}
+		long sensorId = firstId + offset;
+		IDirtyListener listener = () -> bus.publish(ChangeEventType.PRESSURE_CHANGED, sensorId, sensor.getPressure());
+		((INotifyingPressureSensor) sensor).addPressureListener(listener);
+		return listener;
+	}
+
+	private boolean publishDoor(IDoor door, boolean wasOpen, int offset) {
+		boolean open = door.isOpen();
+		if (open != wasOpen) {
+			bus.publish(open ? ChangeEventType.DOOR_OPENED : ChangeEventType.DOOR_CLOSED, firstId + offset, 0.0);
+		}
+		return open;
+	}
+}
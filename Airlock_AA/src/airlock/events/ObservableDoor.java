@@ -0,0 +1,63 @@
+package airlock.events;
+
+import airlock.entities.IDoor;
+import airlock.exceptions.DoorException;
+
+public class ObservableDoor implements IDoor {
+
+	private final long doorId;
+	private final IDoor door;
+	private final ChangeEventBus bus;
+
+	public ObservableDoor(long doorId, IDoor door, ChangeEventBus bus) {
+		// Check door and bus are not null
+		if (door == null || bus == null) {
+			throw new IllegalArgumentException("Door and bus cannot be null");
+		}
+		this.doorId = doorId;
+		this.door = door;
+		this.bus = bus;
+	}
+
+	@Override
+	public void open() throws DoorException {
+		// Published only once the door has actually opened
+		door.open();
+		bus.publish(ChangeEventType.DOOR_OPENED, doorId, 0.0);
+	}
+
+	@Override
+	public void close() throws DoorException {
+		door.close();
+		bus.publish(ChangeEventType.DOOR_CLOSED, doorId, 0.0);
+	}
+
+	@Override
+	public double getExternalPressure() {
+		return door.getExternalPressure();
+	}
+
+	@Override
+	public double getInternalPressure() {
+		return door.getInternalPressure();
+	}
+
+	@Override
+	public boolean isOpen() {
+		return door.isOpen();
+	}
+
+	@Override
+	public boolean isClosed() {
+		return door.isClosed();
+	}
+
+	@Override
+	public boolean isPressureEqual() {
+		return door.isPressureEqual();
+	}
+
+	public String toString() {
+		return door.toString();
+	}
+}
@@ -0,0 +1,76 @@
+package airlock.events;
+
+import airlock.entities.IDirtyListener;
+import airlock.entities.INotifyingPressureSensor;
+import airlock.entities.IPressureSensor;
+import airlock.exceptions.PressureException;
+
+public class ObservablePressureSensor implements INotifyingPressureSensor {
+
+	private final long sensorId;
+	private final IPressureSensor sensor;
+	private final ChangeEventBus bus;
+
+	// Only used when the wrapped sensor cannot report its own changes
+	private IDirtyListener pressureListener;
+
+	public ObservablePressureSensor(long sensorId, IPressureSensor sensor, ChangeEventBus bus) {
+		// Check sensor and bus are not null
+		if (sensor == null || bus == null) {
+			throw new IllegalArgumentException("Sensor and bus cannot be null");
+		}
+		this.sensorId = sensorId;
+		this.sensor = sensor;
+		this.bus = bus;
+		// A sensor that reports its changes is published from its listener, so pressure
+		// set on it directly or arriving through an open door is published as well
+		if (sensor instanceof INotifyingPressureSensor) {
+			((INotifyingPressureSensor) sensor).addPressureListener(
+					() -> bus.publish(ChangeEventType.PRESSURE_CHANGED, sensorId, sensor.getPressure()));
+		}
+	}
+
+	@Override
+	public double getPressure() {
+		return sensor.getPressure();
+	}
+
+	@Override
+	public void setPressure(double newPressure) throws PressureException {
+		if (sensor instanceof INotifyingPressureSensor) {
+			sensor.setPressure(newPressure);
+			return;
+		}
+		// Only an actual change is published, so repeated writes cost subscribers nothing
+		double oldPressure = sensor.getPressure();
+		sensor.setPressure(newPressure);
+		if (newPressure != oldPressure) {
+			bus.publish(ChangeEventType.PRESSURE_CHANGED, sensorId, newPressure);
+			if (pressureListener != null) {
+				pressureListener.markDirty();
+			}
+		}
+	}
+
+	@Override
+	public void addPressureListener(IDirtyListener listener) {
+		if (sensor instanceof INotifyingPressureSensor) {
+			((INotifyingPressureSensor) sensor).addPressureListener(listener);
+		} else {
+			pressureListener = IDirtyListener.both(pressureListener, listener);
+		}
+	}
+
+	@Override
+	public void removePressureListener(IDirtyListener listener) {
+		if (sensor instanceof INotifyingPressureSensor) {
+			((INotifyingPressureSensor) sensor).removePressureListener(listener);
+		} else {
+			pressureListener = IDirtyListener.without(pressureListener, listener);
+		}
+	}
+
+	public String toString() {
+		return sensor.toString();
+	}
+}
@@ -0,0 +1,15 @@
+package airlock.exceptions;
+
+public class JournalException extends Exception {
+
+	private static final long serialVersionUID = 1L;
+
+	public JournalException(String message) {
+		super(message);
+	}
+
+	public JournalException(Exception e) {
+		super(e);
+	}
+
+}
@@ -0,0 +1,187 @@
+package airlock.fleet;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+
+import airlock.entities.AirLockAssembly;
+import airlock.entities.AirLockCommand;
+import airlock.entities.IDirtyListener;
+import airlock.entities.IAirLock;
+import airlock.entities.IResultAirLock;
+import airlock.exceptions.AirLockException;
+
+public class AirLockFleet implements AutoCloseable {
+
+	// Airlocks, their assemblies and command queues by id. Commands look their
+	// airlock up without locking or boxing the id, and the registry's indexes can be
+	// queried through getRegistry.
+	private final AirLockRegistry registry = new AirLockRegistry();
+	private final FleetChangeSet changes = new FleetChangeSet();
+	private final ExecutorService[] shards;
+
+	public AirLockFleet(int shardCount) {
+		// Check there is at least one shard
+		if (shardCount < 1) {
+			throw new IllegalArgumentException("Fleet needs at least one shard");
+		}
+		// Each shard is a single writer, so commands for one airlock always run in order
+		shards = new ExecutorService[shardCount];
+		for (int i = 0; i < shardCount; i++) {
+			shards[i] = Executors.newSingleThreadExecutor();
+		}
+	}
+
+	public AirLockFleet() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	public void register(long id, IAirLock airLock) throws AirLockException {
+		// Check airLock is not null and the id is not already taken
+		registry.register(id, airLock);
+	}
+
+	public void register(long id, AirLockAssembly assembly) throws AirLockException {
+		// Registers the assembly's airlock and tracks every change to it, its doors
+		// and its sensors for changedSince. Added alongside any listener already
+		// there, such as an AirLockRegistry's, so both keep hearing of changes.
+		registry.register(id, assembly);
+		assembly.addDirtyListener(changes.track(id));
+	}
+
+	public IAirLock unregister(long id) {
+		// Detaches the tracker so registering the assembly again does not grow its chain
+		AirLockAssembly assembly = registry.getAssembly(id);
+		IDirtyListener tracker = changes.untrack(id);
+		if (assembly != null && tracker != null) {
+			assembly.removeDirtyListener(tracker);
+		}
+		return registry.unregister(id);
+	}
+
+	public IAirLock get(long id) {
+		return registry.get(id);
+	}
+
+	public AirLockAssembly getAssembly(long id) {
+		// Only assemblies registered with register(id, assembly), null otherwise
+		return registry.getAssembly(id);
+	}
+
+	public AirLockRegistry getRegistry() {
+		return registry;
+	}
+
+	public int size() {
+		return registry.size();
+	}
+
+	public int getShardCount() {
+		return shards.length;
+	}
+
+	public int shardOf(long id) {
+		return (int) Math.floorMod(id ^ (id >>> 32), (long) shards.length);
+	}
+
+	public Future<Void> submit(long id, AirLockCommand command) throws AirLockException {
+		// Looks up the airlock up front so an unknown id is reported to the caller
+		AirLockRegistry.Entry entry = entryOf(id);
+		IAirLock airLock = entry.airLock;
+		// Commands already queued for this airlock run first, and commands queued
+		// after this one wait for it, the same order they were handed to the fleet
+		CommandQueue queue = entry.queue;
+		if (queue != null) {
+			queue.barrier();
+		}
+		return shards[shardOf(id)].submit(() -> {
+			command.execute(airLock);
+			return null;
+		});
+	}
+
+	public void execute(long id, Runnable task) throws AirLockException {
+		// Runs the task on the airlock's shard, in order with its commands, so work
+		// such as applying sensor samples never races a command on another thread
+		CommandQueue queue = entryOf(id).queue;
+		if (queue != null) {
+			queue.barrier();
+		}
+		shards[shardOf(id)].execute(task);
+	}
+
+	public void executeOnShard(int shard, Runnable task) {
+		// Runs the task on the shard's thread after the work already handed to it, for
+		// work such as sensor samples that only needs to be the single writer of the
+		// shard's airlocks. Unlike execute it sets no barrier, so commands queued
+		// before and after it still coalesce into one drain.
+		shards[shard].execute(task);
+	}
+
+	public void enqueue(long id, AirLockCommand command) throws AirLockException {
+		// Queues the command with coalescing, a burst of commands for one airlock is
+		// drained by a single task on its shard. Queued and submitted commands for
+		// one airlock run in the order the calls to enqueue and submit returned.
+		AirLockRegistry.Entry entry = entryOf(id);
+		CommandQueue queue = entry.queue;
+		if (queue == null) {
+			if (!(entry.airLock instanceof IResultAirLock)) {
+				throw new AirLockException("Airlock " + id + " does not support queued commands");
+			}
+			synchronized (entry) {
+				queue = entry.queue;
+				if (queue == null) {
+					queue = new CommandQueue((IResultAirLock) entry.airLock);
+					entry.queue = queue;
+				}
+			}
+		}
+		if (queue.submit(command)) {
+			shards[shardOf(id)].execute(queue::drain);
+		}
+	}
+
+	public long getVersion() {
+		return changes.getVersion();
+	}
+
+	public long changedSince(long version, LongConsumer changed) {
+		// Ids of tracked airlocks that changed after version, see FleetChangeSet
+		return changes.changedSince(version, changed);
+	}
+
+	public CommandQueue getQueue(long id) {
+		AirLockRegistry.Entry entry = registry.entry(id);
+		return entry == null ? null : entry.queue;
+	}
+
+	private AirLockRegistry.Entry entryOf(long id) throws AirLockException {
+		AirLockRegistry.Entry entry = registry.entry(id);
+		if (entry == null) {
+			throw new AirLockException("No airlock registered with id " + id);
+		}
+		return entry;
+	}
+
+	@Override
+	public void close() {
+		// Lets queued commands finish before the shard threads stop. If the caller is
+		// interrupted while waiting, the shards are interrupted too and the caller's
+		// interrupt flag is restored for it to handle.
+		for (ExecutorService shard : shards) {
+			shard.shutdown();
+		}
+		try {
+			for (ExecutorService shard : shards) {
+				shard.awaitTermination(1, TimeUnit.MINUTES);
+			}
+		} catch (InterruptedException e) {
+			for (ExecutorService shard : shards) {
+				shard.shutdownNow();
+			}
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,531 @@
+package airlock.fleet;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import airlock.entities.AirLock;
+import airlock.entities.AirLockAssembly;
+import airlock.entities.IAirLock;
+import airlock.entities.IDirtyListener;
+import airlock.exceptions.AirLockException;
+
+public class AirLockRegistry {
+
+	// Marks a removed id in the lookup table. The key stays behind so probes for
+	// other ids still run past it, it is dropped at the next rehash.
+	private static final Object REMOVED = new Object();
+
+	// Open addressing table from id to Entry with linear probing, kept at most
+	// half full. Readers never lock: a writer fills in the key before publishing the
+	// entry with a volatile write, and a rehash publishes a whole new table.
+	private static final class Table {
+		final long[] keys;
+		final AtomicReferenceArray<Object> values;
+		final int mask;
+
+		Table(int capacity) {
+			keys = new long[capacity];
+			values = new AtomicReferenceArray<>(capacity);
+			mask = capacity - 1;
+		}
+	}
+
+	// State flags for forEachMatching, each is one bitset index
+	public static final int SEALED = 1;
+	public static final int AUTO = 2;
+	public static final int OUTER_OPEN = 4;
+	public static final int INNER_OPEN = 8;
+	private static final int FLAG_COUNT = 4;
+
+	private volatile Table table = new Table(16);
+	private int usedSlots;
+	private int size;
+
+	// Registered airlocks also get a dense slot number, the position of their bit in
+	// the state indexes. Freed slots are reused.
+	private Entry[] entries = new Entry[64];
+	private int[] freeSlots = new int[16];
+	private int freeCount;
+	private int slotCount;
+	private long[] live = new long[1];
+
+	// One bitset per state flag in flag bit order, bit n is the airlock in slot n
+	private long[][] stateIndexes = new long[FLAG_COUNT][1];
+
+	// Airlocks registered as assemblies are also sorted by lock pressure and by lock
+	// minus cabin pressure
+	private final PressureIndex lockPressures = new PressureIndex();
+	private final PressureIndex cabinDifferences = new PressureIndex();
+
+	// Entries whose airlock changed since the indexes were last brought up to date.
+	// Commands only queue their entry, so shards never wait for the registry lock, and
+	// the indexes catch up when they are next read.
+	private final ConcurrentLinkedQueue<Entry> pending = new ConcurrentLinkedQueue<>();
+
+	// Registered ids in order, rebuilt on the first iteration after a change
+	private volatile long[] sortedIds = new long[0];
+
+	public IAirLock get(long id) {
+		Entry entry = entry(id);
+		return entry == null ? null : entry.airLock;
+	}
+
+	public AirLockAssembly getAssembly(long id) {
+		// Only assemblies registered with register(id, assembly), null otherwise
+		Entry entry = entry(id);
+		return entry == null ? null : entry.assembly;
+	}
+
+	Entry entry(long id) {
+		// The registered entry for id or null, without locking
+		Table current = table;
+		int index = hash(id) & current.mask;
+		while (true) {
+			Object value = current.values.get(index);
+			if (value == null) {
+				return null;
+			}
+			if (current.keys[index] == id) {
+				return value == REMOVED ? null : (Entry) value;
+			}
+			index = (index + 1) & current.mask;
+		}
+	}
+
+	public boolean contains(long id) {
+		return get(id) != null;
+	}
+
+	public synchronized int size() {
+		return size;
+	}
+
+	public synchronized void register(long id, IAirLock airLock) throws AirLockException {
+		// Check airLock is not null and the id is not already taken
+		if (airLock == null) {
+			throw new AirLockException("Airlock cannot be null");
+		}
+		if (get(id) != null) {
+			throw new AirLockException("Airlock already registered with id " + id);
+		}
+		ensureTableCapacity(size + 1);
+		add(id, airLock, null);
+		sortedIds = null;
+	}
+
+	public synchronized void register(long id, AirLockAssembly assembly) throws AirLockException {
+		// Registers the assembly's airlock and also indexes its pressures, which the
+		// registry hears about through the assembly's dirty listener
+		if (assembly == null) {
+			throw new AirLockException("Airlock cannot be null");
+		}
+		if (get(id) != null) {
+			throw new AirLockException("Airlock already registered with id " + id);
+		}
+		ensureTableCapacity(size + 1);
+		add(id, assembly.getAirLock(), assembly);
+		sortedIds = null;
+	}
+
+	public synchronized void registerAll(long[] ids, IAirLock[] airLocks) throws AirLockException {
+		// Validates the whole batch first so it is registered entirely or not at all,
+		// and grows the table once for the batch
+		validateBatch(ids, airLocks);
+		ensureTableCapacity(size + ids.length);
+		for (int i = 0; i < ids.length; i++) {
+			add(ids[i], airLocks[i], null);
+		}
+		sortedIds = null;
+	}
+
+	public synchronized void registerAll(long[] ids, AirLockAssembly[] assemblies) throws AirLockException {
+		// As above, each assembly also goes into the pressure indexes in O(log n)
+		validateBatch(ids, assemblies);
+		ensureTableCapacity(size + ids.length);
+		for (int i = 0; i < ids.length; i++) {
+			add(ids[i], assemblies[i].getAirLock(), assemblies[i]);
+		}
+		sortedIds = null;
+	}
+
+	private void validateBatch(long[] ids, Object[] airLocks) throws AirLockException {
+		if (ids.length != airLocks.length) {
+			throw new AirLockException("Expected one airlock per id");
+		}
+		long[] sorted = ids.clone();
+		Arrays.sort(sorted);
+		for (int i = 0; i < sorted.length; i++) {
+			if (i > 0 && sorted[i] == sorted[i - 1]) {
+				throw new AirLockException("Airlock id " + sorted[i] + " appears twice");
+			}
+			if (get(sorted[i]) != null) {
+				throw new AirLockException("Airlock already registered with id " + sorted[i]);
+			}
+		}
+		for (Object airLock : airLocks) {
+			if (airLock == null) {
+				throw new AirLockException("Airlock cannot be null");
+			}
+		}
+	}
+
+	public synchronized IAirLock unregister(long id) {
+		Table current = table;
+		int index = hash(id) & current.mask;
+		while (true) {
+			Object value = current.values.get(index);
+			if (value == null) {
+				return null;
+			}
+			if (current.keys[index] == id) {
+				if (value == REMOVED) {
+					return null;
+				}
+				Entry entry = (Entry) value;
+				current.values.set(index, REMOVED);
+				size--;
+				detach(entry);
+				releaseSlot(entry);
+				sortedIds = null;
+				return entry.airLock;
+			}
+			index = (index + 1) & current.mask;
+		}
+	}
+
+	public void forEach(IAirLockVisitor visitor) {
+		// Visits every airlock in ascending id order, ids registered or removed during
+		// the walk may or may not be seen
+		long[] ids = sortedIds;
+		if (ids == null) {
+			ids = sortIds();
+		}
+		for (long id : ids) {
+			IAirLock airLock = get(id);
+			if (airLock != null) {
+				visitor.visit(id, airLock);
+			}
+		}
+	}
+
+	public void reindex(long id) {
+		// Refreshes the state indexes for an airlock whose changes the registry cannot
+		// hear about, any IAirLock other than AirLock
+		Entry entry = entry(id);
+		if (entry != null) {
+			entry.markDirty();
+		}
+	}
+
+	public synchronized int countSealed() {
+		return countMatching(SEALED, 0);
+	}
+
+	public synchronized int countUnsealed() {
+		return countMatching(0, SEALED);
+	}
+
+	public synchronized int countInAutoMode() {
+		return countMatching(AUTO, 0);
+	}
+
+	public synchronized int countInManualMode() {
+		return countMatching(0, AUTO);
+	}
+
+	public void forEachSealed(IAirLockVisitor visitor) {
+		forEachMatching(SEALED, 0, visitor);
+	}
+
+	public void forEachUnsealed(IAirLockVisitor visitor) {
+		forEachMatching(0, SEALED, visitor);
+	}
+
+	public void forEachInAutoMode(IAirLockVisitor visitor) {
+		forEachMatching(AUTO, 0, visitor);
+	}
+
+	public void forEachInManualMode(IAirLockVisitor visitor) {
+		forEachMatching(0, AUTO, visitor);
+	}
+
+	public synchronized int countMatching(int required, int forbidden) {
+		applyPending();
+		int count = 0;
+		for (int word = 0; word < words(slotCount); word++) {
+			count += Long.bitCount(matching(word, required, forbidden));
+		}
+		return count;
+	}
+
+	public void forEachMatching(int required, int forbidden, IAirLockVisitor visitor) {
+		// Visits every airlock with all of the required flags and none of the
+		// forbidden ones, for example forEachMatching(0, SEALED | AUTO, ...) for the
+		// unsealed airlocks in MANUAL mode. Works a 64 slot word at a time.
+		Entry[] matches;
+		int count = 0;
+		synchronized (this) {
+			matches = new Entry[countMatching(required, forbidden)];
+			for (int word = 0; word < words(slotCount); word++) {
+				for (long bits = matching(word, required, forbidden); bits != 0; bits &= bits - 1) {
+					matches[count++] = entries[(word << 6) + Long.numberOfTrailingZeros(bits)];
+				}
+			}
+		}
+		visitAll(matches, count, visitor);
+	}
+
+	public void forEachLockPressureBetween(double min, double max, IAirLockVisitor visitor) {
+		// Assemblies whose lock pressure is in [min, max], in ascending pressure order
+		visitSlots(lockPressures, min, max, false, visitor);
+	}
+
+	public void forEachCabinDifferenceAbove(double difference, IAirLockVisitor visitor) {
+		// Assemblies whose lock pressure differs from the cabin by more than
+		// difference, the two ends of the sorted lock minus cabin index
+		visitSlots(cabinDifferences, -difference, difference, true, visitor);
+	}
+
+	private void visitSlots(PressureIndex index, double low, double high, boolean outside,
+			IAirLockVisitor visitor) {
+		Entry[] matches;
+		synchronized (this) {
+			applyPending();
+			int[] slots = outside ? index.slotsOutside(low, high) : index.slotsBetween(low, high);
+			matches = new Entry[slots.length];
+			for (int i = 0; i < slots.length; i++) {
+				matches[i] = entries[slots[i]];
+			}
+		}
+		visitAll(matches, matches.length, visitor);
+	}
+
+	private static void visitAll(Entry[] matches, int count, IAirLockVisitor visitor) {
+		// Matches are collected under the lock and visited outside it, so a visitor
+		// may send commands that update the indexes
+		for (int i = 0; i < count; i++) {
+			visitor.visit(matches[i].id, matches[i].airLock);
+		}
+	}
+
+	private long matching(int word, int required, int forbidden) {
+		long bits = live[word];
+		for (int flag = 0; flag < FLAG_COUNT; flag++) {
+			if ((required & (1 << flag)) != 0) {
+				bits &= stateIndexes[flag][word];
+			} else if ((forbidden & (1 << flag)) != 0) {
+				bits &= ~stateIndexes[flag][word];
+			}
+		}
+		return bits;
+	}
+
+	private void add(long id, IAirLock airLock, AirLockAssembly assembly) {
+		Entry entry = new Entry(id, airLock, assembly, takeSlot());
+		entries[entry.slot] = entry;
+		setBit(live, entry.slot, true);
+		if (assembly != null) {
+			lockPressures.add(entry.slot, assembly.getLockSensor().getPressure());
+			cabinDifferences.add(entry.slot, cabinDifference(assembly));
+		}
+		updateStateIndexes(entry);
+		if (assembly != null) {
+			// Pressures change through the topology as well as through commands
+			assembly.addDirtyListener(entry);
+		} else if (airLock instanceof AirLock) {
+			// State and mode only change through commands, which AirLock reports
+			AirLock listened = (AirLock) airLock;
+			listened.setDirtyListener(IDirtyListener.both(listened.getDirtyListener(), entry));
+		}
+
+		Table current = table;
+		int index = hash(id) & current.mask;
+		while (true) {
+			Object value = current.values.get(index);
+			if (value == null) {
+				usedSlots++;
+				break;
+			}
+			if (current.keys[index] == id) {
+				// Reusing this id's removed slot, readers see either REMOVED or the entry
+				break;
+			}
+			index = (index + 1) & current.mask;
+		}
+		current.keys[index] = id;
+		current.values.set(index, entry);
+		size++;
+	}
+
+	private void ensureTableCapacity(int newSize) {
+		// Rehashes into a fresh table, which also drops the REMOVED markers
+		Table current = table;
+		if ((usedSlots + (newSize - size)) * 2 <= current.keys.length) {
+			return;
+		}
+		int capacity = 16;
+		while (capacity < newSize * 4) {
+			capacity <<= 1;
+		}
+		Table rehashed = new Table(capacity);
+		int used = 0;
+		for (int i = 0; i < current.keys.length; i++) {
+			Object value = current.values.get(i);
+			if (value != null && value != REMOVED) {
+				int index = hash(current.keys[i]) & rehashed.mask;
+				while (rehashed.values.get(index) != null) {
+					index = (index + 1) & rehashed.mask;
+				}
+				rehashed.keys[index] = current.keys[i];
+				rehashed.values.set(index, value);
+				used++;
+			}
+		}
+		usedSlots = used;
+		table = rehashed;
+	}
+
+	private int takeSlot() {
+		if (freeCount > 0) {
+			return freeSlots[--freeCount];
+		}
+		int slot = slotCount++;
+		if (slot == entries.length) {
+			entries = Arrays.copyOf(entries, slot * 2);
+		}
+		if (words(slotCount) > live.length) {
+			live = Arrays.copyOf(live, live.length * 2);
+			for (int flag = 0; flag < FLAG_COUNT; flag++) {
+				stateIndexes[flag] = Arrays.copyOf(stateIndexes[flag], live.length);
+			}
+		}
+		return slot;
+	}
+
+	private void detach(Entry entry) {
+		// Takes the entry back out of the listeners add chained it onto, leaving any
+		// other listener in place
+		if (entry.assembly != null) {
+			entry.assembly.removeDirtyListener(entry);
+		} else if (entry.airLock instanceof AirLock) {
+			AirLock listened = (AirLock) entry.airLock;
+			listened.setDirtyListener(IDirtyListener.without(listened.getDirtyListener(), entry));
+		}
+	}
+
+	private void releaseSlot(Entry entry) {
+		// A command already running may still queue the entry, it is skipped from now on
+		entry.registered = false;
+		entries[entry.slot] = null;
+		setBit(live, entry.slot, false);
+		for (int flag = 0; flag < FLAG_COUNT; flag++) {
+			setBit(stateIndexes[flag], entry.slot, false);
+		}
+		if (entry.assembly != null) {
+			lockPressures.remove(entry.slot);
+			cabinDifferences.remove(entry.slot);
+		}
+		if (freeCount == freeSlots.length) {
+			freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+		}
+		freeSlots[freeCount++] = entry.slot;
+	}
+
+	private void applyPending() {
+		// Called with the lock held. The entry is marked clean before its airlock is
+		// read, so a change made during the read queues it again.
+		for (Entry entry = pending.poll(); entry != null; entry = pending.poll()) {
+			entry.stale = false;
+			if (!entry.registered) {
+				continue;
+			}
+			updateStateIndexes(entry);
+			if (entry.assembly != null) {
+				lockPressures.update(entry.slot, entry.assembly.getLockSensor().getPressure());
+				cabinDifferences.update(entry.slot, cabinDifference(entry.assembly));
+			}
+		}
+	}
+
+	private void updateStateIndexes(Entry entry) {
+		IAirLock airLock = entry.airLock;
+		setBit(stateIndexes[0], entry.slot, airLock.isSealed());
+		setBit(stateIndexes[1], entry.slot, airLock.isInAutoMode());
+		setBit(stateIndexes[2], entry.slot, !airLock.isOuterDoorClosed());
+		setBit(stateIndexes[3], entry.slot, !airLock.isInnerDoorClosed());
+	}
+
+	private static double cabinDifference(AirLockAssembly assembly) {
+		return assembly.getLockSensor().getPressure() - assembly.getInteriorSensor().getPressure();
+	}
+
+	private synchronized long[] sortIds() {
+		if (sortedIds != null) {
+			return sortedIds;
+		}
+		long[] ids = new long[size];
+		int count = 0;
+		for (int slot = 0; slot < slotCount; slot++) {
+			if (entries[slot] != null) {
+				ids[count++] = entries[slot].id;
+			}
+		}
+		Arrays.sort(ids);
+		sortedIds = ids;
+		return ids;
+	}
+
+	private static int hash(long id) {
+		// Murmur3 finaliser, so sequential ids spread over the table
+		id ^= id >>> 33;
+		id *= 0xff51afd7ed558ccdL;
+		id ^= id >>> 33;
+		id *= 0xc4ceb9fe1a85ec53L;
+		id ^= id >>> 33;
+		return (int) id;
+	}
+
+	private static int words(int bits) {
+		return (bits + 63) >>> 6;
+	}
+
+	private static void setBit(long[] bits, int slot, boolean value) {
+		if (value) {
+			bits[slot >>> 6] |= 1L << slot;
+		} else {
+			bits[slot >>> 6] &= ~(1L << slot);
+		}
+	}
+
+	final class Entry implements IDirtyListener {
+
+		private final long id;
+		final IAirLock airLock;
+		final AirLockAssembly assembly;
+		private final int slot;
+		private boolean registered = true;
+		private volatile boolean stale;
+
+		// The fleet's command queue for this airlock, created on its first queued
+		// command and dropped with the entry when the airlock is unregistered
+		volatile CommandQueue queue;
+
+		Entry(long id, IAirLock airLock, AirLockAssembly assembly, int slot) {
+			this.id = id;
+			this.airLock = airLock;
+			this.assembly = assembly;
+			this.slot = slot;
+		}
+
+		@Override
+		public void markDirty() {
+			// The dirty bit, an entry already queued costs a volatile read. Two threads
+			// may both queue it, updating the indexes twice is harmless.
+			if (!stale) {
+				stale = true;
+				pending.offer(this);
+			}
+		}
+	}
+}
@@ -0,0 +1,164 @@
+package airlock.fleet;
+
+import java.util.Arrays;
+
+import airlock.entities.AirLockCommand;
+import airlock.entities.AirLockResult;
+import airlock.entities.IResultAirLock;
+
+public class CommandQueue {
+
+	private final IResultAirLock airLock;
+
+	// Pending commands in arrival order, after coalescing, and a spare buffer the
+	// next drain swaps in so draining does not allocate
+	private AirLockCommand[] pending = new AirLockCommand[8];
+	private AirLockCommand[] spare = new AirLockCommand[8];
+	private int size;
+
+	// Lengths of the runs of pending commands closed off by barrier, oldest first.
+	// Each run, and the open run after them, belongs to exactly one scheduled drain.
+	private int[] closedRuns = new int[4];
+	private int closedRunCount;
+	private int closedLength;
+	// Whether a drain is scheduled for the open run. Kept apart from the run's length
+	// because coalescing can empty the open run after its drain was scheduled.
+	private boolean openRunScheduled;
+
+	private final Object drainLock = new Object();
+
+	private long submitted;
+	private long coalesced;
+	private long executed;
+	private long rejected;
+
+	public CommandQueue(IResultAirLock airLock) {
+		// Check airLock is not null
+		if (airLock == null) {
+			throw new IllegalArgumentException("Airlock cannot be null");
+		}
+		this.airLock = airLock;
+	}
+
+	public synchronized boolean submit(AirLockCommand command) {
+		// Queues the command, coalescing it with the last pending command where the
+		// pair would do no more than one of them. Returns true if no drain is scheduled
+		// for the command yet, so the caller knows to schedule one.
+		submitted++;
+		// Only commands after the last barrier can be coalesced with
+		AirLockCommand last = size == closedLength ? null : pending[size - 1];
+
+		if (last == command && command != AirLockCommand.TOGGLE_MODE) {
+			// Opening, closing or equalising twice in a row only does something once
+			coalesced++;
+			return false;
+		}
+		if (last == AirLockCommand.TOGGLE_MODE && command == AirLockCommand.TOGGLE_MODE) {
+			// Two toggles cancel out
+			size--;
+			coalesced += 2;
+			return false;
+		}
+		if (isEqualise(last) && isEqualise(command)) {
+			// The later equalise supersedes the earlier one
+			pending[size - 1] = command;
+			coalesced++;
+			return false;
+		}
+
+		if (size == pending.length) {
+			pending = Arrays.copyOf(pending, size * 2);
+		}
+		pending[size++] = command;
+		if (openRunScheduled) {
+			return false;
+		}
+		openRunScheduled = true;
+		return true;
+	}
+
+	public synchronized void barrier() {
+		// Closes off the commands pending now, so the drain already scheduled for them
+		// stops there and anything submitted later waits for a drain of its own. This
+		// keeps queued commands in order with work scheduled on the shard in between.
+		// A run emptied by coalescing is still closed off, its drain is still coming.
+		if (!openRunScheduled) {
+			return;
+		}
+		if (closedRunCount == closedRuns.length) {
+			closedRuns = Arrays.copyOf(closedRuns, closedRunCount * 2);
+		}
+		closedRuns[closedRunCount++] = size - closedLength;
+		closedLength = size;
+		openRunScheduled = false;
+	}
+
+	public int drain() {
+		// Takes the oldest run of pending commands, which is everything pending unless
+		// a barrier closed some off, and runs it through the airlock as one batch,
+		// returning the number of commands executed
+		synchronized (drainLock) {
+			AirLockCommand[] batch;
+			int count;
+			synchronized (this) {
+				if (closedRunCount == 0) {
+					batch = pending;
+					count = size;
+					pending = spare;
+					size = 0;
+					openRunScheduled = false;
+				} else {
+					count = closedRuns[0];
+					batch = spare.length >= count ? spare : new AirLockCommand[pending.length];
+					System.arraycopy(pending, 0, batch, 0, count);
+					System.arraycopy(pending, count, pending, 0, size - count);
+					Arrays.fill(pending, size - count, size, null);
+					size -= count;
+					System.arraycopy(closedRuns, 1, closedRuns, 0, --closedRunCount);
+					closedLength -= count;
+				}
+			}
+
+			int rejectedInBatch = 0;
+			for (int i = 0; i < count; i++) {
+				AirLockResult result = batch[i].tryExecute(airLock);
+				if (!result.isOk()) {
+					rejectedInBatch++;
+				}
+			}
+
+			synchronized (this) {
+				// The pending buffer may have grown meanwhile, keep the larger one spare
+				Arrays.fill(batch, 0, count, null);
+				spare = batch.length >= pending.length ? batch : new AirLockCommand[pending.length];
+				executed += count;
+				rejected += rejectedInBatch;
+			}
+			return count;
+		}
+	}
+
+	public synchronized int size() {
+		return size;
+	}
+
+	public synchronized long getSubmittedCount() {
+		return submitted;
+	}
+
+	public synchronized long getCoalescedCount() {
+		return coalesced;
+	}
+
+	public synchronized long getExecutedCount() {
+		return executed;
+	}
+
+	public synchronized long getRejectedCount() {
+		return rejected;
+	}
+
+	private static boolean isEqualise(AirLockCommand command) {
+		return command == AirLockCommand.EQUALISE_ENVIRONMENT || command == AirLockCommand.EQUALISE_CABIN;
+	}
+}
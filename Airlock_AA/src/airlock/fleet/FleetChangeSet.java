@@ -0,0 +1,181 @@
+package airlock.fleet;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.LongConsumer;
+
+import airlock.entities.IDirtyListener;
+
+public class FleetChangeSet {
+
+	// Changes are grouped into epochs. An airlock is dirty once per epoch, so
+	// repeated changes between two reads cost a single volatile read each.
+	private volatile long epoch = 1;
+
+	private final Map<Long, Tracker> trackers = new HashMap<>();
+	// Untracked airlocks whose final entry no reader has passed yet
+	private final Map<Long, Tracker> untracked = new HashMap<>();
+
+	// Every first change of an airlock in an epoch, in epoch order. An entry is
+	// stale once its airlock has changed again in a later epoch.
+	private Tracker[] logTrackers = new Tracker[64];
+	private long[] logEpochs = new long[64];
+	private int logSize;
+	private int staleEntries;
+
+	public synchronized IDirtyListener track(long id) {
+		// Returns the listener to hand to the airlock's entities, a new airlock
+		// counts as changed
+		if (trackers.containsKey(id)) {
+			throw new IllegalArgumentException("Airlock " + id + " is already tracked");
+		}
+		// Tracked again before anyone read its removal, the new tracker's entry
+		// reports the id from now on, so the id is not listed twice
+		Tracker previous = untracked.remove(id);
+		if (previous != null) {
+			retire(previous);
+		}
+		Tracker tracker = new Tracker(id);
+		trackers.put(id, tracker);
+		tracker.markDirty();
+		return tracker;
+	}
+
+	public synchronized IDirtyListener untrack(long id) {
+		// Reported as changed one last time so readers notice it has gone, the entry is
+		// dropped once a read has passed it. Returns the listener track handed out, for
+		// the caller to detach, or null.
+		Tracker tracker = trackers.remove(id);
+		if (tracker != null) {
+			tracker.markDirty();
+			tracker.removed = true;
+			untracked.put(id, tracker);
+		}
+		return tracker;
+	}
+
+	public long getVersion() {
+		return epoch - 1;
+	}
+
+	public long changedSince(long version, LongConsumer changed) {
+		// Passes each airlock id changed after version to changed, once, and returns
+		// the version to ask from next time. Costs the number of changes, not the
+		// number of airlocks. A removal is reported by the next read only, a reader
+		// still at an older version after that read does not see it.
+		long[] ids;
+		int count = 0;
+		long newVersion;
+		synchronized (this) {
+			newVersion = epoch;
+			epoch = newVersion + 1;
+
+			int first = firstAfter(version);
+			ids = new long[logSize - first];
+			for (int i = first; i < logSize; i++) {
+				if (logTrackers[i].lastChanged == logEpochs[i]) {
+					ids[count++] = logTrackers[i].id;
+				}
+			}
+			for (Tracker tracker : untracked.values()) {
+				retire(tracker);
+			}
+			untracked.clear();
+		}
+		// Outside the lock so a slow reader does not hold up the writers
+		for (int i = 0; i < count; i++) {
+			changed.accept(ids[i]);
+		}
+		return newVersion;
+	}
+
+	public synchronized int size() {
+		return trackers.size();
+	}
+
+	public synchronized int getLogSize() {
+		return logSize;
+	}
+
+	private void retire(Tracker tracker) {
+		// Marks an untracked airlock's final entry stale so compact drops it
+		if (tracker.lastChanged != 0) {
+			tracker.lastChanged = 0;
+			staleEntries++;
+		}
+	}
+
+	private synchronized void record(Tracker tracker) {
+		long current = epoch;
+		if (tracker.removed || tracker.lastChanged == current) {
+			return;
+		}
+		if (tracker.lastChanged != 0) {
+			staleEntries++;
+		}
+		tracker.lastChanged = current;
+		if (logSize == logTrackers.length) {
+			if (staleEntries > logSize / 2) {
+				compact();
+			} else {
+				logTrackers = Arrays.copyOf(logTrackers, logSize * 2);
+				logEpochs = Arrays.copyOf(logEpochs, logSize * 2);
+			}
+		}
+		logTrackers[logSize] = tracker;
+		logEpochs[logSize] = current;
+		logSize++;
+	}
+
+	private void compact() {
+		// Drops superseded entries, keeping the rest in epoch order
+		int kept = 0;
+		for (int i = 0; i < logSize; i++) {
+			if (logTrackers[i].lastChanged == logEpochs[i]) {
+				logTrackers[kept] = logTrackers[i];
+				logEpochs[kept] = logEpochs[i];
+				kept++;
+			}
+		}
+		for (int i = kept; i < logSize; i++) {
+			logTrackers[i] = null;
+		}
+		logSize = kept;
+		staleEntries = 0;
+	}
+
+	private int firstAfter(long version) {
+		// Binary search for the first entry from an epoch after version
+		int low = 0;
+		int high = logSize;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (logEpochs[mid] <= version) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	private class Tracker implements IDirtyListener {
+
+		private final long id;
+		private volatile long lastChanged;
+		private boolean removed;
+
+		Tracker(long id) {
+			this.id = id;
+		}
+
+		@Override
+		public void markDirty() {
+			// The dirty bit, already dirty in the current epoch means nothing to do
+			if (lastChanged != epoch) {
+				record(this);
+			}
+		}
+	}
+}
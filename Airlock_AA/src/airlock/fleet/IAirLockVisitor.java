@@ -0,0 +1,9 @@
+package airlock.fleet;
+
+import airlock.entities.IAirLock;
+
+public interface IAirLockVisitor {
+
+	void visit(long id, IAirLock airLock);
+
+}
@@ -0,0 +1,214 @@
+package airlock.fleet;
+
+import java.util.Arrays;
+
+class PressureIndex {
+
+	private static final int NONE = -1;
+
+	// Registry slots in a treap ordered by pressure value and then slot, and heap
+	// ordered by a hash of the slot. The links live in arrays indexed by slot, so an
+	// update takes the slot out, changes its value and puts it back in O(log n)
+	// without allocating. Only registering past the arrays' capacity grows them.
+	private double[] values = new double[64];
+	private int[] left = new int[64];
+	private int[] right = new int[64];
+	private int root = NONE;
+	private int size;
+
+	// Slots a range query found, reused from one query to the next
+	private int[] found = new int[16];
+	private int foundCount;
+
+	void add(int slot, double value) {
+		if (slot >= values.length) {
+			int capacity = Math.max(slot + 1, values.length * 2);
+			values = Arrays.copyOf(values, capacity);
+			left = Arrays.copyOf(left, capacity);
+			right = Arrays.copyOf(right, capacity);
+		}
+		values[slot] = normalise(value);
+		root = insert(root, slot);
+		size++;
+	}
+
+	void update(int slot, double value) {
+		value = normalise(value);
+		if (values[slot] == value) {
+			return;
+		}
+		root = delete(root, slot);
+		values[slot] = value;
+		root = insert(root, slot);
+	}
+
+	void remove(int slot) {
+		root = delete(root, slot);
+		size--;
+	}
+
+	int size() {
+		return size;
+	}
+
+	int[] slotsBetween(double min, double max) {
+		// Slots whose value is in [min, max], in ascending value order
+		foundCount = 0;
+		if (min <= max) {
+			collectBetween(root, normalise(min), normalise(max));
+		}
+		return Arrays.copyOf(found, foundCount);
+	}
+
+	int[] slotsOutside(double low, double high) {
+		// Slots whose value is below low or above high, the lowest values first. When
+		// high is below low every value is one or the other.
+		foundCount = 0;
+		if (low <= high) {
+			collectBelow(root, normalise(low));
+			collectAbove(root, normalise(high));
+		} else {
+			collectAll(root);
+		}
+		return Arrays.copyOf(found, foundCount);
+	}
+
+	private int insert(int node, int slot) {
+		if (node == NONE) {
+			left[slot] = NONE;
+			right[slot] = NONE;
+			return slot;
+		}
+		if (before(slot, node)) {
+			left[node] = insert(left[node], slot);
+			if (priority(left[node]) > priority(node)) {
+				node = rotateRight(node);
+			}
+		} else {
+			right[node] = insert(right[node], slot);
+			if (priority(right[node]) > priority(node)) {
+				node = rotateLeft(node);
+			}
+		}
+		return node;
+	}
+
+	private int delete(int node, int slot) {
+		// The slot's value must be the one it was inserted with
+		if (node == slot) {
+			return merge(left[node], right[node]);
+		}
+		if (before(slot, node)) {
+			left[node] = delete(left[node], slot);
+		} else {
+			right[node] = delete(right[node], slot);
+		}
+		return node;
+	}
+
+	private int merge(int first, int second) {
+		// Joins two treaps where every slot of first orders before every slot of second
+		if (first == NONE) {
+			return second;
+		}
+		if (second == NONE) {
+			return first;
+		}
+		if (priority(first) > priority(second)) {
+			right[first] = merge(right[first], second);
+			return first;
+		}
+		left[second] = merge(first, left[second]);
+		return second;
+	}
+
+	private int rotateRight(int node) {
+		int child = left[node];
+		left[node] = right[child];
+		right[child] = node;
+		return child;
+	}
+
+	private int rotateLeft(int node) {
+		int child = right[node];
+		right[node] = left[child];
+		left[child] = node;
+		return child;
+	}
+
+	private void collectBetween(int node, double min, double max) {
+		if (node == NONE) {
+			return;
+		}
+		boolean atLeastMin = Double.compare(values[node], min) >= 0;
+		boolean atMostMax = Double.compare(values[node], max) <= 0;
+		if (atLeastMin) {
+			collectBetween(left[node], min, max);
+		}
+		if (atLeastMin && atMostMax) {
+			found(node);
+		}
+		if (atMostMax) {
+			collectBetween(right[node], min, max);
+		}
+	}
+
+	private void collectBelow(int node, double low) {
+		if (node == NONE) {
+			return;
+		}
+		collectBelow(left[node], low);
+		if (Double.compare(values[node], low) < 0) {
+			found(node);
+			collectBelow(right[node], low);
+		}
+	}
+
+	private void collectAbove(int node, double high) {
+		if (node == NONE) {
+			return;
+		}
+		if (Double.compare(values[node], high) > 0) {
+			collectAbove(left[node], high);
+			found(node);
+		}
+		collectAbove(right[node], high);
+	}
+
+	private void collectAll(int node) {
+		if (node == NONE) {
+			return;
+		}
+		collectAll(left[node]);
+		found(node);
+		collectAll(right[node]);
+	}
+
+	private void found(int slot) {
+		if (foundCount == found.length) {
+			found = Arrays.copyOf(found, foundCount * 2);
+		}
+		found[foundCount++] = slot;
+	}
+
+	private boolean before(int first, int second) {
+		int byValue = Double.compare(values[first], values[second]);
+		return byValue != 0 ? byValue < 0 : first < second;
+	}
+
+	private static int priority(int slot) {
+		// Murmur3 finaliser, a bijection, so no two slots share a priority and
+		// sequential slots still give a balanced treap
+		slot ^= slot >>> 16;
+		slot *= 0x85ebca6b;
+		slot ^= slot >>> 13;
+		slot *= 0xc2b2ae35;
+		slot ^= slot >>> 16;
+		return slot;
+	}
+
+	private static double normalise(double value) {
+		// Adding zero turns -0.0 into 0.0, which Double.compare would otherwise order first
+		return value + 0.0;
+	}
+}
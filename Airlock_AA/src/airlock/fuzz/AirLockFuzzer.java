@@ -0,0 +1,241 @@
+package airlock.fuzz;
+
+import java.util.SplittableRandom;
+
+import airlock.entities.AirLockAssembly;
+import airlock.entities.AirLockCommand;
+import airlock.entities.AirLockResult;
+import airlock.entities.Door;
+import airlock.entities.IDoor;
+import airlock.entities.IResultAirLock;
+import airlock.exceptions.DoorException;
+import airlock.exceptions.PressureException;
+
+public class AirLockFuzzer {
+
+	private static final AirLockCommand[] COMMANDS = AirLockCommand.values();
+
+	// Steps past the commands perturb one of the three chambers instead
+	private static final int PERTURB_EXTERIOR = COMMANDS.length;
+	private static final int PERTURB_LOCK = COMMANDS.length + 1;
+	private static final int PERTURB_INTERIOR = COMMANDS.length + 2;
+	private static final int STEP_KINDS = COMMANDS.length + 3;
+
+	private static final double[] COMMON_PRESSURES = { 0.0, 0.5, 1.0 };
+
+	private final int threads;
+	private final int sequenceLength;
+
+	public AirLockFuzzer(int threads, int sequenceLength) {
+		// Check threads and sequenceLength are positive
+		if (threads < 1 || sequenceLength < 1) {
+			throw new IllegalArgumentException("Threads and sequence length must be positive");
+		}
+		this.threads = threads;
+		this.sequenceLength = sequenceLength;
+	}
+
+	public FuzzReport run(long seed, long sequences) throws InterruptedException {
+		// Every sequence draws from its own random stream derived from the seed and
+		// its number, so the outcome does not depend on the thread count or on
+		// which thread ran it. Threads take every threads'th sequence.
+		long start = System.nanoTime();
+		Worker[] workers = new Worker[threads];
+		Thread[] running = new Thread[threads];
+		for (int i = 0; i < threads; i++) {
+			workers[i] = new Worker(seed, sequences, i);
+			running[i] = new Thread(workers[i], "airlock-fuzzer-" + i);
+			running[i].start();
+		}
+
+		long steps = 0;
+		long violations = 0;
+		long firstFailure = -1;
+		String firstFailureMessage = null;
+		try {
+			for (int i = 0; i < threads; i++) {
+				running[i].join();
+			}
+		} catch (InterruptedException e) {
+			for (Thread thread : running) {
+				thread.interrupt();
+			}
+			throw e;
+		}
+		for (Worker worker : workers) {
+			steps += worker.steps;
+			violations += worker.violations;
+			if (worker.firstFailure >= 0 && (firstFailure < 0 || worker.firstFailure < firstFailure)) {
+				firstFailure = worker.firstFailure;
+				firstFailureMessage = worker.firstFailureMessage;
+			}
+		}
+		return new FuzzReport(seed, sequences, steps, violations, firstFailure, firstFailureMessage,
+				System.nanoTime() - start);
+	}
+
+	public String replay(long seed, long sequence) {
+		// Runs one sequence again, writing every step and result, to reproduce a failure
+		StringBuilder trace = new StringBuilder();
+		String failure = runSequence(seed, sequence, trace, new long[1]);
+		trace.append(failure == null ? "passed" : "FAILED: " + failure).append('\n');
+		return trace.toString();
+	}
+
+	private String runSequence(long seed, long sequence, StringBuilder trace, long[] steps) {
+		SplittableRandom random = new SplittableRandom(seed ^ (sequence * 0x9E3779B97F4A7C15L));
+		AirLockAssembly assembly;
+		try {
+			assembly = new AirLockAssembly(pressure(random, 1.0), pressure(random, 1.0), pressure(random, 1.0));
+		} catch (PressureException | DoorException e) {
+			return "could not build airlock: " + e.getMessage();
+		}
+		IResultAirLock airLock = assembly.getAirLock();
+		IDoor outerDoor = assembly.getExteriorDoor();
+		IDoor innerDoor = assembly.getInteriorDoor();
+
+		for (int step = 0; step < sequenceLength; step++) {
+			int kind = random.nextInt(STEP_KINDS);
+			boolean outerWasOpen = outerDoor.isOpen();
+			boolean innerWasOpen = innerDoor.isOpen();
+			boolean wasAuto = airLock.isInAutoMode();
+			AirLockResult result = AirLockResult.OK;
+			try {
+				if (kind < COMMANDS.length) {
+					result = COMMANDS[kind].tryExecute(airLock);
+				} else if (kind == PERTURB_EXTERIOR) {
+					assembly.setExteriorPressure(pressure(random, assembly.getExteriorSensor().getPressure()));
+				} else if (kind == PERTURB_LOCK) {
+					assembly.setLockPressure(pressure(random, assembly.getLockSensor().getPressure()));
+				} else {
+					assembly.setInteriorPressure(pressure(random, assembly.getInteriorSensor().getPressure()));
+				}
+			} catch (PressureException | RuntimeException e) {
+				return "step " + step + ": " + stepName(kind) + " threw " + e;
+			}
+			steps[0]++;
+			if (trace != null) {
+				trace.append(step).append(' ').append(stepName(kind)).append(' ').append(result)
+						.append(" -> ").append(airLock).append(", pressures ")
+						.append(assembly.getExteriorSensor().getPressure()).append('/')
+						.append(assembly.getLockSensor().getPressure()).append('/')
+						.append(assembly.getInteriorSensor().getPressure()).append('\n');
+			}
+
+			String violation = checkInvariants(airLock, outerDoor, innerDoor);
+			if (violation == null && !result.isOk()) {
+				// A rejected command must leave the airlock exactly as it was
+				if (outerDoor.isOpen() != outerWasOpen || innerDoor.isOpen() != innerWasOpen
+						|| airLock.isInAutoMode() != wasAuto) {
+					violation = "rejected command changed the airlock";
+				}
+			}
+			if (violation == null && kind != AirLockCommand.TOGGLE_MODE.ordinal()
+					&& airLock.isInAutoMode() != wasAuto) {
+				violation = "mode changed without a toggle";
+			}
+			if (violation != null) {
+				return "step " + step + ": " + stepName(kind) + " " + result + ": " + violation;
+			}
+		}
+		return null;
+	}
+
+	private static String checkInvariants(IResultAirLock airLock, IDoor outerDoor, IDoor innerDoor) {
+		boolean outerOpen = outerDoor.isOpen();
+		boolean innerOpen = innerDoor.isOpen();
+		if (airLock.isSealed() != (!outerOpen && !innerOpen)) {
+			return "SEALED does not match both doors closed";
+		}
+		if (airLock.isSealed() == airLock.isUnsealed() || airLock.isInAutoMode() == airLock.isInManualMode()) {
+			return "airlock reports contradictory state";
+		}
+		if (outerOpen && !pressuresEqual(outerDoor)) {
+			return "outer door open across unequal pressures";
+		}
+		if (innerOpen && !pressuresEqual(innerDoor)) {
+			return "inner door open across unequal pressures";
+		}
+		if (outerOpen && innerOpen
+				&& Math.abs(outerDoor.getExternalPressure() - innerDoor.getExternalPressure()) > 2 * Door.TOLERANCE) {
+			return "both doors open across unequal pressures";
+		}
+		return null;
+	}
+
+	private static boolean pressuresEqual(IDoor door) {
+		return Math.abs(door.getExternalPressure() - door.getInternalPressure()) <= Door.TOLERANCE;
+	}
+
+	private static double pressure(SplittableRandom random, double current) {
+		// Mostly a handful of shared values so doors get the chance to open, with
+		// drift inside and just outside the door tolerance and the odd wild value
+		switch (random.nextInt(4)) {
+			case 0:
+				return Math.max(0.0, current + (random.nextDouble() - 0.5) * 4 * Door.TOLERANCE);
+			case 1:
+				return random.nextDouble() * 2.0;
+			default:
+				return COMMON_PRESSURES[random.nextInt(COMMON_PRESSURES.length)];
+		}
+	}
+
+	private static String stepName(int kind) {
+		if (kind < COMMANDS.length) {
+			return COMMANDS[kind].getCode();
+		}
+		return kind == PERTURB_EXTERIOR ? "SX" : kind == PERTURB_LOCK ? "SL" : "SI";
+	}
+
+	private class Worker implements Runnable {
+
+		private final long seed;
+		private final long sequences;
+		private final int offset;
+
+		private long steps;
+		private long violations;
+		private long firstFailure = -1;
+		private String firstFailureMessage;
+
+		Worker(long seed, long sequences, int offset) {
+			this.seed = seed;
+			this.sequences = sequences;
+			this.offset = offset;
+		}
+
+		@Override
+		public void run() {
+			long[] stepCount = new long[1];
+			for (long sequence = offset; sequence < sequences; sequence += threads) {
+				if (Thread.currentThread().isInterrupted()) {
+					break;
+				}
+				String failure = runSequence(seed, sequence, null, stepCount);
+				if (failure != null) {
+					violations++;
+					if (firstFailure < 0) {
+						firstFailure = sequence;
+						firstFailureMessage = failure;
+					}
+				}
+			}
+			steps = stepCount[0];
+		}
+	}
+
+	public static void main(String[] args) throws InterruptedException {
+		// AirLockFuzzer [seed] [sequences] [length], exits non-zero on any violation
+		long seed = args.length > 0 ? Long.parseLong(args[0]) : System.nanoTime();
+		long sequences = args.length > 1 ? Long.parseLong(args[1]) : 1_000_000;
+		int length = args.length > 2 ? Integer.parseInt(args[2]) : 32;
+
+		AirLockFuzzer fuzzer = new AirLockFuzzer(Runtime.getRuntime().availableProcessors(), length);
+		FuzzReport report = fuzzer.run(seed, sequences);
+		System.out.println(report);
+		if (!report.isClean()) {
+			System.out.print(fuzzer.replay(seed, report.getFirstFailure()));
+			System.exit(1);
+		}
+	}
+}
@@ -0,0 +1,66 @@
+package airlock.fuzz;
+
+public class FuzzReport {
+
+	private final long seed;
+	private final long sequences;
+	private final long steps;
+	private final long violations;
+	private final long firstFailure;
+	private final String firstFailureMessage;
+	private final long elapsedNanos;
+
+	FuzzReport(long seed, long sequences, long steps, long violations, long firstFailure,
+			String firstFailureMessage, long elapsedNanos) {
+		this.seed = seed;
+		this.sequences = sequences;
+		this.steps = steps;
+		this.violations = violations;
+		this.firstFailure = firstFailure;
+		this.firstFailureMessage = firstFailureMessage;
+		this.elapsedNanos = elapsedNanos;
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+
+	public long getSequences() {
+		return sequences;
+	}
+
+	public long getSteps() {
+		return steps;
+	}
+
+	public long getViolations() {
+		return violations;
+	}
+
+	public boolean isClean() {
+		return violations == 0;
+	}
+
+	public long getFirstFailure() {
+		// The lowest failing sequence number, or -1 if every sequence passed
+		return firstFailure;
+	}
+
+	public String getFirstFailureMessage() {
+		return firstFailureMessage;
+	}
+
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+
+	public String toString() {
+		double seconds = elapsedNanos / 1e9;
+		String summary = String.format("seed: %d, sequences: %,d, steps: %,d, violations: %d, %,.0f sequences/min",
+				seed, sequences, steps, violations, seconds > 0 ? sequences * 60 / seconds : 0.0);
+		if (firstFailure < 0) {
+			return summary;
+		}
+		return summary + String.format("%nfirst failure: sequence %d: %s", firstFailure, firstFailureMessage);
+	}
+}
@@ -0,0 +1,148 @@
+package airlock.journal;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import airlock.exceptions.JournalException;
+
+public class AirLockJournal implements AutoCloseable {
+
+	// The header holds the committed end of the log, each record is
+	// timestamp (8), airlock id (8), event type (1) and value (8)
+	static final int HEADER_SIZE = 8;
+	static final int RECORD_SIZE = 25;
+
+	private final FileChannel channel;
+	private final MappedByteBuffer buffer;
+	private final Thread committer;
+
+	// Commits run one at a time so the header never moves backwards
+	private final Object commitLock = new Object();
+
+	private int position;
+	private boolean dirty;
+	private boolean closed;
+
+	public AirLockJournal(Path file, int capacity, long commitIntervalMillis) throws JournalException {
+		// Check capacity fits the header and commitIntervalMillis is positive
+		if (capacity < HEADER_SIZE + RECORD_SIZE) {
+			throw new JournalException("Journal capacity too small: " + capacity);
+		}
+		if (commitIntervalMillis <= 0) {
+			throw new JournalException("Commit interval must be positive");
+		}
+		try {
+			channel = FileChannel.open(file, StandardOpenOption.CREATE,
+					StandardOpenOption.READ, StandardOpenOption.WRITE);
+			buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(capacity, channel.size()));
+		} catch (IOException e) {
+			throw new JournalException(e);
+		}
+
+		// An existing journal is appended to after its last committed record
+		position = (int) buffer.getLong(0);
+		if (position < HEADER_SIZE) {
+			position = HEADER_SIZE;
+		}
+
+		// Appends only write to memory, the committer thread forces them to disk in
+		// groups so the command path never waits on I/O
+		committer = new Thread(() -> {
+			try {
+				while (!isClosed()) {
+					Thread.sleep(commitIntervalMillis);
+					commit();
+				}
+			} catch (InterruptedException e) {
+				// closing, close() does the final commit
+			}
+		}, "airlock-journal-committer");
+		committer.setDaemon(true);
+		committer.start();
+	}
+
+	public synchronized void append(long airLockId, JournalEventType type, double value) throws JournalException {
+		if (closed) {
+			throw new JournalException("Journal is closed");
+		}
+		if (position + RECORD_SIZE > buffer.capacity()) {
+			throw new JournalException("Journal is full");
+		}
+		buffer.putLong(position, System.currentTimeMillis());
+		buffer.putLong(position + 8, airLockId);
+		buffer.put(position + 16, type.getCode());
+		buffer.putDouble(position + 17, value);
+		position += RECORD_SIZE;
+		dirty = true;
+	}
+
+	public void commit() {
+		// Forces the records to disk before the header that makes them visible, so a
+		// crash between the two leaves the old end of the log rather than a header
+		// pointing past records that never reached the disk
+		synchronized (commitLock) {
+			int end;
+			synchronized (this) {
+				if (!dirty) {
+					return;
+				}
+				end = position;
+				dirty = false;
+			}
+			buffer.force(HEADER_SIZE, end - HEADER_SIZE);
+			synchronized (this) {
+				buffer.putLong(0, end);
+			}
+			buffer.force(0, HEADER_SIZE);
+		}
+	}
+
+	public synchronized int getEventCount() {
+		return (position - HEADER_SIZE) / RECORD_SIZE;
+	}
+
+	private synchronized boolean isClosed() {
+		return closed;
+	}
+
+	@Override
+	public void close() throws JournalException {
+		synchronized (this) {
+			if (closed) {
+				return;
+			}
+			closed = true;
+			dirty = true;
+		}
+		committer.interrupt();
+		commit();
+		try {
+			channel.close();
+		} catch (IOException e) {
+			throw new JournalException(e);
+		}
+	}
+
+	public static int replay(Path file, IJournalListener listener) throws JournalException {
+		// Reads every committed record in order and returns how many were replayed
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			int end = (int) buffer.getLong(0);
+			int count = 0;
+			for (int position = HEADER_SIZE; position + RECORD_SIZE <= end; position += RECORD_SIZE) {
+				listener.onEvent(
+						buffer.getLong(position),
+						buffer.getLong(position + 8),
+						JournalEventType.fromCode(buffer.get(position + 16)),
+						buffer.getDouble(position + 17));
+				count++;
+			}
+			return count;
+		} catch (IOException e) {
+			throw new JournalException(e);
+		}
+	}
+}
@@ -0,0 +1,7 @@
+package airlock.journal;
+
+public interface IJournalListener {
+
+	void onEvent(long timestamp, long airLockId, JournalEventType type, double value);
+
+}
@@ -0,0 +1,25 @@
+package airlock.journal;
+
+public enum JournalEventType {
+	OUTER_DOOR_OPENED,
+	OUTER_DOOR_CLOSED,
+	INNER_DOOR_OPENED,
+	INNER_DOOR_CLOSED,
+	SEALED,
+	UNSEALED,
+	MANUAL_MODE,
+	AUTO_MODE,
+	EXTERIOR_PRESSURE,
+	LOCK_PRESSURE,
+	INTERIOR_PRESSURE;
+
+	private static final JournalEventType[] TYPES = values();
+
+	public byte getCode() {
+		return (byte) ordinal();
+	}
+
+	public static JournalEventType fromCode(byte code) {
+		return TYPES[code];
+	}
+}
@@ -0,0 +1,28 @@
+package airlock.journal;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+
+import airlock.exceptions.JournalException;
+
+public class JournalReplay implements IJournalListener {
+
+	private final Map<Long, ReplayedAirLock> airLocks = new TreeMap<>();
+
+	@Override
+	public void onEvent(long timestamp, long airLockId, JournalEventType type, double value) {
+		airLocks.computeIfAbsent(airLockId, ReplayedAirLock::new).apply(type, value);
+	}
+
+	public Map<Long, ReplayedAirLock> getAirLocks() {
+		return airLocks;
+	}
+
+	public static Map<Long, ReplayedAirLock> replay(Path file) throws JournalException {
+		// Rebuilds the last journaled state of every airlock in the file
+		JournalReplay replay = new JournalReplay();
+		AirLockJournal.replay(file, replay);
+		return replay.getAirLocks();
+	}
+}
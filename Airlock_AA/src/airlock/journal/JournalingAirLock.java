@@ -0,0 +1,198 @@
+package airlock.journal;
+
+import airlock.entities.AirLockAssembly;
+import airlock.entities.AirLockCommand;
+import airlock.entities.IAirLock;
+import airlock.exceptions.AirLockException;
+import airlock.exceptions.JournalException;
+
+public class JournalingAirLock implements IAirLock {
+
+	private final long airLockId;
+	private final IAirLock airLock;
+	private final AirLockJournal journal;
+
+	// The assembly's chamber sensors, journaling pressure however it changes. Empty
+	// when the airlock was not built from an assembly.
+	private final JournalingPressureSensor[] sensors;
+
+	public JournalingAirLock(long airLockId, AirLockAssembly assembly, AirLockJournal journal)
+			throws JournalException {
+		// The assembly's sensors report every change, including pressure that spreads
+		// through open doors, so journaling them catches what a wrapper around the
+		// setter alone would miss
+		this(airLockId, assembly.getAirLock(), journal, assembly);
+	}
+
+	public JournalingAirLock(long airLockId, IAirLock airLock, AirLockJournal journal) throws JournalException {
+		this(airLockId, airLock, journal, null);
+	}
+
+	private JournalingAirLock(long airLockId, IAirLock airLock, AirLockJournal journal, AirLockAssembly assembly)
+			throws JournalException {
+		this.airLockId = airLockId;
+		this.airLock = airLock;
+		this.journal = journal;
+
+		// Records the starting door states and mode so the log is self contained
+		journal.append(airLockId, airLock.isOuterDoorClosed()
+				? JournalEventType.OUTER_DOOR_CLOSED : JournalEventType.OUTER_DOOR_OPENED, 0);
+		journal.append(airLockId, airLock.isInnerDoorClosed()
+				? JournalEventType.INNER_DOOR_CLOSED : JournalEventType.INNER_DOOR_OPENED, 0);
+		journal.append(airLockId, airLock.isSealed() ? JournalEventType.SEALED : JournalEventType.UNSEALED, 0);
+		journal.append(airLockId, airLock.isInAutoMode() ? JournalEventType.AUTO_MODE : JournalEventType.MANUAL_MODE, 0);
+
+		if (assembly != null) {
+			sensors = new JournalingPressureSensor[] {
+					new JournalingPressureSensor(airLockId, JournalEventType.EXTERIOR_PRESSURE,
+							assembly.getExteriorSensor(), journal),
+					new JournalingPressureSensor(airLockId, JournalEventType.LOCK_PRESSURE,
+							assembly.getLockSensor(), journal),
+					new JournalingPressureSensor(airLockId, JournalEventType.INTERIOR_PRESSURE,
+							assembly.getInteriorSensor(), journal) };
+		} else {
+			sensors = new JournalingPressureSensor[0];
+		}
+	}
+
+	@Override
+	public void openOuterDoor() throws AirLockException {
+		execute(AirLockCommand.OPEN_OUTER);
+	}
+
+	@Override
+	public void closeOuterDoor() throws AirLockException {
+		execute(AirLockCommand.CLOSE_OUTER);
+	}
+
+	@Override
+	public void openInnerDoor() throws AirLockException {
+		execute(AirLockCommand.OPEN_INNER);
+	}
+
+	@Override
+	public void closeInnerDoor() throws AirLockException {
+		execute(AirLockCommand.CLOSE_INNER);
+	}
+
+	@Override
+	public void equaliseWithCabinPressure() throws AirLockException {
+		// pressure changes are journaled by the lock sensor
+		airLock.equaliseWithCabinPressure();
+		throwSensorFailure();
+	}
+
+	@Override
+	public void equaliseWithEnvironmentPressure() throws AirLockException {
+		airLock.equaliseWithEnvironmentPressure();
+		throwSensorFailure();
+	}
+
+	@Override
+	public void toggleOperationMode() throws AirLockException {
+		execute(AirLockCommand.TOGGLE_MODE);
+	}
+
+	@Override
+	public boolean isOuterDoorClosed() {
+		return airLock.isOuterDoorClosed();
+	}
+
+	@Override
+	public boolean isInnerDoorClosed() {
+		return airLock.isInnerDoorClosed();
+	}
+
+	@Override
+	public boolean isSealed() {
+		return airLock.isSealed();
+	}
+
+	@Override
+	public boolean isUnsealed() {
+		return airLock.isUnsealed();
+	}
+
+	@Override
+	public boolean isInManualMode() {
+		return airLock.isInManualMode();
+	}
+
+	@Override
+	public boolean isInAutoMode() {
+		return airLock.isInAutoMode();
+	}
+
+	private void execute(AirLockCommand command) throws AirLockException {
+		// Runs the command, then journals whatever changed, AUTO mode can close
+		// one door and open the other in a single command
+		boolean outerClosed = airLock.isOuterDoorClosed();
+		boolean innerClosed = airLock.isInnerDoorClosed();
+		boolean sealed = airLock.isSealed();
+		boolean auto = airLock.isInAutoMode();
+
+		try {
+			command.execute(airLock);
+		} catch (AirLockException | RuntimeException e) {
+			// A failed AUTO command may still have closed the other door, which has
+			// to be journaled as well
+			try {
+				journalChanges(outerClosed, innerClosed, sealed, auto);
+				throwSensorFailure();
+			} catch (AirLockException journalFailure) {
+				e.addSuppressed(journalFailure);
+			}
+			throw e;
+		}
+		journalChanges(outerClosed, innerClosed, sealed, auto);
+		throwSensorFailure();
+	}
+
+	private void throwSensorFailure() throws AirLockException {
+		// Pressure reaches the sensors through their listeners, which cannot throw, so
+		// a journal failure there is reported by the next command instead. Includes
+		// pressure set on the assembly directly since the last command.
+		JournalException failure = null;
+		for (JournalingPressureSensor sensor : sensors) {
+			JournalException failed = sensor.takeFailure();
+			if (failure == null) {
+				failure = failed;
+			} else if (failed != null) {
+				failure.addSuppressed(failed);
+			}
+		}
+		if (failure != null) {
+			throw new AirLockException(failure);
+		}
+	}
+
+	private void journalChanges(boolean outerClosed, boolean innerClosed, boolean sealed, boolean auto)
+			throws AirLockException {
+		try {
+			if (innerClosed != airLock.isInnerDoorClosed() && !innerClosed) {
+				journal.append(airLockId, JournalEventType.INNER_DOOR_CLOSED, 0);
+			}
+			if (outerClosed != airLock.isOuterDoorClosed() && !outerClosed) {
+				journal.append(airLockId, JournalEventType.OUTER_DOOR_CLOSED, 0);
+			}
+			if (sealed != airLock.isSealed()) {
+				journal.append(airLockId, sealed ? JournalEventType.UNSEALED : JournalEventType.SEALED, 0);
+			}
+			if (outerClosed != airLock.isOuterDoorClosed() && outerClosed) {
+				journal.append(airLockId, JournalEventType.OUTER_DOOR_OPENED, 0);
+			}
+			if (innerClosed != airLock.isInnerDoorClosed() && innerClosed) {
+				journal.append(airLockId, JournalEventType.INNER_DOOR_OPENED, 0);
+			}
+			if (auto != airLock.isInAutoMode()) {
+				journal.append(airLockId, auto ? JournalEventType.MANUAL_MODE : JournalEventType.AUTO_MODE, 0);
+			}
+		} catch (JournalException e) {
+			throw new AirLockException(e);
+		}
+	}
+
+	public String toString() {
+		return airLock.toString();
+	}
+}
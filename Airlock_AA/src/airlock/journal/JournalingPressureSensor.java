@@ -0,0 +1,84 @@
+package airlock.journal;
+
+import airlock.entities.INotifyingPressureSensor;
+import airlock.entities.IPressureSensor;
+import airlock.exceptions.JournalException;
+import airlock.exceptions.PressureException;
+
+public class JournalingPressureSensor implements IPressureSensor {
+
+	private final long airLockId;
+	private final JournalEventType type;
+	private final IPressureSensor sensor;
+	private final AirLockJournal journal;
+
+	// Set when the sensor reports its own changes, which also catches pressure that
+	// reaches it some other way, such as through an open door in a topology
+	private final boolean notified;
+	private JournalException failure;
+
+	public JournalingPressureSensor(long airLockId, JournalEventType type, IPressureSensor sensor,
+			AirLockJournal journal) throws JournalException {
+		// Check type is one of the pressure events
+		if (type != JournalEventType.EXTERIOR_PRESSURE && type != JournalEventType.LOCK_PRESSURE
+				&& type != JournalEventType.INTERIOR_PRESSURE) {
+			throw new JournalException("Not a pressure event type: " + type);
+		}
+		this.airLockId = airLockId;
+		this.type = type;
+		this.sensor = sensor;
+		this.journal = journal;
+
+		// Records the starting pressure so replay does not depend on the constructor
+		journal.append(airLockId, type, sensor.getPressure());
+
+		if (sensor instanceof INotifyingPressureSensor) {
+			((INotifyingPressureSensor) sensor).addPressureListener(this::pressureChanged);
+			notified = true;
+		} else {
+			notified = false;
+		}
+	}
+
+	@Override
+	public double getPressure() {
+		return sensor.getPressure();
+	}
+
+	@Override
+	public void setPressure(double newPressure) throws PressureException {
+		sensor.setPressure(newPressure);
+		try {
+			if (notified) {
+				// Already journaled by pressureChanged, report a failure it could not throw
+				JournalException failed = takeFailure();
+				if (failed != null) {
+					throw failed;
+				}
+			} else {
+				journal.append(airLockId, type, newPressure);
+			}
+		} catch (JournalException e) {
+			throw new PressureException(e);
+		}
+	}
+
+	JournalException takeFailure() {
+		// The last change pressureChanged could not journal, cleared once reported
+		JournalException failed = failure;
+		failure = null;
+		return failed;
+	}
+
+	private void pressureChanged() {
+		try {
+			journal.append(airLockId, type, sensor.getPressure());
+		} catch (JournalException e) {
+			failure = e;
+		}
+	}
+
+	public String toString() {
+		return sensor.toString();
+	}
+}
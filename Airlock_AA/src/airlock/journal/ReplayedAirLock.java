@@ -0,0 +1,109 @@
+package airlock.journal;
+
+import airlock.entities.AirLock;
+import airlock.entities.Door;
+import airlock.entities.DoorState;
+import airlock.entities.IAirLock;
+import airlock.entities.IDoor;
+import airlock.entities.IPressureSensor;
+import airlock.entities.OperationMode;
+import airlock.entities.PressureSensor;
+import airlock.exceptions.DoorException;
+import airlock.exceptions.PressureException;
+
+public class ReplayedAirLock {
+
+	private final long airLockId;
+
+	DoorState outerDoorState = DoorState.CLOSED;
+	DoorState innerDoorState = DoorState.CLOSED;
+	OperationMode mode = OperationMode.MANUAL;
+	double exteriorPressure;
+	double lockPressure;
+	double interiorPressure;
+
+	ReplayedAirLock(long airLockId) {
+		this.airLockId = airLockId;
+	}
+
+	void apply(JournalEventType type, double value) {
+		switch (type) {
+			case OUTER_DOOR_OPENED:
+				outerDoorState = DoorState.OPEN;
+				break;
+			case OUTER_DOOR_CLOSED:
+				outerDoorState = DoorState.CLOSED;
+				break;
+			case INNER_DOOR_OPENED:
+				innerDoorState = DoorState.OPEN;
+				break;
+			case INNER_DOOR_CLOSED:
+				innerDoorState = DoorState.CLOSED;
+				break;
+			case MANUAL_MODE:
+				mode = OperationMode.MANUAL;
+				break;
+			case AUTO_MODE:
+				mode = OperationMode.AUTO;
+				break;
+			case EXTERIOR_PRESSURE:
+				exteriorPressure = value;
+				break;
+			case LOCK_PRESSURE:
+				lockPressure = value;
+				break;
+			case INTERIOR_PRESSURE:
+				interiorPressure = value;
+				break;
+			default:
+				// SEALED and UNSEALED follow from the door states
+				break;
+		}
+	}
+
+	public long getAirLockId() {
+		return airLockId;
+	}
+
+	public DoorState getOuterDoorState() {
+		return outerDoorState;
+	}
+
+	public DoorState getInnerDoorState() {
+		return innerDoorState;
+	}
+
+	public OperationMode getMode() {
+		return mode;
+	}
+
+	public double getExteriorPressure() {
+		return exteriorPressure;
+	}
+
+	public double getLockPressure() {
+		return lockPressure;
+	}
+
+	public double getInteriorPressure() {
+		return interiorPressure;
+	}
+
+	public IAirLock toAirLock() throws PressureException, DoorException {
+		// Rebuilds the sensors, doors and airlock through their usual constructors
+		IPressureSensor exteriorSensor = new PressureSensor(exteriorPressure);
+		IPressureSensor lockSensor = new PressureSensor(lockPressure);
+		IPressureSensor interiorSensor = new PressureSensor(interiorPressure);
+
+		IDoor outerDoor = new Door(exteriorSensor, lockSensor, outerDoorState);
+		IDoor innerDoor = new Door(interiorSensor, lockSensor, innerDoorState);
+
+		return new AirLock(outerDoor, innerDoor, lockSensor, mode);
+	}
+
+	public String toString() {
+		return String.format(
+				"Airlock %d: outer door: %s, inner door: %s, mode: %s, pressures: %3.1f/%3.1f/%3.1f bar",
+				airLockId, outerDoorState, innerDoorState, mode, exteriorPressure, lockPressure, interiorPressure);
+	}
+}
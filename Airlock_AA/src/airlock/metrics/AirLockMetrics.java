@@ -0,0 +1,156 @@
+package airlock.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import airlock.entities.AirLockCommand;
+import airlock.entities.AirLockResult;
+
+public class AirLockMetrics implements AirLockMetricsMBean {
+
+	private static final AirLockCommand[] COMMANDS = AirLockCommand.values();
+	private static final AirLockResult[] RESULTS = AirLockResult.values();
+
+	private final String name;
+
+	// One latency histogram per command, all commands together, and the AUTO mode
+	// opens that implicitly close the other door and equalise first
+	private final LatencyHistogram[] commandLatency = new LatencyHistogram[COMMANDS.length];
+	private final LatencyHistogram allLatency = new LatencyHistogram();
+	private final LatencyHistogram autoSequenceLatency = new LatencyHistogram();
+
+	// Rejection counts indexed by AirLockResult ordinal
+	private final AtomicLongArray rejections = new AtomicLongArray(RESULTS.length);
+
+	public AirLockMetrics(String name) {
+		this.name = name;
+		for (int i = 0; i < commandLatency.length; i++) {
+			commandLatency[i] = new LatencyHistogram();
+		}
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void recordCommand(AirLockCommand command, AirLockResult result, long nanos) {
+		commandLatency[command.ordinal()].record(nanos);
+		allLatency.record(nanos);
+		if (!result.isOk()) {
+			rejections.incrementAndGet(result.ordinal());
+		}
+	}
+
+	public void recordAutoSequence(long nanos) {
+		autoSequenceLatency.record(nanos);
+	}
+
+	public LatencyHistogram getCommandLatency(AirLockCommand command) {
+		return commandLatency[command.ordinal()];
+	}
+
+	public long getRejectedCount(AirLockResult result) {
+		return rejections.get(result.ordinal());
+	}
+
+	@Override
+	public long getCommandCount() {
+		return allLatency.getCount();
+	}
+
+	@Override
+	public long getRejectedCount() {
+		long rejected = 0;
+		for (int i = 0; i < RESULTS.length; i++) {
+			rejected += rejections.get(i);
+		}
+		return rejected;
+	}
+
+	@Override
+	public long getP50LatencyNanos() {
+		return allLatency.getPercentile(50);
+	}
+
+	@Override
+	public long getP99LatencyNanos() {
+		return allLatency.getPercentile(99);
+	}
+
+	@Override
+	public long getMaxLatencyNanos() {
+		return allLatency.getMax();
+	}
+
+	@Override
+	public long getAutoSequenceCount() {
+		return autoSequenceLatency.getCount();
+	}
+
+	@Override
+	public long getAutoSequenceP99Nanos() {
+		return autoSequenceLatency.getPercentile(99);
+	}
+
+	@Override
+	public String getReport() {
+		StringBuilder report = new StringBuilder();
+		writeReport(report);
+		return report.toString();
+	}
+
+	public void writeReport(StringBuilder report) {
+		// One line per command with latencies in nanoseconds, then rejections by reason
+		report.append("airlock ").append(name).append('\n');
+		for (AirLockCommand command : COMMANDS) {
+			LatencyHistogram histogram = commandLatency[command.ordinal()];
+			report.append("  ").append(command.getCode())
+				.append(" count=").append(histogram.getCount())
+				.append(" p50=").append(histogram.getPercentile(50))
+				.append(" p99=").append(histogram.getPercentile(99))
+				.append(" max=").append(histogram.getMax()).append('\n');
+		}
+		report.append("  AUTO count=").append(autoSequenceLatency.getCount())
+			.append(" p50=").append(autoSequenceLatency.getPercentile(50))
+			.append(" p99=").append(autoSequenceLatency.getPercentile(99))
+			.append(" max=").append(autoSequenceLatency.getMax()).append('\n');
+		for (AirLockResult result : RESULTS) {
+			long count = rejections.get(result.ordinal());
+			if (count != 0) {
+				report.append("  rejected ").append(result).append('=').append(count).append('\n');
+			}
+		}
+	}
+
+	@Override
+	public void reset() {
+		for (LatencyHistogram histogram : commandLatency) {
+			histogram.reset();
+		}
+		allLatency.reset();
+		autoSequenceLatency.reset();
+		for (int i = 0; i < RESULTS.length; i++) {
+			rejections.set(i, 0);
+		}
+	}
+
+	public ObjectName registerMBean() throws JMException {
+		// Exposes the metrics on the platform MBean server as airlock:type=AirLockMetrics,name=<name>
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		ObjectName objectName = getObjectName();
+		server.registerMBean(this, objectName);
+		return objectName;
+	}
+
+	public void unregisterMBean() throws JMException {
+		ManagementFactory.getPlatformMBeanServer().unregisterMBean(getObjectName());
+	}
+
+	private ObjectName getObjectName() throws JMException {
+		return ObjectName.getInstance("airlock:type=AirLockMetrics,name=" + ObjectName.quote(name));
+	}
+}
@@ -0,0 +1,18 @@
+package airlock.metrics;
+
+public interface AirLockMetricsMBean {
+
+	long getCommandCount();
+	long getRejectedCount();
+
+	long getP50LatencyNanos();
+	long getP99LatencyNanos();
+	long getMaxLatencyNanos();
+
+	long getAutoSequenceCount();
+	long getAutoSequenceP99Nanos();
+
+	String getReport();
+
+	void reset();
+}
@@ -0,0 +1,115 @@
+package airlock.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+public class LatencyHistogram {
+
+	// Log-linear buckets in the style of HdrHistogram: values below 8 get a bucket
+	// each, above that every power of two is split into 8 buckets, so any recorded
+	// value is within about 12% of its bucket's bounds. Values of 2^34 ns, about 17
+	// seconds, and more share the last bucket, which keeps a histogram at 256
+	// buckets since every airlock has one per command.
+	private static final int SUB_BUCKET_BITS = 3;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int MAX_EXPONENT = 33;
+	private static final long MAX_VALUE = (1L << (MAX_EXPONENT + 1)) - 1;
+	private static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+	// Allocated on the first record, so the histograms of commands an airlock never
+	// runs cost no buckets
+	private volatile AtomicLongArray counts;
+	private final LongAdder total = new LongAdder();
+	private final LongAdder sum = new LongAdder();
+
+	public void record(long value) {
+		// Negative values, such as from a clock step, are recorded as zero
+		if (value < 0) {
+			value = 0;
+		}
+		AtomicLongArray buckets = counts;
+		if (buckets == null) {
+			buckets = allocate();
+		}
+		buckets.incrementAndGet(bucketOf(Math.min(value, MAX_VALUE)));
+		total.increment();
+		sum.add(value);
+	}
+
+	private synchronized AtomicLongArray allocate() {
+		if (counts == null) {
+			counts = new AtomicLongArray(BUCKETS);
+		}
+		return counts;
+	}
+
+	public long getCount() {
+		return total.sum();
+	}
+
+	public double getMean() {
+		long count = total.sum();
+		return count == 0 ? 0.0 : (double) sum.sum() / count;
+	}
+
+	public long getPercentile(double percentile) {
+		// Returns the upper bound of the bucket holding the given percentile (0-100)
+		long count = total.sum();
+		AtomicLongArray buckets = counts;
+		if (count == 0 || buckets == null) {
+			return 0;
+		}
+		long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+		long seen = 0;
+		for (int bucket = 0; bucket < BUCKETS; bucket++) {
+			seen += buckets.get(bucket);
+			if (seen >= rank) {
+				return upperBoundOf(bucket);
+			}
+		}
+		return getMax();
+	}
+
+	public long getMax() {
+		AtomicLongArray buckets = counts;
+		if (buckets == null) {
+			return 0;
+		}
+		for (int bucket = BUCKETS - 1; bucket >= 0; bucket--) {
+			if (buckets.get(bucket) != 0) {
+				return upperBoundOf(bucket);
+			}
+		}
+		return 0;
+	}
+
+	public void reset() {
+		AtomicLongArray buckets = counts;
+		if (buckets != null) {
+			for (int bucket = 0; bucket < BUCKETS; bucket++) {
+				buckets.set(bucket, 0);
+			}
+		}
+		total.reset();
+		sum.reset();
+	}
+
+	static int bucketOf(long value) {
+		if (value < SUB_BUCKETS) {
+			return (int) value;
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+		return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+	}
+
+	static long upperBoundOf(int bucket) {
+		if (bucket < SUB_BUCKETS) {
+			return bucket;
+		}
+		int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+		long subBucket = bucket % SUB_BUCKETS;
+		long lowerBound = (1L << exponent) + (subBucket << (exponent - SUB_BUCKET_BITS));
+		return lowerBound + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+	}
+}
@@ -0,0 +1,154 @@
+package airlock.metrics;
+
+import airlock.entities.AirLock;
+import airlock.entities.AirLockCommand;
+import airlock.entities.AirLockResult;
+import airlock.entities.IAutoSequenceListener;
+import airlock.entities.IResultAirLock;
+import airlock.exceptions.AirLockException;
+
+public class MeteredAirLock implements IResultAirLock {
+
+	private final IResultAirLock airLock;
+	private final AirLockMetrics metrics;
+
+	public MeteredAirLock(IResultAirLock airLock, AirLockMetrics metrics) {
+		this.airLock = airLock;
+		this.metrics = metrics;
+		// Only an AirLock can time the close and equalise an AUTO mode open does first,
+		// other airlocks leave the AUTO sequence histogram empty. Added alongside any
+		// listener already there.
+		if (airLock instanceof AirLock) {
+			AirLock timed = (AirLock) airLock;
+			timed.setAutoSequenceListener(IAutoSequenceListener.both(timed.getAutoSequenceListener(),
+					(command, nanos) -> metrics.recordAutoSequence(nanos)));
+		}
+	}
+
+	public AirLockMetrics getMetrics() {
+		return metrics;
+	}
+
+	@Override
+	public void openOuterDoor() throws AirLockException {
+		throwIfRejected(tryOpenOuterDoor());
+	}
+
+	@Override
+	public void closeOuterDoor() throws AirLockException {
+		throwIfRejected(tryCloseOuterDoor());
+	}
+
+	@Override
+	public void openInnerDoor() throws AirLockException {
+		throwIfRejected(tryOpenInnerDoor());
+	}
+
+	@Override
+	public void closeInnerDoor() throws AirLockException {
+		throwIfRejected(tryCloseInnerDoor());
+	}
+
+	@Override
+	public void equaliseWithCabinPressure() throws AirLockException {
+		throwIfRejected(tryEqualiseWithCabinPressure());
+	}
+
+	@Override
+	public void equaliseWithEnvironmentPressure() throws AirLockException {
+		throwIfRejected(tryEqualiseWithEnvironmentPressure());
+	}
+
+	@Override
+	public void toggleOperationMode() throws AirLockException {
+		throwIfRejected(tryToggleOperationMode());
+	}
+
+	@Override
+	public AirLockResult tryOpenOuterDoor() {
+		return measure(AirLockCommand.OPEN_OUTER);
+	}
+
+	@Override
+	public AirLockResult tryCloseOuterDoor() {
+		return measure(AirLockCommand.CLOSE_OUTER);
+	}
+
+	@Override
+	public AirLockResult tryOpenInnerDoor() {
+		return measure(AirLockCommand.OPEN_INNER);
+	}
+
+	@Override
+	public AirLockResult tryCloseInnerDoor() {
+		return measure(AirLockCommand.CLOSE_INNER);
+	}
+
+	@Override
+	public AirLockResult tryEqualiseWithCabinPressure() {
+		return measure(AirLockCommand.EQUALISE_CABIN);
+	}
+
+	@Override
+	public AirLockResult tryEqualiseWithEnvironmentPressure() {
+		return measure(AirLockCommand.EQUALISE_ENVIRONMENT);
+	}
+
+	@Override
+	public AirLockResult tryToggleOperationMode() {
+		return measure(AirLockCommand.TOGGLE_MODE);
+	}
+
+	@Override
+	public boolean isOuterDoorClosed() {
+		return airLock.isOuterDoorClosed();
+	}
+
+	@Override
+	public boolean isInnerDoorClosed() {
+		return airLock.isInnerDoorClosed();
+	}
+
+	@Override
+	public boolean isSealed() {
+		return airLock.isSealed();
+	}
+
+	@Override
+	public boolean isUnsealed() {
+		return airLock.isUnsealed();
+	}
+
+	@Override
+	public boolean isInManualMode() {
+		return airLock.isInManualMode();
+	}
+
+	@Override
+	public boolean isInAutoMode() {
+		return airLock.isInAutoMode();
+	}
+
+	@Override
+	public AirLockException rejection(AirLockResult result) {
+		return airLock.rejection(result);
+	}
+
+	private AirLockResult measure(AirLockCommand command) {
+		long start = System.nanoTime();
+		AirLockResult result = command.tryExecute(airLock);
+		metrics.recordCommand(command, result, System.nanoTime() - start);
+		return result;
+	}
+
+	private void throwIfRejected(AirLockResult result) throws AirLockException {
+		// Right after the command, so the wrapped airlock describes the state that rejected it
+		if (!result.isOk()) {
+			throw airLock.rejection(result);
+		}
+	}
+
+	public String toString() {
+		return airLock.toString();
+	}
+}
@@ -0,0 +1,57 @@
+package airlock.metrics;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.sun.net.httpserver.HttpServer;
+
+public class MetricsEndpoint implements AutoCloseable {
+
+	private final List<AirLockMetrics> metrics = new CopyOnWriteArrayList<>();
+	private final HttpServer server;
+
+	public MetricsEndpoint(int port) throws IOException {
+		// Serves the text report of every registered airlock on the loopback
+		// interface only, GET http://localhost:<port>/metrics
+		server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+		server.createContext("/metrics", exchange -> {
+			byte[] body = getReport().getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+			exchange.sendResponseHeaders(200, body.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+		});
+		server.start();
+	}
+
+	public void register(AirLockMetrics airLockMetrics) {
+		metrics.add(airLockMetrics);
+	}
+
+	public void unregister(AirLockMetrics airLockMetrics) {
+		metrics.remove(airLockMetrics);
+	}
+
+	public int getPort() {
+		return server.getAddress().getPort();
+	}
+
+	public String getReport() {
+		StringBuilder report = new StringBuilder();
+		for (AirLockMetrics airLockMetrics : metrics) {
+			airLockMetrics.writeReport(report);
+		}
+		return report.toString();
+	}
+
+	@Override
+	public void close() {
+		server.stop(0);
+	}
+}
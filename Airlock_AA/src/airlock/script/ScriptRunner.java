@@ -0,0 +1,107 @@
+package airlock.script;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+
+import airlock.entities.AirLockAssembly;
+import airlock.entities.AirLockCommand;
+import airlock.entities.AirLockResult;
+import airlock.exceptions.PressureException;
+
+public class ScriptRunner {
+
+	private final Map<Long, AirLockAssembly> airLocks;
+
+	private long commands;
+	private long rejected;
+
+	public ScriptRunner(Map<Long, AirLockAssembly> airLocks) {
+		this.airLocks = airLocks;
+	}
+
+	public void run(BufferedReader script, Writer output) throws IOException {
+		// Each line is "<airlock id> <option> [pressure]" using the same options as
+		// Main's menu, blank lines and lines starting with # are skipped. One result
+		// line is written per command: OK, or ERR followed by the reason.
+		String line;
+		while ((line = script.readLine()) != null) {
+			line = line.strip();
+			if (line.isEmpty() || line.charAt(0) == '#') {
+				continue;
+			}
+			commands++;
+			String error = execute(line);
+			if (error == null) {
+				output.write("OK\n");
+			} else {
+				rejected++;
+				output.write("ERR ");
+				output.write(error);
+				output.write('\n');
+			}
+		}
+		output.flush();
+	}
+
+	public long getCommandCount() {
+		return commands;
+	}
+
+	public long getRejectedCount() {
+		return rejected;
+	}
+
+	private String execute(String line) {
+		// Splits on single spaces by hand, this runs for every recorded command
+		int firstSpace = line.indexOf(' ');
+		if (firstSpace < 0) {
+			return "Missing option: " + line;
+		}
+		int secondSpace = line.indexOf(' ', firstSpace + 1);
+		String option = secondSpace < 0
+				? line.substring(firstSpace + 1)
+				: line.substring(firstSpace + 1, secondSpace);
+
+		AirLockAssembly assembly;
+		try {
+			assembly = airLocks.get(Long.parseLong(line.substring(0, firstSpace)));
+		} catch (NumberFormatException e) {
+			return "Invalid airlock id: " + line.substring(0, firstSpace);
+		}
+		if (assembly == null) {
+			return "Unknown airlock: " + line.substring(0, firstSpace);
+		}
+
+		try {
+			switch (option.toUpperCase()) {
+				case "SX":
+					assembly.setExteriorPressure(parsePressure(line, secondSpace));
+					return null;
+				case "SI":
+					assembly.setInteriorPressure(parsePressure(line, secondSpace));
+					return null;
+				default:
+					AirLockCommand command = AirLockCommand.fromCode(option);
+					if (command == null) {
+						return "Unrecognised option: " + option;
+					}
+					// Rejected commands are common in recorded sessions, so use result codes
+					AirLockResult result = command.tryExecute(assembly.getAirLock());
+					return result.isOk() ? null : result.getMessage();
+			}
+		} catch (PressureException e) {
+			return e.getMessage();
+		} catch (NumberFormatException e) {
+			return secondSpace < 0 ? "Missing pressure" : "Invalid pressure: " + line.substring(secondSpace + 1);
+		}
+	}
+
+	private static double parsePressure(String line, int secondSpace) {
+		if (secondSpace < 0) {
+			throw new NumberFormatException();
+		}
+		return Double.parseDouble(line.substring(secondSpace + 1).strip());
+	}
+}
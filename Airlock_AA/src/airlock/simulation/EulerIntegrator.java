@@ -0,0 +1,15 @@
+package airlock.simulation;
+
+public class EulerIntegrator implements IPressureIntegrator {
+
+	@Override
+	public double advance(double pressure, double sourcePressure, double flowRate, double dt) {
+		// A single explicit step, clamped so a large tick can never overshoot the source
+		double fraction = flowRate * dt;
+		if (fraction >= 1.0) {
+			return sourcePressure;
+		}
+		return pressure + fraction * (sourcePressure - pressure);
+	}
+
+}
@@ -0,0 +1,11 @@
+package airlock.simulation;
+
+public class ExponentialIntegrator implements IPressureIntegrator {
+
+	@Override
+	public double advance(double pressure, double sourcePressure, double flowRate, double dt) {
+		// Exact solution of dP/dt = flowRate * (source - P) over the tick
+		return sourcePressure + (pressure - sourcePressure) * Math.exp(-flowRate * dt);
+	}
+
+}
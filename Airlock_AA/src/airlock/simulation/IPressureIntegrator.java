@@ -0,0 +1,9 @@
+package airlock.simulation;
+
+public interface IPressureIntegrator {
+
+	// Returns the lock pressure after flowing towards sourcePressure for dt seconds
+	// at flowRate (fraction of the difference per second)
+	double advance(double pressure, double sourcePressure, double flowRate, double dt);
+
+}
@@ -0,0 +1,152 @@
+package airlock.simulation;
+
+import java.util.Arrays;
+
+import airlock.entities.Door;
+import airlock.exceptions.AirLockException;
+import airlock.exceptions.PressureException;
+import airlock.table.AirLockTable;
+
+public class PressureSimulation {
+
+	private static final byte VALVE_CLOSED = 0;
+	private static final byte VALVE_ENVIRONMENT = 1;
+	private static final byte VALVE_CABIN = 2;
+
+	private final AirLockTable table;
+	private final IPressureIntegrator integrator;
+	private final double defaultFlowRate;
+
+	// Per row valve state and flow rate, plus a dense list of the rows whose valve
+	// is open so a tick only visits airlocks that are actually equalising
+	private byte[] valves;
+	private double[] flowRates;
+	private int[] activeRows;
+	private int[] activeIndex;
+	private int activeCount;
+
+	public PressureSimulation(AirLockTable table, IPressureIntegrator integrator, double defaultFlowRate) {
+		// Check table and integrator are not null and the flow rate is positive
+		if (table == null || integrator == null) {
+			throw new IllegalArgumentException("Table and integrator cannot be null");
+		}
+		if (defaultFlowRate <= 0) {
+			throw new IllegalArgumentException("Flow rate must be positive");
+		}
+		this.table = table;
+		this.integrator = integrator;
+		this.defaultFlowRate = defaultFlowRate;
+
+		int capacity = table.size();
+		valves = new byte[capacity];
+		flowRates = new double[capacity];
+		Arrays.fill(flowRates, defaultFlowRate);
+		activeRows = new int[capacity];
+		activeIndex = new int[capacity];
+	}
+
+	public void setFlowRate(int row, double flowRate) {
+		// Check flowRate is positive, pump and valve size are folded into the one rate
+		if (flowRate <= 0) {
+			throw new IllegalArgumentException("Flow rate must be positive");
+		}
+		ensureCapacity(checkRow(row) + 1);
+		flowRates[row] = flowRate;
+	}
+
+	public void equaliseWithEnvironmentPressure(int row) throws AirLockException {
+		openValve(row, VALVE_ENVIRONMENT);
+	}
+
+	public void equaliseWithCabinPressure(int row) throws AirLockException {
+		openValve(row, VALVE_CABIN);
+	}
+
+	public boolean isEqualising(int row) {
+		return row < valves.length && valves[row] != VALVE_CLOSED;
+	}
+
+	public int getEqualisingCount() {
+		return activeCount;
+	}
+
+	public int tick(double dt) {
+		// Advances every equalising airlock by dt seconds and returns how many are
+		// still equalising afterwards
+		int i = 0;
+		while (i < activeCount) {
+			int row = activeRows[i];
+
+			// A door opened while equalising, the valve shuts
+			if (!table.isSealed(row)) {
+				closeValve(row);
+				continue;
+			}
+
+			double source = valves[row] == VALVE_ENVIRONMENT
+					? table.getExteriorPressure(row)
+					: table.getInteriorPressure(row);
+			double pressure = integrator.advance(table.getLockPressure(row), source, flowRates[row], dt);
+
+			// Within the door tolerance the lock counts as equalised
+			boolean equalised = Math.abs(source - pressure) <= Door.TOLERANCE;
+			try {
+				table.setLockPressure(row, equalised ? source : pressure);
+			} catch (PressureException e) {
+				// integrators only move between two non-negative pressures
+				equalised = true;
+			}
+			if (equalised) {
+				closeValve(row);
+			} else {
+				i++;
+			}
+		}
+		return activeCount;
+	}
+
+	private void openValve(int row, byte valve) throws AirLockException {
+		checkRow(row);
+		// if airlock state is not SEALED then throw AirLockException reporting airlock
+		// is not sealed
+		if (!table.isSealed(row)) {
+			throw new AirLockException("Airlock is not sealed");
+		}
+		ensureCapacity(row + 1);
+		if (valves[row] == VALVE_CLOSED) {
+			activeIndex[row] = activeCount;
+			activeRows[activeCount++] = row;
+		}
+		valves[row] = valve;
+	}
+
+	private void closeValve(int row) {
+		// Moves the last active row into the closed row's slot
+		int index = activeIndex[row];
+		int last = activeRows[--activeCount];
+		activeRows[index] = last;
+		activeIndex[last] = index;
+		valves[row] = VALVE_CLOSED;
+	}
+
+	private int checkRow(int row) {
+		if (row < 0 || row >= table.size()) {
+			throw new IndexOutOfBoundsException("No airlock at row " + row);
+		}
+		return row;
+	}
+
+	private void ensureCapacity(int capacity) {
+		// Rows added to the table after the simulation was created
+		if (capacity <= valves.length) {
+			return;
+		}
+		int oldCapacity = valves.length;
+		int newCapacity = Math.max(capacity, table.size());
+		valves = Arrays.copyOf(valves, newCapacity);
+		flowRates = Arrays.copyOf(flowRates, newCapacity);
+		Arrays.fill(flowRates, oldCapacity, newCapacity, defaultFlowRate);
+		activeRows = Arrays.copyOf(activeRows, newCapacity);
+		activeIndex = Arrays.copyOf(activeIndex, newCapacity);
+	}
+}
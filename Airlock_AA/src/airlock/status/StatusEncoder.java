@@ -0,0 +1,87 @@
+package airlock.status;
+
+import java.nio.ByteBuffer;
+
+import airlock.entities.AirLockAssembly;
+import airlock.entities.IAirLock;
+import airlock.table.AirLockTable;
+
+public class StatusEncoder {
+
+	// Fixed size wire record per airlock, in the buffer's byte order:
+	// long id, byte flags, float exterior, lock and interior pressure
+	public static final int RECORD_SIZE = 21;
+
+	public static final int OUTER_OPEN = 1;
+	public static final int INNER_OPEN = 2;
+	public static final int SEALED = 4;
+	public static final int AUTO = 8;
+
+	private static final int FLAGS = 8;
+	private static final int EXTERIOR = 9;
+	private static final int LOCK = 13;
+	private static final int INTERIOR = 17;
+
+	private StatusEncoder() {
+	}
+
+	public static void encode(ByteBuffer out, long id, AirLockAssembly assembly) {
+		IAirLock airLock = assembly.getAirLock();
+		encode(out, id, flags(!airLock.isOuterDoorClosed(), !airLock.isInnerDoorClosed(), airLock.isSealed(),
+				airLock.isInAutoMode()), assembly.getExteriorSensor().getPressure(),
+				assembly.getLockSensor().getPressure(), assembly.getInteriorSensor().getPressure());
+	}
+
+	public static int encode(ByteBuffer out, AirLockTable table, int fromRow, int toRow) {
+		// Writes one record per row, using the row as the id, stopping early if the
+		// buffer fills up. Returns the row to continue from.
+		if (fromRow < 0 || toRow > table.size() || fromRow > toRow) {
+			throw new IndexOutOfBoundsException("Invalid row range " + fromRow + " to " + toRow);
+		}
+		int row = fromRow;
+		while (row < toRow && out.remaining() >= RECORD_SIZE) {
+			encode(out, row, flags(table.isOuterOpen(row), table.isInnerOpen(row), table.isSealed(row),
+					table.isAutoMode(row)), table.getExteriorPressure(row), table.getLockPressure(row),
+					table.getInteriorPressure(row));
+			row++;
+		}
+		return row;
+	}
+
+	public static void encode(ByteBuffer out, long id, int flags, double exteriorPressure, double lockPressure,
+			double interiorPressure) {
+		out.putLong(id);
+		out.put((byte) flags);
+		out.putFloat((float) exteriorPressure);
+		out.putFloat((float) lockPressure);
+		out.putFloat((float) interiorPressure);
+	}
+
+	public static int flags(boolean outerOpen, boolean innerOpen, boolean sealed, boolean auto) {
+		return (outerOpen ? OUTER_OPEN : 0) | (innerOpen ? INNER_OPEN : 0) | (sealed ? SEALED : 0)
+				| (auto ? AUTO : 0);
+	}
+
+	// Absolute reads of the record starting at offset, so a dashboard can pick
+	// fields out of a received buffer without copying
+
+	public static long getId(ByteBuffer in, int offset) {
+		return in.getLong(offset);
+	}
+
+	public static int getFlags(ByteBuffer in, int offset) {
+		return in.get(offset + FLAGS) & 0xff;
+	}
+
+	public static float getExteriorPressure(ByteBuffer in, int offset) {
+		return in.getFloat(offset + EXTERIOR);
+	}
+
+	public static float getLockPressure(ByteBuffer in, int offset) {
+		return in.getFloat(offset + LOCK);
+	}
+
+	public static float getInteriorPressure(ByteBuffer in, int offset) {
+		return in.getFloat(offset + INTERIOR);
+	}
+}
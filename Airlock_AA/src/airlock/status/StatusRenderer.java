@@ -0,0 +1,69 @@
+package airlock.status;
+
+import airlock.entities.AirLockAssembly;
+import airlock.entities.IAirLock;
+import airlock.entities.IDoor;
+import airlock.entities.IPressureSensor;
+
+public class StatusRenderer {
+
+	// Renders the same text as the entity toString methods, but appends it to a
+	// caller's StringBuilder with no format parsing, boxing or temporary strings
+
+	private StatusRenderer() {
+	}
+
+	public static StringBuilder appendAirLock(StringBuilder out, IAirLock airLock) {
+		return appendAirLock(out, airLock.isSealed(), airLock.isInAutoMode());
+	}
+
+	public static StringBuilder appendAirLock(StringBuilder out, boolean sealed, boolean auto) {
+		return out.append("Airlock: state: ").append(sealed ? "SEALED" : "UNSEALED")
+				.append(", mode: ").append(auto ? "AUTO" : "MANUAL");
+	}
+
+	public static StringBuilder appendDoor(StringBuilder out, IDoor door) {
+		return appendDoor(out, door.isOpen(), door.getExternalPressure(), door.getInternalPressure());
+	}
+
+	public static StringBuilder appendDoor(StringBuilder out, boolean open, double externalPressure,
+			double internalPressure) {
+		out.append("Door: state: ").append(open ? "OPEN" : "CLOSED").append(", external pressure: ");
+		appendPressure(out, externalPressure).append(" bar, internal pressure: ");
+		return appendPressure(out, internalPressure).append(" bar");
+	}
+
+	public static StringBuilder appendAssembly(StringBuilder out, AirLockAssembly assembly) {
+		// The status block Main shows above its menu
+		appendAirLock(out.append('\n'), assembly.getAirLock());
+		appendSensor(out.append("\nExterior "), assembly.getExteriorSensor());
+		appendSensor(out.append("\nLock "), assembly.getLockSensor());
+		appendSensor(out.append("\nInterior "), assembly.getInteriorSensor());
+		appendDoor(out.append("\nExterior "), assembly.getExteriorDoor());
+		appendDoor(out.append(",\nInterior "), assembly.getInteriorDoor());
+		return out.append('\n');
+	}
+
+	public static StringBuilder appendSensor(StringBuilder out, IPressureSensor sensor) {
+		return appendSensor(out, sensor.getPressure());
+	}
+
+	public static StringBuilder appendSensor(StringBuilder out, double pressure) {
+		out.append("PressureSensor: pressure: ");
+		return appendPressure(out, pressure).append(" bar");
+	}
+
+	public static StringBuilder appendPressure(StringBuilder out, double pressure) {
+		// Equivalent of %3.1f, rounding half up to tenths. Every result is at least
+		// three characters wide, so there is never any padding to add.
+		if (Double.isNaN(pressure) || Double.isInfinite(pressure) || Math.abs(pressure) >= 1e15) {
+			// Outside what a long of tenths can hold, fall back on the slow path
+			return out.append(String.format("%3.1f", pressure));
+		}
+		if (pressure < 0) {
+			out.append('-');
+		}
+		long tenths = Math.round(Math.abs(pressure) * 10.0);
+		return out.append(tenths / 10).append('.').append((char) ('0' + tenths % 10));
+	}
+}
@@ -0,0 +1,287 @@
+package airlock.table;
+
+import java.util.Arrays;
+
+import airlock.entities.Door;
+import airlock.entities.DoorState;
+import airlock.entities.IAirLock;
+import airlock.entities.IDoor;
+import airlock.entities.IPressureSensor;
+import airlock.exceptions.DoorException;
+import airlock.exceptions.PressureException;
+
+public class AirLockTable {
+
+	static final int EXTERIOR = 0;
+	static final int LOCK = 1;
+	static final int INTERIOR = 2;
+
+	// One primitive column per sensor position, indexed by row
+	private final double[][] pressures = new double[3][];
+
+	// One bit per row for each door and the operation mode, SEALED is derived
+	// from both door bits being clear
+	private long[] outerOpen;
+	private long[] innerOpen;
+	private long[] autoMode;
+
+	private int size;
+
+	public AirLockTable(int initialCapacity) {
+		// Check initialCapacity is not negative
+		if (initialCapacity < 0) {
+			throw new IllegalArgumentException("Initial capacity cannot be negative");
+		}
+		for (int column = 0; column < pressures.length; column++) {
+			pressures[column] = new double[initialCapacity];
+		}
+		outerOpen = new long[words(initialCapacity)];
+		innerOpen = new long[words(initialCapacity)];
+		autoMode = new long[words(initialCapacity)];
+	}
+
+	AirLockTable(int size, double[][] pressures, long[] outerOpen, long[] innerOpen, long[] autoMode) {
+		// Restores a table from a snapshot, the columns were validated when first added
+		for (int column = 0; column < this.pressures.length; column++) {
+			this.pressures[column] = pressures[column];
+		}
+		this.outerOpen = outerOpen;
+		this.innerOpen = innerOpen;
+		this.autoMode = autoMode;
+		this.size = size;
+	}
+
+	public int addAirLock(double exteriorPressure, double lockPressure, double interiorPressure,
+			DoorState outerDoorState, DoorState innerDoorState) throws PressureException, DoorException {
+		// Same validation as the PressureSensor and Door constructors
+		if (exteriorPressure < 0 || lockPressure < 0 || interiorPressure < 0) {
+			throw new PressureException("Pressure cannot be negative");
+		}
+		if (outerDoorState == null || innerDoorState == null) {
+			throw new DoorException("Initial state cannot be null");
+		}
+		if (outerDoorState == DoorState.OPEN && Math.abs(exteriorPressure - lockPressure) > Door.TOLERANCE) {
+			throw new DoorException("Pressure sensors must be equal when door is open, but were "
+					+ exteriorPressure + " and " + lockPressure);
+		}
+		if (innerDoorState == DoorState.OPEN && Math.abs(interiorPressure - lockPressure) > Door.TOLERANCE) {
+			throw new DoorException("Pressure sensors must be equal when door is open, but were "
+					+ interiorPressure + " and " + lockPressure);
+		}
+
+		ensureCapacity(size + 1);
+		int row = size++;
+		pressures[EXTERIOR][row] = exteriorPressure;
+		pressures[LOCK][row] = lockPressure;
+		pressures[INTERIOR][row] = interiorPressure;
+		setBit(outerOpen, row, outerDoorState == DoorState.OPEN);
+		setBit(innerOpen, row, innerDoorState == DoorState.OPEN);
+		// Initial operation mode is MANUAL
+		setBit(autoMode, row, false);
+		return row;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public IPressureSensor exteriorSensor(int row) {
+		return new TableSensor(this, checkRow(row), EXTERIOR);
+	}
+
+	public IPressureSensor lockSensor(int row) {
+		return new TableSensor(this, checkRow(row), LOCK);
+	}
+
+	public IPressureSensor interiorSensor(int row) {
+		return new TableSensor(this, checkRow(row), INTERIOR);
+	}
+
+	public IDoor outerDoor(int row) {
+		return new TableDoor(this, checkRow(row), true);
+	}
+
+	public IDoor innerDoor(int row) {
+		return new TableDoor(this, checkRow(row), false);
+	}
+
+	public IAirLock airLock(int row) {
+		return new TableAirLock(this, checkRow(row));
+	}
+
+	public boolean isSealed(int row) {
+		return !getBit(outerOpen, row) && !getBit(innerOpen, row);
+	}
+
+	public double getExteriorPressure(int row) {
+		return pressures[EXTERIOR][row];
+	}
+
+	public double getLockPressure(int row) {
+		return pressures[LOCK][row];
+	}
+
+	public double getInteriorPressure(int row) {
+		return pressures[INTERIOR][row];
+	}
+
+	public void setLockPressure(int row, double pressure) throws PressureException {
+		//Checks if pressure is negative, else sets the lock pressure
+		if (pressure < 0) {
+			throw new PressureException("The new value for Pressure cannot be negative");
+		}
+		pressures[LOCK][row] = pressure;
+	}
+
+	public int countSealed() {
+		// A row is sealed when neither door bit is set, so scan whole words at a time
+		int unsealed = 0;
+		for (int word = 0; word < words(size); word++) {
+			unsealed += Long.bitCount(outerOpen[word] | innerOpen[word]);
+		}
+		return size - unsealed;
+	}
+
+	public int countInAutoMode() {
+		int auto = 0;
+		for (int word = 0; word < words(size); word++) {
+			auto += Long.bitCount(autoMode[word]);
+		}
+		return auto;
+	}
+
+	public int equaliseWithEnvironmentPressure(int fromRow, int toRow, long[] unsealedRows) {
+		return equalise(EXTERIOR, fromRow, toRow, unsealedRows);
+	}
+
+	public int equaliseWithCabinPressure(int fromRow, int toRow, long[] unsealedRows) {
+		return equalise(INTERIOR, fromRow, toRow, unsealedRows);
+	}
+
+	private int equalise(int column, int fromRow, int toRow, long[] unsealedRows) {
+		// Equalises every SEALED row in [fromRow, toRow) and returns how many were equalised.
+		// Rows that are not sealed are left alone and, if unsealedRows is not null, have
+		// their bit set in it (bit n of unsealedRows is row n). Column values are never
+		// negative, so there is no pressure to validate.
+		if (fromRow < 0 || toRow > size || fromRow > toRow) {
+			throw new IndexOutOfBoundsException("Invalid row range " + fromRow + " to " + toRow);
+		}
+		double[] source = pressures[column];
+		double[] lock = pressures[LOCK];
+		int equalised = 0;
+
+		// Works through the rows one 64 row bit set word at a time
+		int row = fromRow;
+		while (row < toRow) {
+			int word = row >>> 6;
+			int wordEnd = Math.min((word + 1) << 6, toRow);
+			long inRange = -1L << row;
+			if ((wordEnd & 63) != 0) {
+				inRange &= (1L << wordEnd) - 1;
+			}
+
+			long unsealed = (outerOpen[word] | innerOpen[word]) & inRange;
+			long sealed = ~unsealed & inRange;
+			if (unsealed == 0) {
+				// Every row in the word is sealed, so copy the whole run in one go
+				System.arraycopy(source, row, lock, row, wordEnd - row);
+			} else {
+				for (long bits = sealed; bits != 0; bits &= bits - 1) {
+					int sealedRow = (word << 6) + Long.numberOfTrailingZeros(bits);
+					lock[sealedRow] = source[sealedRow];
+				}
+				if (unsealedRows != null) {
+					unsealedRows[word] |= unsealed;
+				}
+			}
+			equalised += Long.bitCount(sealed);
+			row = wordEnd;
+		}
+		return equalised;
+	}
+
+	double[] getColumn(int column) {
+		return pressures[column];
+	}
+
+	long[] getOuterOpen() {
+		return outerOpen;
+	}
+
+	long[] getInnerOpen() {
+		return innerOpen;
+	}
+
+	long[] getAutoMode() {
+		return autoMode;
+	}
+
+	double getPressure(int column, int row) {
+		return pressures[column][row];
+	}
+
+	void setPressure(int column, int row, double pressure) {
+		pressures[column][row] = pressure;
+	}
+
+	public boolean isOuterOpen(int row) {
+		return getBit(outerOpen, row);
+	}
+
+	void setOuterOpen(int row, boolean open) {
+		setBit(outerOpen, row, open);
+	}
+
+	public boolean isInnerOpen(int row) {
+		return getBit(innerOpen, row);
+	}
+
+	void setInnerOpen(int row, boolean open) {
+		setBit(innerOpen, row, open);
+	}
+
+	public boolean isAutoMode(int row) {
+		return getBit(autoMode, row);
+	}
+
+	void setAutoMode(int row, boolean auto) {
+		setBit(autoMode, row, auto);
+	}
+
+	private int checkRow(int row) {
+		if (row < 0 || row >= size) {
+			throw new IndexOutOfBoundsException("No airlock at row " + row);
+		}
+		return row;
+	}
+
+	private void ensureCapacity(int capacity) {
+		if (capacity <= pressures[LOCK].length) {
+			return;
+		}
+		// Grow by half again, the same policy as ArrayList
+		int newCapacity = Math.max(capacity, pressures[LOCK].length + (pressures[LOCK].length >> 1));
+		for (int column = 0; column < pressures.length; column++) {
+			pressures[column] = Arrays.copyOf(pressures[column], newCapacity);
+		}
+		outerOpen = Arrays.copyOf(outerOpen, words(newCapacity));
+		innerOpen = Arrays.copyOf(innerOpen, words(newCapacity));
+		autoMode = Arrays.copyOf(autoMode, words(newCapacity));
+	}
+
+	private static int words(int bits) {
+		return (bits + 63) >>> 6;
+	}
+
+	private static boolean getBit(long[] bits, int row) {
+		return (bits[row >>> 6] & (1L << row)) != 0;
+	}
+
+	private static void setBit(long[] bits, int row, boolean value) {
+		if (value) {
+			bits[row >>> 6] |= 1L << row;
+		} else {
+			bits[row >>> 6] &= ~(1L << row);
+		}
+	}
+}
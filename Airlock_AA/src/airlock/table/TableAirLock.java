@@ -0,0 +1,145 @@
+package airlock.table;
+
+import airlock.entities.IAirLock;
+import airlock.exceptions.AirLockException;
+import airlock.exceptions.DoorException;
+import airlock.status.StatusRenderer;
+
+class TableAirLock implements IAirLock {
+
+	private final AirLockTable table;
+	private final int row;
+	private final TableDoor outerDoor;
+	private final TableDoor innerDoor;
+
+	TableAirLock(AirLockTable table, int row) {
+		this.table = table;
+		this.row = row;
+		this.outerDoor = new TableDoor(table, row, true);
+		this.innerDoor = new TableDoor(table, row, false);
+	}
+
+	@Override
+	public void openOuterDoor() throws AirLockException {
+		// if outer door is already open, then throw an AirLockException reporting door
+		// is open
+		if (outerDoor.isOpen()) {
+			throw new AirLockException("Outer door is already open");
+		}
+		try {
+			// if operation mode is AUTO then close inner door and equalise
+			if (isInAutoMode()) {
+				if (innerDoor.isOpen()) {
+					closeInnerDoor();
+				}
+				equaliseWithEnvironmentPressure();
+			}
+			outerDoor.open();
+		} catch (DoorException e) {
+			throw new AirLockException("Error while opening outer door. " + e.getMessage());
+		}
+	}
+
+	@Override
+	public void openInnerDoor() throws AirLockException {
+		// if inner door is already open then throw AirLockException reporting door is
+		// open
+		if (innerDoor.isOpen()) {
+			throw new AirLockException("Inner door is already open");
+		}
+		try {
+			// if operation mode is AUTO then close outer door and equalise
+			if (isInAutoMode()) {
+				if (outerDoor.isOpen()) {
+					closeOuterDoor();
+				}
+				equaliseWithCabinPressure();
+			}
+			innerDoor.open();
+		} catch (DoorException e) {
+			throw new AirLockException("Error while opening inner door. " + e.getMessage());
+		}
+	}
+
+	@Override
+	public void closeOuterDoor() throws AirLockException {
+		try {
+			outerDoor.close();
+		} catch (DoorException e) {
+			throw new AirLockException("Outer door is already closed " + e.getMessage());
+		}
+	}
+
+	@Override
+	public void closeInnerDoor() throws AirLockException {
+		try {
+			innerDoor.close();
+		} catch (DoorException e) {
+			throw new AirLockException("DoorException thrown: " + e);
+		}
+	}
+
+	@Override
+	public void equaliseWithEnvironmentPressure() throws AirLockException {
+		// if airlock state is not SEALED then throw AirLockException reporting airlock
+		// is not sealed
+		if (!isSealed()) {
+			throw new AirLockException("Airlock is not sealed");
+		}
+		// column values are never negative, so no PressureException can occur
+		table.setPressure(AirLockTable.LOCK, row, table.getPressure(AirLockTable.EXTERIOR, row));
+	}
+
+	@Override
+	public void equaliseWithCabinPressure() throws AirLockException {
+		// if airlock state is not SEALED then throw AirLockException reporting airlock
+		// is not sealed
+		if (!isSealed()) {
+			throw new AirLockException("Airlock is not sealed");
+		}
+		table.setPressure(AirLockTable.LOCK, row, table.getPressure(AirLockTable.INTERIOR, row));
+	}
+
+	@Override
+	public void toggleOperationMode() throws AirLockException {
+		// if airlock state is not SEALED then throws AirLockException
+		if (!isSealed()) {
+			throw new AirLockException("Airlock is not sealed");
+		}
+		table.setAutoMode(row, !table.isAutoMode(row));
+	}
+
+	@Override
+	public boolean isOuterDoorClosed() {
+		return outerDoor.isClosed();
+	}
+
+	@Override
+	public boolean isInnerDoorClosed() {
+		return innerDoor.isClosed();
+	}
+
+	@Override
+	public boolean isSealed() {
+		return !table.isOuterOpen(row) && !table.isInnerOpen(row);
+	}
+
+	@Override
+	public boolean isUnsealed() {
+		return !isSealed();
+	}
+
+	@Override
+	public boolean isInManualMode() {
+		return !table.isAutoMode(row);
+	}
+
+	@Override
+	public boolean isInAutoMode() {
+		return table.isAutoMode(row);
+	}
+
+	public String toString() {
+		return StatusRenderer.appendAirLock(new StringBuilder(40), this).toString();
+	}
+}
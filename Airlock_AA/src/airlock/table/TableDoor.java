@@ -0,0 +1,77 @@
+package airlock.table;
+
+import airlock.entities.Door;
+import airlock.entities.IDoor;
+import airlock.exceptions.DoorException;
+import airlock.status.StatusRenderer;
+
+class TableDoor implements IDoor {
+
+	private final AirLockTable table;
+	private final int row;
+	private final boolean outer;
+	private final int exColumn;
+
+	TableDoor(AirLockTable table, int row, boolean outer) {
+		this.table = table;
+		this.row = row;
+		this.outer = outer;
+		// Both doors share the lock column as their internal side
+		this.exColumn = outer ? AirLockTable.EXTERIOR : AirLockTable.INTERIOR;
+	}
+
+	@Override
+	public void open() throws DoorException {
+		// Check that the door is not already open
+		if (isOpen()) {
+			throw new DoorException("Door is already open");
+		}
+		// Check that the pressure sensors are equal
+		if (Math.abs(getExternalPressure() - getInternalPressure()) > Door.TOLERANCE) {
+			throw new DoorException("Pressure sensors must be equal when door is open, but were "
+					+ getExternalPressure() + " and " + getInternalPressure());
+		}
+		setOpen(true);
+	}
+
+	@Override
+	public void close() throws DoorException {
+		// Check that the door is not already closed
+		if (isClosed()) {
+			throw new DoorException("Door is already closed");
+		}
+		setOpen(false);
+	}
+
+	@Override
+	public double getExternalPressure() {
+		return table.getPressure(exColumn, row);
+	}
+
+	@Override
+	public double getInternalPressure() {
+		return table.getPressure(AirLockTable.LOCK, row);
+	}
+
+	@Override
+	public boolean isOpen() {
+		return outer ? table.isOuterOpen(row) : table.isInnerOpen(row);
+	}
+
+	@Override
+	public boolean isClosed() {
+		return !isOpen();
+	}
+
+	private void setOpen(boolean open) {
+		if (outer) {
+			table.setOuterOpen(row, open);
+		} else {
+			table.setInnerOpen(row, open);
+		}
+	}
+
+	public String toString() {
+		return StatusRenderer.appendDoor(new StringBuilder(80), this).toString();
+	}
+}
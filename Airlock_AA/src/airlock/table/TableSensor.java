@@ -0,0 +1,36 @@
+package airlock.table;
+
+import airlock.entities.IPressureSensor;
+import airlock.exceptions.PressureException;
+import airlock.status.StatusRenderer;
+
+class TableSensor implements IPressureSensor {
+
+	private final AirLockTable table;
+	private final int row;
+	private final int column;
+
+	TableSensor(AirLockTable table, int row, int column) {
+		this.table = table;
+		this.row = row;
+		this.column = column;
+	}
+
+	@Override
+	public double getPressure() {
+		return table.getPressure(column, row);
+	}
+
+	@Override
+	public void setPressure(double newPressure) throws PressureException {
+		//Checks if newPressure is negative, else sets pressure to newPressure
+		if (newPressure < 0) {
+			throw new PressureException("The new value for Pressure cannot be negative");
+		}
+		table.setPressure(column, row, newPressure);
+	}
+
+	public String toString() {
+		return StatusRenderer.appendSensor(new StringBuilder(32), getPressure()).toString();
+	}
+}
@@ -0,0 +1,112 @@
+package airlock.table;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+public class TableSnapshot {
+
+	// File layout: magic, version and row count, then the three pressure columns
+	// and the three flag bit sets, each written as one contiguous block
+	private static final int MAGIC = 0x414c5453;
+	private static final int VERSION = 1;
+	private static final int HEADER_SIZE = 12;
+
+	private final int size;
+	private final double[][] pressures = new double[3][];
+	private final long[] outerOpen;
+	private final long[] innerOpen;
+	private final long[] autoMode;
+
+	private TableSnapshot(int size, long[] outerOpen, long[] innerOpen, long[] autoMode) {
+		this.size = size;
+		this.outerOpen = outerOpen;
+		this.innerOpen = innerOpen;
+		this.autoMode = autoMode;
+	}
+
+	public static TableSnapshot capture(AirLockTable table) {
+		// Copies the columns on the caller's thread, which is only a few array copies,
+		// so the slow file write can happen on another thread without tearing
+		int size = table.size();
+		int words = (size + 63) >>> 6;
+		TableSnapshot snapshot = new TableSnapshot(size,
+				Arrays.copyOf(table.getOuterOpen(), words),
+				Arrays.copyOf(table.getInnerOpen(), words),
+				Arrays.copyOf(table.getAutoMode(), words));
+		for (int column = 0; column < snapshot.pressures.length; column++) {
+			snapshot.pressures[column] = Arrays.copyOf(table.getColumn(column), size);
+		}
+		return snapshot;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public void writeTo(Path file) throws IOException {
+		// Writes to a temporary file and moves it into place, so a crash mid-write
+		// leaves the previous snapshot intact
+		int words = outerOpen.length;
+		ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + size * 3 * Double.BYTES + words * 3 * Long.BYTES);
+		buffer.putInt(MAGIC).putInt(VERSION).putInt(size);
+		for (double[] column : pressures) {
+			buffer.asDoubleBuffer().put(column);
+			buffer.position(buffer.position() + size * Double.BYTES);
+		}
+		for (long[] bits : new long[][] { outerOpen, innerOpen, autoMode }) {
+			buffer.asLongBuffer().put(bits);
+			buffer.position(buffer.position() + words * Long.BYTES);
+		}
+		buffer.flip();
+
+		Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+		try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			channel.force(false);
+		}
+		Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	public static AirLockTable load(Path file) throws IOException {
+		// Maps the file and bulk copies each column straight into the new table
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC) {
+				throw new IOException("Not an airlock table snapshot: " + file);
+			}
+			int version = buffer.getInt();
+			if (version != VERSION) {
+				throw new IOException("Unsupported snapshot version " + version);
+			}
+			int size = buffer.getInt();
+			int words = (size + 63) >>> 6;
+			if (buffer.remaining() != size * 3 * Double.BYTES + words * 3 * Long.BYTES) {
+				throw new IOException("Truncated snapshot: " + file);
+			}
+
+			double[][] pressures = new double[3][];
+			for (int column = 0; column < pressures.length; column++) {
+				pressures[column] = new double[size];
+				buffer.asDoubleBuffer().get(pressures[column]);
+				buffer.position(buffer.position() + size * Double.BYTES);
+			}
+			long[][] bits = new long[3][];
+			for (int i = 0; i < bits.length; i++) {
+				bits[i] = new long[words];
+				buffer.asLongBuffer().get(bits[i]);
+				buffer.position(buffer.position() + words * Long.BYTES);
+			}
+			return new AirLockTable(size, pressures, bits[0], bits[1], bits[2]);
+		}
+	}
+}
@@ -0,0 +1,43 @@
+package airlock.table;
+
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class TableSnapshotWriter implements AutoCloseable {
+
+	private final Path file;
+	private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "airlock-snapshot-writer");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	public TableSnapshotWriter(Path file) {
+		this.file = file;
+	}
+
+	public Future<Path> submit(AirLockTable table) {
+		// Captures on the calling thread, the table owner, and writes in the background
+		TableSnapshot snapshot = TableSnapshot.capture(table);
+		return writer.submit(() -> {
+			snapshot.writeTo(file);
+			return file;
+		});
+	}
+
+	@Override
+	public void close() {
+		// Lets a pending snapshot finish writing, an interrupted caller stops waiting
+		// and keeps its interrupt flag
+		writer.shutdown();
+		try {
+			writer.awaitTermination(1, TimeUnit.MINUTES);
+		} catch (InterruptedException e) {
+			writer.shutdownNow();
+			Thread.currentThread().interrupt();
+		}
+	}
+}
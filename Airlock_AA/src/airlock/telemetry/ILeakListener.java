@@ -0,0 +1,7 @@
+package airlock.telemetry;
+
+public interface ILeakListener {
+
+	void onLeak(long airLockId, double baselinePressure, double pressure, long elapsedNanos);
+
+}
@@ -0,0 +1,99 @@
+package airlock.telemetry;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import airlock.entities.AirLockAssembly;
+import airlock.entities.IDirtyListener;
+
+public class LeakDetector {
+
+	private final double threshold;
+	private final long windowNanos;
+	private final ILeakListener listener;
+
+	// Only airlocks that have reported a lock pressure while sealed have a baseline,
+	// so the work done is per sample rather than per airlock in the fleet
+	private final Map<Long, Baseline> baselines = new HashMap<>();
+	private final Map<Long, IDirtyListener> watched = new HashMap<>();
+	private long alerts;
+
+	public LeakDetector(double threshold, long windowNanos, ILeakListener listener) {
+		// Check threshold and window are positive
+		if (threshold <= 0 || windowNanos <= 0) {
+			throw new IllegalArgumentException("Leak threshold and window must be positive");
+		}
+		this.threshold = threshold;
+		this.windowNanos = windowNanos;
+		this.listener = listener;
+	}
+
+	public synchronized void sample(long airLockId, double lockPressure, boolean sealed, long timeNanos) {
+		// An unsealed lock is open to the environment or cabin, so drift means nothing
+		if (!sealed) {
+			baselines.remove(airLockId);
+			return;
+		}
+		Baseline baseline = baselines.get(airLockId);
+		if (baseline == null) {
+			baselines.put(airLockId, new Baseline(lockPressure, timeNanos));
+			return;
+		}
+
+		long elapsed = timeNanos - baseline.timeNanos;
+		if (!baseline.alerted && Math.abs(lockPressure - baseline.pressure) > threshold) {
+			// Checked before the window rolls, so a lock that drifted between two
+			// samples further apart than the window still raises an alert. Raised
+			// once per window so a leaking lock does not flood the listener.
+			baseline.alerted = true;
+			alerts++;
+			listener.onLeak(airLockId, baseline.pressure, lockPressure, elapsed);
+		}
+		if (elapsed > windowNanos) {
+			// The window has passed, start a new one from here
+			baseline.pressure = lockPressure;
+			baseline.timeNanos = timeNanos;
+			baseline.alerted = false;
+		}
+	}
+
+	public synchronized void watch(long airLockId, AirLockAssembly assembly) {
+		// Resets the baseline whenever the airlock accepts a command. Equalising is
+		// the deliberate pressure change, the other commands either unseal the lock
+		// or leave its pressure alone, so resetting on them costs nothing.
+		if (watched.containsKey(airLockId)) {
+			return;
+		}
+		IDirtyListener resetter = () -> reset(airLockId);
+		watched.put(airLockId, resetter);
+		assembly.addCommandListener(resetter);
+	}
+
+	public synchronized void unwatch(long airLockId, AirLockAssembly assembly) {
+		IDirtyListener resetter = watched.remove(airLockId);
+		if (resetter != null) {
+			assembly.removeCommandListener(resetter);
+		}
+	}
+
+	public synchronized void reset(long airLockId) {
+		// Call after a deliberate pressure change, such as equalising, while sealed
+		baselines.remove(airLockId);
+	}
+
+	public synchronized long getAlertCount() {
+		return alerts;
+	}
+
+	private static class Baseline {
+
+		double pressure;
+		long timeNanos;
+		boolean alerted;
+
+		Baseline(double pressure, long timeNanos) {
+			this.pressure = pressure;
+			this.timeNanos = timeNanos;
+		}
+	}
+}
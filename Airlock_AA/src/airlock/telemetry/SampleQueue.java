@@ -0,0 +1,102 @@
+package airlock.telemetry;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+class SampleQueue {
+
+	// A bounded ring of primitive (key, pressure) pairs, so samples are queued
+	// without allocating an object each
+	private final long[] keys;
+	private final double[] pressures;
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition notFull = lock.newCondition();
+	private final Condition notEmpty = lock.newCondition();
+
+	private int head;
+	private int count;
+	private boolean closed;
+
+	SampleQueue(int capacity) {
+		keys = new long[capacity];
+		pressures = new double[capacity];
+	}
+
+	boolean offer(long key, double pressure, long timeout, TimeUnit unit) throws InterruptedException {
+		// Blocks while the queue is full, which is the backpressure on producers
+		long nanos = unit.toNanos(timeout);
+		lock.lockInterruptibly();
+		try {
+			while (count == keys.length && !closed) {
+				if (nanos <= 0) {
+					return false;
+				}
+				nanos = notFull.awaitNanos(nanos);
+			}
+			// A producer still blocked when the queue closes fails rather than
+			// queueing a sample the consumer will never take
+			if (closed) {
+				throw new IllegalStateException("Telemetry pipeline is closed");
+			}
+			int tail = (head + count) % keys.length;
+			keys[tail] = key;
+			pressures[tail] = pressure;
+			count++;
+			notEmpty.signal();
+			return true;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	int drain(long[] keysOut, double[] pressuresOut, long timeout, TimeUnit unit) throws InterruptedException {
+		// Waits up to the timeout for a sample, then takes as many as fit. Returns -1
+		// once the queue is closed and empty, nothing more can arrive after that.
+		long nanos = unit.toNanos(timeout);
+		lock.lockInterruptibly();
+		try {
+			while (count == 0) {
+				if (closed) {
+					return -1;
+				}
+				if (nanos <= 0) {
+					return 0;
+				}
+				nanos = notEmpty.awaitNanos(nanos);
+			}
+			int drained = Math.min(count, keysOut.length);
+			for (int i = 0; i < drained; i++) {
+				keysOut[i] = keys[head];
+				pressuresOut[i] = pressures[head];
+				head = (head + 1) % keys.length;
+			}
+			count -= drained;
+			notFull.signalAll();
+			return drained;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	void close() {
+		lock.lock();
+		try {
+			closed = true;
+			notFull.signalAll();
+			notEmpty.signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	int size() {
+		lock.lock();
+		try {
+			return count;
+		} finally {
+			lock.unlock();
+		}
+	}
+}
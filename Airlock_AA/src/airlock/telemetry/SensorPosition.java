@@ -0,0 +1,33 @@
+package airlock.telemetry;
+
+public enum SensorPosition {
+	EXTERIOR("X"),
+	LOCK("L"),
+	INTERIOR("I");
+
+	private static final SensorPosition[] POSITIONS = values();
+
+	private final String code;
+
+	SensorPosition(String code) {
+		this.code = code;
+	}
+
+	public String getCode() {
+		return code;
+	}
+
+	public static SensorPosition fromCode(String code) {
+		// Returns the position for a code such as "X", or null if unrecognised
+		for (SensorPosition position : POSITIONS) {
+			if (position.code.equalsIgnoreCase(code)) {
+				return position;
+			}
+		}
+		return null;
+	}
+
+	static SensorPosition fromOrdinal(int ordinal) {
+		return POSITIONS[ordinal];
+	}
+}
@@ -0,0 +1,345 @@
+package airlock.telemetry;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import airlock.entities.AirLockAssembly;
+import airlock.exceptions.PressureException;
+import airlock.fleet.AirLockFleet;
+
+public class TelemetryPipeline implements AutoCloseable {
+
+	private static final long POLL_MILLIS = 10;
+
+	// Samples are applied on the fleet shard that owns the airlock when there is a
+	// fleet, otherwise on the consumer thread, which must then be the only thread
+	// changing the assemblies in the map
+	private final Map<Long, AirLockAssembly> airLocks;
+	private final AirLockFleet fleet;
+	private final SampleQueue queue;
+	private final Thread consumer;
+
+	// Batch buffers and a per batch open addressing set of sensor keys, reused so
+	// the consumer does not allocate per sample
+	private final long[] batchKeys;
+	private final double[] batchPressures;
+	private final boolean[] latest;
+	private final long[] seenKeys;
+	private final int[] seenStamps;
+	private int stamp;
+
+	// With a fleet, the assembly and shard of each sample kept from a batch, and how
+	// many samples each shard gets
+	private final AirLockAssembly[] batchAssemblies;
+	private final int[] batchShards;
+	private final int[] shardCounts;
+
+	private final LongAdder submitted = new LongAdder();
+	private final LongAdder applied = new LongAdder();
+	private final LongAdder coalesced = new LongAdder();
+	private final LongAdder rejected = new LongAdder();
+	private long processed;
+
+	private volatile boolean closed;
+	private volatile LeakDetector leakDetector;
+
+	public TelemetryPipeline(Map<Long, AirLockAssembly> airLocks, int capacity, int batchSize) {
+		// The assemblies are confined to the consumer thread, so only for airlocks that
+		// take no commands from other threads while the pipeline runs
+		this(airLocks, null, capacity, batchSize);
+	}
+
+	public TelemetryPipeline(AirLockFleet fleet, int capacity, int batchSize) {
+		// Each sample is handed to the shard that runs the airlock's commands
+		this(null, fleet, capacity, batchSize);
+	}
+
+	private TelemetryPipeline(Map<Long, AirLockAssembly> airLocks, AirLockFleet fleet, int capacity, int batchSize) {
+		// Check capacity and batchSize are positive
+		if (capacity < 1 || batchSize < 1) {
+			throw new IllegalArgumentException("Capacity and batch size must be positive");
+		}
+		this.airLocks = airLocks;
+		this.fleet = fleet;
+		queue = new SampleQueue(capacity);
+		batchKeys = new long[batchSize];
+		batchPressures = new double[batchSize];
+		latest = new boolean[batchSize];
+		int tableSize = Integer.highestOneBit(batchSize * 2 - 1) << 1;
+		seenKeys = new long[tableSize];
+		seenStamps = new int[tableSize];
+		batchAssemblies = new AirLockAssembly[batchSize];
+		batchShards = new int[batchSize];
+		shardCounts = new int[fleet == null ? 0 : fleet.getShardCount()];
+
+		consumer = new Thread(this::consume, "airlock-telemetry");
+		consumer.setDaemon(true);
+		consumer.start();
+	}
+
+	public boolean submit(long airLockId, SensorPosition position, double pressure, long timeoutMillis)
+			throws InterruptedException {
+		// Returns false if the queue stayed full for the whole timeout
+		if (closed) {
+			throw new IllegalStateException("Telemetry pipeline is closed");
+		}
+		// The id shares a long with the position, so it must survive the shift
+		if ((airLockId << 2) >> 2 != airLockId) {
+			throw new IllegalArgumentException("Airlock id out of range: " + airLockId);
+		}
+		boolean queued = queue.offer(airLockId << 2 | position.ordinal(), pressure,
+				timeoutMillis, TimeUnit.MILLISECONDS);
+		if (queued) {
+			submitted.increment();
+		}
+		return queued;
+	}
+
+	public void submit(long airLockId, SensorPosition position, double pressure) throws InterruptedException {
+		submit(airLockId, position, pressure, Long.MAX_VALUE);
+	}
+
+	public long ingest(BufferedReader reader) throws IOException, InterruptedException {
+		// Each line is "<airlock id> <X|L|I> <pressure>", malformed lines are counted
+		// as rejected. Returns the number of samples submitted.
+		long count = 0;
+		String line;
+		while ((line = reader.readLine()) != null) {
+			line = line.strip();
+			if (line.isEmpty() || line.charAt(0) == '#') {
+				continue;
+			}
+			int firstSpace = line.indexOf(' ');
+			int secondSpace = firstSpace < 0 ? -1 : line.indexOf(' ', firstSpace + 1);
+			SensorPosition position = secondSpace < 0
+					? null
+					: SensorPosition.fromCode(line.substring(firstSpace + 1, secondSpace));
+			if (position == null) {
+				rejected.increment();
+				continue;
+			}
+			try {
+				long airLockId = Long.parseLong(line.substring(0, firstSpace));
+				double pressure = Double.parseDouble(line.substring(secondSpace + 1).strip());
+				submit(airLockId, position, pressure);
+				count++;
+			} catch (IllegalArgumentException e) {
+				// a malformed number or an id out of range
+				rejected.increment();
+			}
+		}
+		return count;
+	}
+
+	public void flush() throws InterruptedException {
+		// Waits until everything submitted so far has been applied or coalesced
+		long target = submitted.sum();
+		synchronized (this) {
+			while (processed < target) {
+				wait();
+			}
+		}
+	}
+
+	public void setLeakDetector(LeakDetector leakDetector) {
+		// Lock pressure samples are passed on to the detector once applied. The
+		// detector watches every airlock in the map so an accepted equalise resets
+		// its baseline, airlocks added later or in a fleet need LeakDetector.watch.
+		if (leakDetector != null && airLocks != null) {
+			for (Map.Entry<Long, AirLockAssembly> airLock : airLocks.entrySet()) {
+				leakDetector.watch(airLock.getKey(), airLock.getValue());
+			}
+		}
+		this.leakDetector = leakDetector;
+	}
+
+	public long getAppliedCount() {
+		return applied.sum();
+	}
+
+	public long getCoalescedCount() {
+		return coalesced.sum();
+	}
+
+	public long getRejectedCount() {
+		return rejected.sum();
+	}
+
+	private void consume() {
+		try {
+			while (true) {
+				int drained = queue.drain(batchKeys, batchPressures, POLL_MILLIS, TimeUnit.MILLISECONDS);
+				if (drained < 0) {
+					// closed and empty
+					return;
+				}
+				if (drained > 0) {
+					// Samples handed to a fleet shard are counted when the shard applies them
+					completed(drained - applyBatch(drained));
+				}
+			}
+		} catch (InterruptedException e) {
+			// closing
+		}
+	}
+
+	private synchronized void completed(int samples) {
+		processed += samples;
+		notifyAll();
+	}
+
+	private int applyBatch(int drained) {
+		// Walks backwards marking the newest sample for each sensor, then applies
+		// those in arrival order so propagation through open doors stays ordered.
+		// Returns how many were handed to fleet shards.
+		stamp++;
+		int mask = seenKeys.length - 1;
+		for (int i = drained - 1; i >= 0; i--) {
+			long key = batchKeys[i];
+			int slot = (int) (key ^ (key >>> 32)) * 0x9E3779B9 & mask;
+			while (seenStamps[slot] == stamp && seenKeys[slot] != key) {
+				slot = (slot + 1) & mask;
+			}
+			latest[i] = seenStamps[slot] != stamp;
+			seenKeys[slot] = key;
+			seenStamps[slot] = stamp;
+		}
+
+		if (fleet != null) {
+			return handOff(drained);
+		}
+		for (int i = 0; i < drained; i++) {
+			if (!latest[i]) {
+				coalesced.increment();
+				continue;
+			}
+			AirLockAssembly assembly = airLocks.get(batchKeys[i] >> 2);
+			if (assembly == null) {
+				rejected.increment();
+				continue;
+			}
+			apply(assembly, batchKeys[i], batchPressures[i]);
+		}
+		return 0;
+	}
+
+	private int handOff(int drained) {
+		// Each shard gets the batch's samples for its airlocks as one task, in arrival
+		// order. The task sets no command queue barrier, so commands queued around a
+		// stream of samples still coalesce, and a batch allocates one task per shard
+		// rather than one per sample.
+		for (int i = 0; i < drained; i++) {
+			if (!latest[i]) {
+				coalesced.increment();
+				continue;
+			}
+			long airLockId = batchKeys[i] >> 2;
+			AirLockAssembly assembly = fleet.getAssembly(airLockId);
+			if (assembly == null) {
+				rejected.increment();
+				continue;
+			}
+			batchAssemblies[i] = assembly;
+			batchShards[i] = fleet.shardOf(airLockId);
+			shardCounts[batchShards[i]]++;
+		}
+
+		int handedOff = 0;
+		for (int shard = 0; shard < shardCounts.length; shard++) {
+			int count = shardCounts[shard];
+			if (count == 0) {
+				continue;
+			}
+			shardCounts[shard] = 0;
+			ShardBatch batch = new ShardBatch(count);
+			for (int i = 0; i < drained; i++) {
+				if (batchAssemblies[i] != null && batchShards[i] == shard) {
+					batch.add(batchAssemblies[i], batchKeys[i], batchPressures[i]);
+				}
+			}
+			try {
+				fleet.executeOnShard(shard, batch);
+				handedOff += count;
+			} catch (RuntimeException e) {
+				// the fleet is shutting down
+				rejected.add(count);
+			}
+		}
+		Arrays.fill(batchAssemblies, 0, drained, null);
+		return handedOff;
+	}
+
+	private void apply(AirLockAssembly assembly, long key, double pressure) {
+		try {
+			switch (SensorPosition.fromOrdinal((int) (key & 3))) {
+				case EXTERIOR:
+					assembly.setExteriorPressure(pressure);
+					break;
+				case LOCK:
+					assembly.setLockPressure(pressure);
+					LeakDetector detector = leakDetector;
+					if (detector != null) {
+						detector.sample(key >> 2, pressure, assembly.getAirLock().isSealed(), System.nanoTime());
+					}
+					break;
+				case INTERIOR:
+					assembly.setInteriorPressure(pressure);
+					break;
+			}
+			applied.increment();
+		} catch (PressureException e) {
+			rejected.increment();
+		}
+	}
+
+	private class ShardBatch implements Runnable {
+
+		private final AirLockAssembly[] assemblies;
+		private final long[] keys;
+		private final double[] pressures;
+		private int count;
+
+		ShardBatch(int capacity) {
+			assemblies = new AirLockAssembly[capacity];
+			keys = new long[capacity];
+			pressures = new double[capacity];
+		}
+
+		void add(AirLockAssembly assembly, long key, double pressure) {
+			assemblies[count] = assembly;
+			keys[count] = key;
+			pressures[count] = pressure;
+			count++;
+		}
+
+		@Override
+		public void run() {
+			try {
+				for (int i = 0; i < count; i++) {
+					apply(assemblies[i], keys[i], pressures[i]);
+				}
+			} finally {
+				completed(count);
+			}
+		}
+	}
+
+	@Override
+	public void close() {
+		// Stops taking samples and fails any producer still blocked on a full queue,
+		// applies whatever is queued, then waits for samples handed to fleet shards. An
+		// interrupted caller stops waiting, the consumer still drains the queue and exits.
+		closed = true;
+		queue.close();
+		try {
+			consumer.join();
+			flush();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
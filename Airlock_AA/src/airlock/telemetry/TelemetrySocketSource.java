@@ -0,0 +1,55 @@
+package airlock.telemetry;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+public class TelemetrySocketSource implements AutoCloseable {
+
+	private final TelemetryPipeline pipeline;
+	private final ServerSocket serverSocket;
+
+	public TelemetrySocketSource(TelemetryPipeline pipeline, int port) throws IOException {
+		// Listens on the loopback interface only, each connection streams sample lines
+		this.pipeline = pipeline;
+		serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+		Thread acceptor = new Thread(this::accept, "airlock-telemetry-acceptor");
+		acceptor.setDaemon(true);
+		acceptor.start();
+	}
+
+	public int getPort() {
+		return serverSocket.getLocalPort();
+	}
+
+	private void accept() {
+		while (!serverSocket.isClosed()) {
+			try {
+				Socket socket = serverSocket.accept();
+				Thread reader = new Thread(() -> read(socket), "airlock-telemetry-reader");
+				reader.setDaemon(true);
+				reader.start();
+			} catch (IOException e) {
+				// server socket closed
+			}
+		}
+	}
+
+	private void read(Socket socket) {
+		try (socket; BufferedReader reader = new BufferedReader(
+				new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8))) {
+			pipeline.ingest(reader);
+		} catch (IOException | InterruptedException | IllegalStateException e) {
+			// connection dropped or pipeline closed
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		serverSocket.close();
+	}
+}
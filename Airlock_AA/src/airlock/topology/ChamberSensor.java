@@ -0,0 +1,42 @@
+package airlock.topology;
+
+import airlock.entities.IDirtyListener;
+import airlock.entities.INotifyingPressureSensor;
+import airlock.exceptions.PressureException;
+import airlock.status.StatusRenderer;
+
+class ChamberSensor implements INotifyingPressureSensor {
+
+	private final PressureTopology topology;
+	private final int chamber;
+
+	ChamberSensor(PressureTopology topology, int chamber) {
+		this.topology = topology;
+		this.chamber = chamber;
+	}
+
+	@Override
+	public double getPressure() {
+		return topology.getPressure(chamber);
+	}
+
+	@Override
+	public void setPressure(double newPressure) throws PressureException {
+		// Setting a chamber sets everything connected to it through open doors
+		topology.setPressure(chamber, newPressure);
+	}
+
+	@Override
+	public void addPressureListener(IDirtyListener listener) {
+		topology.addPressureListener(chamber, listener);
+	}
+
+	@Override
+	public void removePressureListener(IDirtyListener listener) {
+		topology.removePressureListener(chamber, listener);
+	}
+
+	public String toString() {
+		return StatusRenderer.appendSensor(new StringBuilder(32), getPressure()).toString();
+	}
+}
@@ -0,0 +1,300 @@
+package airlock.topology;
+
+import java.util.Arrays;
+
+import airlock.entities.Door;
+import airlock.entities.DoorState;
+import airlock.entities.IDirtyListener;
+import airlock.entities.IDoor;
+import airlock.entities.IPressureSensor;
+import airlock.entities.PressureTolerance;
+import airlock.exceptions.DoorException;
+import airlock.exceptions.PressureException;
+
+public class PressureTopology {
+
+	// Chambers are numbered in the order they are added, each holds one pressure
+	private double[] pressures = new double[8];
+	private IPressureSensor[] sensors = new IPressureSensor[8];
+	// Doors watching each chamber, told only when that chamber's pressure changes
+	private IDirtyListener[] pressureListeners = new IDirtyListener[8];
+	private int chamberCount;
+
+	// Union-find over the chambers joined by open doors. Members of a component
+	// are also kept on a circular list through next so the whole component can be
+	// walked without scanning every chamber.
+	private int[] parent = new int[8];
+	private int[] componentSize = new int[8];
+	private int[] next = new int[8];
+
+	// Doors are edges between two chambers, firstDoor and nextDoor chain the
+	// doors at each chamber so a component can be rebuilt from its own edges
+	private int[] doorChamberA = new int[8];
+	private int[] doorChamberB = new int[8];
+	private boolean[] doorOpen = new boolean[8];
+	private IDoor[] doors = new IDoor[8];
+	private int doorCount;
+	private int[] firstDoor = new int[8];
+	private int[] nextDoor = new int[16];
+
+	// Scratch list of the members of a component being rebuilt or told of a new pressure
+	private int[] rebuild = new int[8];
+
+	// Told about every pressure and door change, null when nothing is tracking changes
+	private IDirtyListener dirtyListener;
+
+	public int addChamber(double pressure) throws PressureException {
+		// Check pressure is not negative, same as PressureSensor
+		if (pressure < 0) {
+			throw new PressureException("Pressure cannot be negative");
+		}
+		if (chamberCount == pressures.length) {
+			int capacity = chamberCount * 2;
+			pressures = Arrays.copyOf(pressures, capacity);
+			sensors = Arrays.copyOf(sensors, capacity);
+			pressureListeners = Arrays.copyOf(pressureListeners, capacity);
+			parent = Arrays.copyOf(parent, capacity);
+			componentSize = Arrays.copyOf(componentSize, capacity);
+			next = Arrays.copyOf(next, capacity);
+			firstDoor = Arrays.copyOf(firstDoor, capacity);
+		}
+		int chamber = chamberCount++;
+		pressures[chamber] = pressure;
+		sensors[chamber] = new ChamberSensor(this, chamber);
+		parent[chamber] = chamber;
+		componentSize[chamber] = 1;
+		next[chamber] = chamber;
+		firstDoor[chamber] = -1;
+		return chamber;
+	}
+
+	public int addDoor(int externalChamber, int internalChamber) throws DoorException {
+		return addDoor(externalChamber, internalChamber, PressureTolerance.DEFAULT);
+	}
+
+	public int addDoor(int externalChamber, int internalChamber, PressureTolerance tolerance) throws DoorException {
+		// Doors start CLOSED, so adding one never changes connectivity
+		checkChamber(externalChamber);
+		checkChamber(internalChamber);
+		if (externalChamber == internalChamber) {
+			throw new DoorException("A door must connect two different chambers");
+		}
+		if (doorCount == doors.length) {
+			int capacity = doorCount * 2;
+			doorChamberA = Arrays.copyOf(doorChamberA, capacity);
+			doorChamberB = Arrays.copyOf(doorChamberB, capacity);
+			doorOpen = Arrays.copyOf(doorOpen, capacity);
+			doors = Arrays.copyOf(doors, capacity);
+			nextDoor = Arrays.copyOf(nextDoor, capacity * 2);
+		}
+		int door = doorCount++;
+		doorChamberA[door] = externalChamber;
+		doorChamberB[door] = internalChamber;
+		doors[door] = new TopologyDoor(this, door,
+				new Door(sensors[externalChamber], sensors[internalChamber], DoorState.CLOSED, tolerance));
+
+		// Each door is linked in at both of its chambers, slot 2 * door at the
+		// external chamber and slot 2 * door + 1 at the internal one
+		nextDoor[2 * door] = firstDoor[externalChamber];
+		firstDoor[externalChamber] = 2 * door;
+		nextDoor[2 * door + 1] = firstDoor[internalChamber];
+		firstDoor[internalChamber] = 2 * door + 1;
+		return door;
+	}
+
+	public int getChamberCount() {
+		return chamberCount;
+	}
+
+	public int getDoorCount() {
+		return doorCount;
+	}
+
+	public IPressureSensor getSensor(int chamber) {
+		checkChamber(chamber);
+		return sensors[chamber];
+	}
+
+	public IDoor getDoor(int door) {
+		checkDoor(door);
+		return doors[door];
+	}
+
+	public boolean isConnected(int firstChamber, int secondChamber) {
+		checkChamber(firstChamber);
+		checkChamber(secondChamber);
+		return find(firstChamber) == find(secondChamber);
+	}
+
+	public int getComponentSize(int chamber) {
+		checkChamber(chamber);
+		return componentSize[find(chamber)];
+	}
+
+	public double getPressure(int chamber) {
+		checkChamber(chamber);
+		return pressures[chamber];
+	}
+
+	public void setPressure(int chamber, double pressure) throws PressureException {
+		// The new pressure spreads to every chamber reachable through open doors
+		checkChamber(chamber);
+		if (pressure < 0) {
+			throw new PressureException("The new value for Pressure cannot be negative");
+		}
+		int size = componentSize[find(chamber)];
+		if (rebuild.length < size) {
+			rebuild = new int[Math.max(size, rebuild.length * 2)];
+		}
+		// Every pressure is set before any door hears of it, so a door between two
+		// chambers of the component never sees one side half updated
+		int[] changedMembers = rebuild;
+		int changedCount = 0;
+		int member = chamber;
+		do {
+			if (pressures[member] != pressure) {
+				pressures[member] = pressure;
+				if (pressureListeners[member] != null) {
+					changedMembers[changedCount++] = member;
+				}
+			}
+			member = next[member];
+		} while (member != chamber);
+		for (int i = 0; i < changedCount; i++) {
+			pressureListeners[changedMembers[i]].markDirty();
+		}
+		changed();
+	}
+
+	void addPressureListener(int chamber, IDirtyListener listener) {
+		pressureListeners[chamber] = IDirtyListener.both(pressureListeners[chamber], listener);
+	}
+
+	void removePressureListener(int chamber, IDirtyListener listener) {
+		pressureListeners[chamber] = IDirtyListener.without(pressureListeners[chamber], listener);
+	}
+
+	public void setDirtyListener(IDirtyListener dirtyListener) {
+		this.dirtyListener = dirtyListener;
+	}
+
+	public IDirtyListener getDirtyListener() {
+		return dirtyListener;
+	}
+
+	void doorOpened(int door) {
+		// Opening a door only ever joins two components, a near constant time union
+		doorOpen[door] = true;
+		union(doorChamberA[door], doorChamberB[door]);
+		changed();
+	}
+
+	void doorClosed(int door) {
+		// Closing a door may split its component. Union-find cannot delete an edge,
+		// so the component is rebuilt from the doors still open inside it, which
+		// costs the size of that component rather than the whole station.
+		doorOpen[door] = false;
+		int start = doorChamberA[door];
+		if (componentSize[find(start)] == 2) {
+			// The common case of a lock chamber and one neighbour. Any other open door
+			// at the lock joins the same two chambers, only without one do they split.
+			if (!hasOpenDoor(start)) {
+				int other = doorChamberB[door];
+				parent[start] = start;
+				parent[other] = other;
+				componentSize[start] = 1;
+				componentSize[other] = 1;
+				next[start] = start;
+				next[other] = other;
+			}
+			changed();
+			return;
+		}
+
+		int size = componentSize[find(start)];
+		if (rebuild.length < size) {
+			rebuild = new int[Math.max(size, rebuild.length * 2)];
+		}
+		int[] members = rebuild;
+		int count = 0;
+		int member = start;
+		do {
+			members[count++] = member;
+			member = next[member];
+		} while (member != start);
+
+		for (int i = 0; i < count; i++) {
+			int chamber = members[i];
+			parent[chamber] = chamber;
+			componentSize[chamber] = 1;
+			next[chamber] = chamber;
+		}
+		for (int i = 0; i < count; i++) {
+			for (int slot = firstDoor[members[i]]; slot != -1; slot = nextDoor[slot]) {
+				int connected = slot >> 1;
+				if (doorOpen[connected]) {
+					union(doorChamberA[connected], doorChamberB[connected]);
+				}
+			}
+		}
+		// Listeners hear of the close only once the components are right again
+		changed();
+	}
+
+	private boolean hasOpenDoor(int chamber) {
+		for (int slot = firstDoor[chamber]; slot != -1; slot = nextDoor[slot]) {
+			if (doorOpen[slot >> 1]) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void changed() {
+		if (dirtyListener != null) {
+			dirtyListener.markDirty();
+		}
+	}
+
+	private int find(int chamber) {
+		// Path halving keeps the trees shallow without recursion
+		while (parent[chamber] != chamber) {
+			parent[chamber] = parent[parent[chamber]];
+			chamber = parent[chamber];
+		}
+		return chamber;
+	}
+
+	private void union(int firstChamber, int secondChamber) {
+		int first = find(firstChamber);
+		int second = find(secondChamber);
+		if (first == second) {
+			return;
+		}
+		// Union by size, the smaller tree hangs off the larger root
+		if (componentSize[first] < componentSize[second]) {
+			int swap = first;
+			first = second;
+			second = swap;
+		}
+		parent[second] = first;
+		componentSize[first] += componentSize[second];
+
+		// Splicing two circular lists is a swap of their next pointers
+		int swap = next[first];
+		next[first] = next[second];
+		next[second] = swap;
+	}
+
+	private void checkChamber(int chamber) {
+		if (chamber < 0 || chamber >= chamberCount) {
+			throw new IndexOutOfBoundsException("Chamber " + chamber + " is not in the topology");
+		}
+	}
+
+	private void checkDoor(int door) {
+		if (door < 0 || door >= doorCount) {
+			throw new IndexOutOfBoundsException("Door " + door + " is not in the topology");
+		}
+	}
+}
@@ -0,0 +1,59 @@
+package airlock.topology;
+
+import airlock.entities.IDoor;
+import airlock.exceptions.DoorException;
+
+class TopologyDoor implements IDoor {
+
+	private final PressureTopology topology;
+	private final int door;
+	private final IDoor delegate;
+
+	TopologyDoor(PressureTopology topology, int door, IDoor delegate) {
+		this.topology = topology;
+		this.door = door;
+		this.delegate = delegate;
+	}
+
+	@Override
+	public void open() throws DoorException {
+		// The door checks the pressures, the topology only learns of doors that opened
+		delegate.open();
+		topology.doorOpened(door);
+	}
+
+	@Override
+	public void close() throws DoorException {
+		delegate.close();
+		topology.doorClosed(door);
+	}
+
+	@Override
+	public double getExternalPressure() {
+		return delegate.getExternalPressure();
+	}
+
+	@Override
+	public double getInternalPressure() {
+		return delegate.getInternalPressure();
+	}
+
+	@Override
+	public boolean isOpen() {
+		return delegate.isOpen();
+	}
+
+	@Override
+	public boolean isClosed() {
+		return delegate.isClosed();
+	}
+
+	@Override
+	public boolean isPressureEqual() {
+		return delegate.isPressureEqual();
+	}
+
+	public String toString() {
+		return delegate.toString();
+	}
+}
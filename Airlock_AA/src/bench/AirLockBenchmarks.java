@@ -0,0 +1,370 @@
+package bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import airlock.entities.AirLock;
+import airlock.entities.AirLockAssembly;
+import airlock.entities.ConcurrentAirLock;
+import airlock.entities.Door;
+import airlock.entities.DoorState;
+import airlock.entities.IAirLock;
+import airlock.entities.IDoor;
+import airlock.entities.IPressureSensor;
+import airlock.entities.IResultAirLock;
+import airlock.entities.OperationMode;
+import airlock.entities.PressureSensor;
+import airlock.entities.TransitionRuleSet;
+import airlock.exceptions.AirLockException;
+import airlock.fleet.AirLockRegistry;
+import airlock.table.AirLockTable;
+import airlock.exceptions.DoorException;
+import airlock.simulation.ExponentialIntegrator;
+import airlock.simulation.PressureSimulation;
+import airlock.status.StatusRenderer;
+
+public class AirLockBenchmarks {
+
+	private static final int DECK_SIZE = 100_000;
+	private static final int CONTENDED_THREADS = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+	public static void main(String[] args) throws Exception {
+		List<BenchmarkResult> results = new ArrayList<>();
+
+		results.add(autoModeCycle());
+		results.add(autoModeOpenCloseOuter());
+		results.add(concurrentAutoModeCycle(1));
+		results.add(concurrentAutoModeCycle(CONTENDED_THREADS));
+		results.add(rejectedCommandException());
+		results.add(rejectedCommandResult());
+		results.add(commandMix());
+		results.add(commandMixCustomRules());
+		results.add(commandMixAssembly());
+		results.add(doorOpenAccepted());
+		results.add(doorOpenRejected());
+		results.add(deckEqualisePerAirLock());
+		results.add(deckEqualiseBatch());
+		results.add(simulationTick());
+		results.add(lookupHashMap());
+		results.add(lookupRegistry());
+		results.add(queryUnsealedManualScan());
+		results.add(queryUnsealedManualIndex());
+		results.add(queryLockPressureIndex());
+		results.add(updateLockPressureIndex());
+		results.add(statusFormat());
+		results.add(statusRender());
+		results.add(sensorSetGet(1));
+		results.add(sensorSetGet(CONTENDED_THREADS));
+
+		for (BenchmarkResult result : results) {
+			System.out.println(result);
+		}
+	}
+
+	// AUTO mode openOuterDoor followed by openInnerDoor, each implicitly closing
+	// the other door and equalising the lock before opening
+	private static BenchmarkResult autoModeCycle() throws Exception {
+		IAirLock airLock = newAutoAirLock();
+		return new Benchmark("AirLock AUTO openOuter/openInner cycle", 1).run(() -> {
+			airLock.openOuterDoor();
+			airLock.openInnerDoor();
+		});
+	}
+
+	private static BenchmarkResult autoModeOpenCloseOuter() throws Exception {
+		IAirLock airLock = newAutoAirLock();
+		return new Benchmark("AirLock AUTO openOuter/closeOuter", 1).run(() -> {
+			airLock.openOuterDoor();
+			airLock.closeOuterDoor();
+		});
+	}
+
+	// The same AUTO cycle on a ConcurrentAirLock, rejected commands are counted as
+	// operations since under contention another thread may have won the transition
+	private static BenchmarkResult concurrentAutoModeCycle(int threads) throws Exception {
+		IAirLock airLock = new ConcurrentAirLock(new PressureSensor(0.0), new PressureSensor(1.0),
+				new PressureSensor(1.0), DoorState.CLOSED, DoorState.CLOSED);
+		airLock.toggleOperationMode();
+		String name = threads == 1 ? "ConcurrentAirLock AUTO cycle" : "ConcurrentAirLock AUTO cycle contended";
+		return new Benchmark(name, threads).run(() -> {
+			try {
+				airLock.openOuterDoor();
+				airLock.openInnerDoor();
+			} catch (AirLockException e) {
+				// another thread opened the door first
+			}
+		});
+	}
+
+	// A MANUAL mode openOuterDoor across unequal pressures, rejected every call
+	private static BenchmarkResult rejectedCommandException() throws Exception {
+		IAirLock airLock = newAirLock();
+		return new Benchmark("AirLock rejected command (exception)", 1).run(() -> {
+			try {
+				airLock.openOuterDoor();
+			} catch (AirLockException e) {
+				// expected, the pressures are never equal
+			}
+		});
+	}
+
+	private static BenchmarkResult rejectedCommandResult() throws Exception {
+		AirLock airLock = (AirLock) newAirLock();
+		return new Benchmark("AirLock rejected command (result code)", 1).run(() -> {
+			airLock.tryOpenOuterDoor();
+		});
+	}
+
+	// A mix of real AirLock commands with the standard rules, two accepted toggles,
+	// a rejected close, a rejected open and an accepted equalise per operation
+	private static BenchmarkResult commandMix() throws Exception {
+		AirLock airLock = (AirLock) newAirLock();
+		return new Benchmark("AirLock command mix (5 commands)", 1).run(() -> runCommandMix(airLock));
+	}
+
+	// The same mix through a compiled copy of the standard rules, which AirLock looks up
+	// in the table instead of checking directly
+	private static BenchmarkResult commandMixCustomRules() throws Exception {
+		PressureSensor lockSensor = new PressureSensor(1.0);
+		AirLock airLock = new AirLock(new Door(new PressureSensor(0.0), lockSensor, DoorState.CLOSED),
+				new Door(new PressureSensor(1.0), lockSensor, DoorState.CLOSED), lockSensor,
+				OperationMode.MANUAL, TransitionRuleSet.standard().compile());
+		return new Benchmark("AirLock command mix, custom rules (5 commands)", 1).run(() -> runCommandMix(airLock));
+	}
+
+	// The same mix on an assembly, where the doors and sensors go through the topology
+	private static BenchmarkResult commandMixAssembly() throws Exception {
+		IResultAirLock airLock = new AirLockAssembly(0.0, 1.0, 1.0).getAirLock();
+		return new Benchmark("AirLock command mix, assembly (5 commands)", 1).run(() -> runCommandMix(airLock));
+	}
+
+	private static void runCommandMix(IResultAirLock airLock) {
+		airLock.tryToggleOperationMode();
+		airLock.tryToggleOperationMode();
+		airLock.tryCloseOuterDoor();
+		airLock.tryOpenOuterDoor();
+		airLock.tryEqualiseWithCabinPressure();
+	}
+
+	// Door.open with equal pressures, closed again so every call takes the same path
+	private static BenchmarkResult doorOpenAccepted() throws Exception {
+		IDoor door = new Door(new PressureSensor(1.0), new PressureSensor(1.0), DoorState.CLOSED);
+		return new Benchmark("Door.open accepted", 1).run(() -> {
+			door.open();
+			door.close();
+		});
+	}
+
+	// Door.open with unequal pressures, the pressure check rejects every call
+	private static BenchmarkResult doorOpenRejected() throws Exception {
+		IDoor door = new Door(new PressureSensor(0.0), new PressureSensor(1.0), DoorState.CLOSED);
+		return new Benchmark("Door.open rejected", 1).run(() -> {
+			try {
+				door.open();
+			} catch (DoorException e) {
+				// expected, the pressures are never equal
+			}
+		});
+	}
+
+	// Equalises a whole deck of airlocks one IAirLock call at a time
+	private static BenchmarkResult deckEqualisePerAirLock() throws Exception {
+		IAirLock[] deck = new IAirLock[DECK_SIZE];
+		for (int i = 0; i < deck.length; i++) {
+			deck[i] = newAirLock();
+		}
+		return new Benchmark("Deck equalise per airlock (100k)", 1).run(() -> {
+			for (IAirLock airLock : deck) {
+				airLock.equaliseWithEnvironmentPressure();
+			}
+		});
+	}
+
+	// Equalises the same deck in one AirLockTable batch call
+	private static BenchmarkResult deckEqualiseBatch() throws Exception {
+		AirLockTable table = new AirLockTable(DECK_SIZE);
+		for (int i = 0; i < DECK_SIZE; i++) {
+			table.addAirLock(0.0, 1.0, 1.0, DoorState.CLOSED, DoorState.CLOSED);
+		}
+		return new Benchmark("Deck equalise batch (100k)", 1).run(() -> {
+			table.equaliseWithEnvironmentPressure(0, DECK_SIZE, null);
+		});
+	}
+
+	// One simulation tick over a deck where every airlock is equalising, the flow
+	// rate is low enough that none finish during the run
+	private static BenchmarkResult simulationTick() throws Exception {
+		AirLockTable table = new AirLockTable(DECK_SIZE);
+		for (int i = 0; i < DECK_SIZE; i++) {
+			table.addAirLock(0.0, 1.0, 1.0, DoorState.CLOSED, DoorState.CLOSED);
+		}
+		PressureSimulation simulation = new PressureSimulation(table, new ExponentialIntegrator(), 1e-9);
+		for (int row = 0; row < DECK_SIZE; row++) {
+			simulation.equaliseWithEnvironmentPressure(row);
+		}
+		return new Benchmark("Simulation tick (100k equalising)", 1).run(() -> {
+			simulation.tick(0.001);
+		});
+	}
+
+	// Looks up a pseudo random registered id per operation, the boxed map against
+	// the primitive keyed registry
+	private static BenchmarkResult lookupHashMap() throws Exception {
+		Map<Long, IAirLock> airLocks = new ConcurrentHashMap<>();
+		IAirLock airLock = newAirLock();
+		for (long id = 0; id < DECK_SIZE; id++) {
+			airLocks.put(id * 7919, airLock);
+		}
+		int[] next = new int[1];
+		int[] sink = new int[1];
+		return new Benchmark("Lookup ConcurrentHashMap<Long> (100k)", 1).run(() -> {
+			next[0] = (next[0] + 40503) % DECK_SIZE;
+			sink[0] += airLocks.get(next[0] * 7919L) == null ? 0 : 1;
+		});
+	}
+
+	private static BenchmarkResult lookupRegistry() throws Exception {
+		AirLockRegistry registry = new AirLockRegistry();
+		long[] ids = new long[DECK_SIZE];
+		IAirLock[] airLocks = new IAirLock[DECK_SIZE];
+		IAirLock airLock = new ConcurrentAirLock(new PressureSensor(0.0), new PressureSensor(1.0),
+				new PressureSensor(1.0), DoorState.CLOSED, DoorState.CLOSED);
+		for (int i = 0; i < DECK_SIZE; i++) {
+			ids[i] = i * 7919L;
+			airLocks[i] = airLock;
+		}
+		registry.registerAll(ids, airLocks);
+		int[] next = new int[1];
+		int[] sink = new int[1];
+		return new Benchmark("Lookup AirLockRegistry (100k)", 1).run(() -> {
+			next[0] = (next[0] + 40503) % DECK_SIZE;
+			sink[0] += registry.get(next[0] * 7919L) == null ? 0 : 1;
+		});
+	}
+
+	// All unsealed airlocks in MANUAL mode out of 100k where one in a thousand
+	// matches, by asking every airlock and through the registry's bitmap indexes
+	private static BenchmarkResult queryUnsealedManualScan() throws Exception {
+		IAirLock[] deck = newMixedDeck();
+		int[] sink = new int[1];
+		return new Benchmark("Query unsealed MANUAL scan (100k)", 1).run(() -> {
+			for (IAirLock airLock : deck) {
+				if (airLock.isUnsealed() && airLock.isInManualMode()) {
+					sink[0]++;
+				}
+			}
+		});
+	}
+
+	private static BenchmarkResult queryUnsealedManualIndex() throws Exception {
+		IAirLock[] deck = newMixedDeck();
+		long[] ids = new long[deck.length];
+		for (int i = 0; i < ids.length; i++) {
+			ids[i] = i;
+		}
+		AirLockRegistry registry = new AirLockRegistry();
+		registry.registerAll(ids, deck);
+		int[] sink = new int[1];
+		return new Benchmark("Query unsealed MANUAL index (100k)", 1).run(() -> {
+			registry.forEachMatching(0, AirLockRegistry.SEALED | AirLockRegistry.AUTO, (id, airLock) -> sink[0]++);
+		});
+	}
+
+	// Lock pressures spread over [0, 1), the query selects about a hundred of them
+	private static BenchmarkResult queryLockPressureIndex() throws Exception {
+		long[] ids = new long[DECK_SIZE];
+		AirLockAssembly[] assemblies = new AirLockAssembly[DECK_SIZE];
+		for (int i = 0; i < DECK_SIZE; i++) {
+			ids[i] = i;
+			assemblies[i] = new AirLockAssembly(0.0, (i * 7919 % DECK_SIZE) / (double) DECK_SIZE, 1.0);
+		}
+		AirLockRegistry registry = new AirLockRegistry();
+		registry.registerAll(ids, assemblies);
+		int[] sink = new int[1];
+		return new Benchmark("Query lock pressure range index (100k)", 1).run(() -> {
+			registry.forEachLockPressureBetween(0.5, 0.501, (id, airLock) -> sink[0]++);
+		});
+	}
+
+	// One assembly's lock pressure jumping across the whole range and back, each jump
+	// applied to the index by the next query
+	private static BenchmarkResult updateLockPressureIndex() throws Exception {
+		long[] ids = new long[DECK_SIZE];
+		AirLockAssembly[] assemblies = new AirLockAssembly[DECK_SIZE];
+		for (int i = 0; i < DECK_SIZE; i++) {
+			ids[i] = i;
+			assemblies[i] = new AirLockAssembly(0.0, (i * 7919 % DECK_SIZE) / (double) DECK_SIZE, 1.0);
+		}
+		AirLockRegistry registry = new AirLockRegistry();
+		registry.registerAll(ids, assemblies);
+		AirLockAssembly jumping = assemblies[0];
+		int[] sink = new int[1];
+		return new Benchmark("Update lock pressure index, full range jump (100k)", 1).run(() -> {
+			jumping.setLockPressure(jumping.getLockSensor().getPressure() < 0.5 ? 0.999 : 0.001);
+			registry.forEachLockPressureBetween(0.5, 0.5, (id, airLock) -> sink[0]++);
+		});
+	}
+
+	private static IAirLock[] newMixedDeck() throws Exception {
+		IAirLock[] deck = new IAirLock[DECK_SIZE];
+		for (int i = 0; i < deck.length; i++) {
+			IAirLock airLock = new ConcurrentAirLock(new PressureSensor(1.0), new PressureSensor(1.0),
+					new PressureSensor(1.0), i % 1000 == 0 ? DoorState.OPEN : DoorState.CLOSED, DoorState.CLOSED);
+			if (i % 2 == 1) {
+				airLock.toggleOperationMode();
+			}
+			deck[i] = airLock;
+		}
+		return deck;
+	}
+
+	// Main's status block with the String.format template it used to print,
+	// against rendering into one reused StringBuilder
+	private static BenchmarkResult statusFormat() throws Exception {
+		AirLockAssembly assembly = new AirLockAssembly(0.0, 1.0, 1.0);
+		int[] sink = new int[1];
+		return new Benchmark("Status block String.format", 1).run(() -> {
+			sink[0] += String.format("%n%s%nExterior %s%nLock %s%nInterior %s%nExterior %s,%nInterior %s%n",
+					assembly.getAirLock(), assembly.getExteriorSensor(), assembly.getLockSensor(),
+					assembly.getInteriorSensor(), assembly.getExteriorDoor(), assembly.getInteriorDoor()).length();
+		});
+	}
+
+	private static BenchmarkResult statusRender() throws Exception {
+		AirLockAssembly assembly = new AirLockAssembly(0.0, 1.0, 1.0);
+		StringBuilder out = new StringBuilder(512);
+		int[] sink = new int[1];
+		return new Benchmark("Status block StatusRenderer", 1).run(() -> {
+			out.setLength(0);
+			sink[0] += StatusRenderer.appendAssembly(out, assembly).length();
+		});
+	}
+
+	private static BenchmarkResult sensorSetGet(int threads) throws Exception {
+		IPressureSensor sensor = new PressureSensor(1.0);
+		String name = threads == 1 ? "PressureSensor set/get" : "PressureSensor set/get contended";
+		return new Benchmark(name, threads).run(() -> {
+			sensor.setPressure(sensor.getPressure() + 1.0);
+		});
+	}
+
+	private static IAirLock newAutoAirLock() throws Exception {
+		IAirLock airLock = newAirLock();
+		airLock.toggleOperationMode();
+		return airLock;
+	}
+
+	private static IAirLock newAirLock() throws Exception {
+		IPressureSensor exteriorSensor = new PressureSensor(0.0);
+		IPressureSensor lockSensor = new PressureSensor(1.0);
+		IPressureSensor interiorSensor = new PressureSensor(1.0);
+
+		IDoor outerDoor = new Door(exteriorSensor, lockSensor, DoorState.CLOSED);
+		IDoor innerDoor = new Door(interiorSensor, lockSensor, DoorState.CLOSED);
+
+		return new AirLock(outerDoor, innerDoor, lockSensor);
+	}
+
+}
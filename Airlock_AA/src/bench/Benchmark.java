@@ -0,0 +1,84 @@
+package bench;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+public class Benchmark {
+
+	private static final int WARMUP_ITERATIONS = 3;
+	private static final int MEASURED_ITERATIONS = 5;
+	private static final long ITERATION_MILLIS = 500;
+
+	private final String name;
+	private final int threads;
+
+	public Benchmark(String name, int threads) {
+		// Check threads is at least one
+		if (threads < 1) {
+			throw new IllegalArgumentException("Benchmark needs at least one thread");
+		}
+		this.name = name;
+		this.threads = threads;
+	}
+
+	public BenchmarkResult run(IBenchmarkOperation operation) throws Exception {
+		// Warm up first so the JIT has compiled the path being measured
+		for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+			runIteration(operation);
+		}
+
+		long totalOps = 0;
+		long totalNanos = 0;
+		for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+			long start = System.nanoTime();
+			totalOps += runIteration(operation);
+			totalNanos += System.nanoTime() - start;
+		}
+		return new BenchmarkResult(name, threads, totalOps, totalNanos);
+	}
+
+	private long runIteration(IBenchmarkOperation operation) throws Exception {
+		AtomicBoolean running = new AtomicBoolean(true);
+		LongAdder ops = new LongAdder();
+		CountDownLatch started = new CountDownLatch(threads);
+		CountDownLatch finished = new CountDownLatch(threads);
+		Exception[] failure = new Exception[1];
+
+		for (int t = 0; t < threads; t++) {
+			Thread worker = new Thread(() -> {
+				long count = 0;
+				started.countDown();
+				try {
+					started.await();
+					while (running.get()) {
+						operation.run();
+						count++;
+					}
+				} catch (Exception e) {
+					synchronized (failure) {
+						failure[0] = e;
+					}
+				} finally {
+					ops.add(count);
+					finished.countDown();
+				}
+			}, name + "-" + t);
+			worker.start();
+		}
+
+		started.await();
+		Thread.sleep(ITERATION_MILLIS);
+		running.set(false);
+		finished.await();
+
+		// Rethrow anything the operation threw, a failing benchmark is not a result
+		synchronized (failure) {
+			if (failure[0] != null) {
+				throw failure[0];
+			}
+		}
+		return ops.sum();
+	}
+
+}
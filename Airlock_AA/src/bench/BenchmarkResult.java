@@ -0,0 +1,41 @@
+package bench;
+
+public class BenchmarkResult {
+
+	private final String name;
+	private final int threads;
+	private final long operations;
+	private final long elapsedNanos;
+
+	public BenchmarkResult(String name, int threads, long operations, long elapsedNanos) {
+		this.name = name;
+		this.threads = threads;
+		this.operations = operations;
+		this.elapsedNanos = elapsedNanos;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public long getOperations() {
+		return operations;
+	}
+
+	public double getThroughput() {
+		// operations per second across all threads
+		return operations / (elapsedNanos / 1e9);
+	}
+
+	public double getAverageLatency() {
+		// nanoseconds per operation as seen by a single thread
+		return operations == 0 ? 0.0 : (double) elapsedNanos * threads / operations;
+	}
+
+	public String toString() {
+		return String.format(
+			"%-40s threads: %2d, throughput: %,14.0f ops/s, latency: %10.1f ns/op",
+			name, threads, getThroughput(), getAverageLatency());
+	}
+
+}
@@ -0,0 +1,7 @@
+package bench;
+
+public interface IBenchmarkOperation {
+
+	void run() throws Exception;
+
+}
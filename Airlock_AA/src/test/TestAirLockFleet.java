@@ -0,0 +1,156 @@
+package test;
+
+import airlock.entities.*;
+import airlock.exceptions.AirLockException;
+import airlock.exceptions.DoorException;
+import airlock.exceptions.PressureException;
+import airlock.fleet.AirLockFleet;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestAirLockFleet {
+
+    AirLockFleet fleet;
+
+    @BeforeEach
+    public void setUp() {
+        fleet = new AirLockFleet(4);
+    }
+
+    private IAirLock newAirLock() throws PressureException, DoorException {
+        IPressureSensor lockSensor = new PressureSensor(1.0);
+        IDoor outerDoor = new Door(new PressureSensor(1.0), lockSensor, DoorState.CLOSED);
+        IDoor innerDoor = new Door(new PressureSensor(1.0), lockSensor, DoorState.CLOSED);
+        return new AirLock(outerDoor, innerDoor, lockSensor);
+    }
+
+    // Ensure that registered airlocks can be looked up by id
+    @Test
+    void testRegisterAndGet() throws Exception {
+        IAirLock airLock = newAirLock();
+        fleet.register(42, airLock);
+        assertSame(airLock, fleet.get(42));
+        assertEquals(1, fleet.size());
+    }
+
+    // Ensure that an id cannot be registered twice
+    @Test
+    void testRegisterDuplicateId() throws Exception {
+        fleet.register(1, newAirLock());
+        IAirLock other = newAirLock();
+        assertThrows(AirLockException.class, () -> fleet.register(1, other));
+    }
+
+    // Ensure that submitting to an unknown id throws an AirLockException
+    @Test
+    void testSubmitUnknownId() {
+        assertThrows(AirLockException.class, () -> fleet.submit(7, AirLockCommand.OPEN_OUTER));
+    }
+
+    // Ensure that commands for the same airlock run in submission order
+    @Test
+    void testCommandsRunInOrder() throws Exception {
+        fleet.register(1, newAirLock());
+        fleet.submit(1, AirLockCommand.OPEN_OUTER);
+        fleet.submit(1, AirLockCommand.CLOSE_OUTER);
+        fleet.submit(1, AirLockCommand.TOGGLE_MODE).get();
+        assertTrue(fleet.get(1).isSealed());
+        assertTrue(fleet.get(1).isInAutoMode());
+    }
+
+    // Ensure that commands spread across many airlocks are all applied
+    @Test
+    void testCommandsAcrossManyAirLocks() throws Exception {
+        List<Future<Void>> results = new ArrayList<>();
+        for (long id = 0; id < 1000; id++) {
+            fleet.register(id, newAirLock());
+            results.add(fleet.submit(id, AirLockCommand.OPEN_INNER));
+        }
+        for (Future<Void> result : results) {
+            result.get();
+        }
+        for (long id = 0; id < 1000; id++) {
+            assertFalse(fleet.get(id).isInnerDoorClosed());
+        }
+    }
+
+    // Ensure that a rejected command is reported through the returned future
+    @Test
+    void testRejectedCommandReported() throws Exception {
+        fleet.register(1, newAirLock());
+        Future<Void> result = fleet.submit(1, AirLockCommand.CLOSE_OUTER);
+        ExecutionException e = assertThrows(ExecutionException.class, result::get);
+        assertInstanceOf(AirLockException.class, e.getCause());
+    }
+
+    // Ensure that the fleet's airlocks are found and indexed through its registry
+    @Test
+    void testFleetRegistry() throws Exception {
+        fleet.register(1, newAirLock());
+        fleet.register(2, new AirLockAssembly(1.0, 1.0, 1.0));
+        fleet.submit(1, AirLockCommand.OPEN_OUTER).get();
+        fleet.enqueue(2, AirLockCommand.OPEN_INNER);
+        CountDownLatch drained = new CountDownLatch(1);
+        fleet.execute(2, drained::countDown);
+        drained.await();
+
+        assertSame(fleet.get(2), fleet.getRegistry().get(2));
+        assertSame(fleet.getAssembly(2), fleet.getRegistry().getAssembly(2));
+        assertNull(fleet.getAssembly(1));
+        assertEquals(2, fleet.getRegistry().countUnsealed());
+        assertEquals(0, fleet.getRegistry().countInAutoMode());
+
+        assertNotNull(fleet.unregister(2));
+        assertNull(fleet.getQueue(2));
+        assertThrows(AirLockException.class, () -> fleet.enqueue(2, AirLockCommand.OPEN_INNER));
+        assertEquals(1, fleet.size());
+    }
+
+    // Ensure that an interrupted close stops the shards and leaves the caller's interrupt flag set
+    @Test
+    void testInterruptedClose() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        IPressureSensor blockingSensor = new IPressureSensor() {
+            public double getPressure() {
+                return 1.0;
+            }
+
+            public void setPressure(double newPressure) {
+                running.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        IDoor outerDoor = new Door(new PressureSensor(1.0), blockingSensor, DoorState.CLOSED);
+        IDoor innerDoor = new Door(new PressureSensor(1.0), blockingSensor, DoorState.CLOSED);
+        fleet.register(1, new AirLock(outerDoor, innerDoor, blockingSensor));
+        Future<Void> blocked = fleet.submit(1, AirLockCommand.EQUALISE_CABIN);
+        running.await();
+
+        Thread.currentThread().interrupt();
+        fleet.close();
+        assertTrue(Thread.interrupted());
+        blocked.get(5, TimeUnit.SECONDS);
+        assertEquals(1, release.getCount());
+    }
+
+    @AfterEach
+    void tearDown() {
+        fleet.close();
+        fleet = null;
+    }
+}
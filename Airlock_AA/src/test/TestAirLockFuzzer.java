@@ -0,0 +1,48 @@
+package test;
+
+import airlock.fuzz.AirLockFuzzer;
+import airlock.fuzz.FuzzReport;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestAirLockFuzzer {
+
+    // Ensure that a fuzzing run over the real airlock finds no violations
+    @Test
+    void testRunIsClean() throws InterruptedException {
+        FuzzReport report = new AirLockFuzzer(2, 32).run(2024, 20_000);
+        assertTrue(report.isClean(), report.toString());
+        assertEquals(20_000, report.getSequences());
+        assertEquals(20_000 * 32, report.getSteps());
+        assertEquals(-1, report.getFirstFailure());
+    }
+
+    // Ensure that a run does not depend on how many threads shared the work
+    @Test
+    void testDeterministicAcrossThreads() throws InterruptedException {
+        FuzzReport single = new AirLockFuzzer(1, 16).run(99, 5_000);
+        FuzzReport parallel = new AirLockFuzzer(4, 16).run(99, 5_000);
+        assertEquals(single.getSteps(), parallel.getSteps());
+        assertEquals(single.getViolations(), parallel.getViolations());
+        assertEquals(single.getFirstFailure(), parallel.getFirstFailure());
+    }
+
+    // Ensure that replaying a sequence gives the same trace every time
+    @Test
+    void testReplay() {
+        AirLockFuzzer fuzzer = new AirLockFuzzer(1, 24);
+        String trace = fuzzer.replay(7, 3);
+        assertEquals(trace, fuzzer.replay(7, 3));
+        assertNotEquals(trace, fuzzer.replay(7, 4));
+        assertEquals(25, trace.split("\n").length);
+        assertTrue(trace.endsWith("passed\n"));
+    }
+
+    // Ensure that the fuzzer rejects a nonsensical configuration
+    @Test
+    void testInvalidConfiguration() {
+        assertThrows(IllegalArgumentException.class, () -> new AirLockFuzzer(0, 10));
+        assertThrows(IllegalArgumentException.class, () -> new AirLockFuzzer(1, 0));
+    }
+}
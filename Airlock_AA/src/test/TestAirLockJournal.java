@@ -0,0 +1,193 @@
+package test;
+
+import airlock.entities.*;
+import airlock.exceptions.AirLockException;
+import airlock.exceptions.JournalException;
+import airlock.exceptions.PressureException;
+import airlock.journal.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestAirLockJournal {
+
+    @TempDir
+    Path tempDir;
+
+    Path file;
+    AirLockJournal journal;
+    IPressureSensor exteriorSensor;
+    IPressureSensor lockSensor;
+    IAirLock airLock;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        file = tempDir.resolve("airlock.journal");
+        journal = new AirLockJournal(file, 1 << 16, 10);
+        exteriorSensor = new JournalingPressureSensor(7, JournalEventType.EXTERIOR_PRESSURE,
+                new PressureSensor(0.0), journal);
+        lockSensor = new JournalingPressureSensor(7, JournalEventType.LOCK_PRESSURE,
+                new PressureSensor(1.0), journal);
+        IPressureSensor interiorSensor = new JournalingPressureSensor(7, JournalEventType.INTERIOR_PRESSURE,
+                new PressureSensor(1.0), journal);
+        IDoor outerDoor = new Door(exteriorSensor, lockSensor, DoorState.CLOSED);
+        IDoor innerDoor = new Door(interiorSensor, lockSensor, DoorState.CLOSED);
+        airLock = new JournalingAirLock(7, new AirLock(outerDoor, innerDoor, lockSensor), journal);
+    }
+
+    // Ensure that transitions are appended as events in order
+    @Test
+    void testTransitionsJournaled() throws Exception {
+        airLock.toggleOperationMode();
+        airLock.openOuterDoor();
+        journal.close();
+
+        List<JournalEventType> events = new ArrayList<>();
+        int count = AirLockJournal.replay(file, (timestamp, id, type, value) -> {
+            assertEquals(7, id);
+            events.add(type);
+        });
+        assertEquals(events.size(), count);
+        assertEquals(List.of(
+                JournalEventType.EXTERIOR_PRESSURE, JournalEventType.LOCK_PRESSURE,
+                JournalEventType.INTERIOR_PRESSURE, JournalEventType.OUTER_DOOR_CLOSED,
+                JournalEventType.INNER_DOOR_CLOSED, JournalEventType.SEALED,
+                JournalEventType.MANUAL_MODE, JournalEventType.AUTO_MODE,
+                JournalEventType.LOCK_PRESSURE, JournalEventType.UNSEALED,
+                JournalEventType.OUTER_DOOR_OPENED), events);
+    }
+
+    // Ensure that rejected commands are not journaled
+    @Test
+    void testRejectedCommandNotJournaled() throws Exception {
+        int before = journal.getEventCount();
+        assertThrows(Exception.class, () -> airLock.openOuterDoor());
+        assertEquals(before, journal.getEventCount());
+    }
+
+    // Ensure that replay rebuilds the airlock state
+    @Test
+    void testReplayRebuildsAirLock() throws Exception {
+        airLock.toggleOperationMode();
+        airLock.openInnerDoor();
+        exteriorSensor.setPressure(0.5);
+        journal.close();
+
+        ReplayedAirLock replayed = JournalReplay.replay(file).get(7L);
+        assertEquals(DoorState.OPEN, replayed.getInnerDoorState());
+        assertEquals(OperationMode.AUTO, replayed.getMode());
+        assertEquals(0.5, replayed.getExteriorPressure());
+
+        IAirLock rebuilt = replayed.toAirLock();
+        assertTrue(rebuilt.isUnsealed());
+        assertTrue(rebuilt.isInAutoMode());
+        assertFalse(rebuilt.isInnerDoorClosed());
+    }
+
+    // Ensure that an AUTO open that closes the other door and then fails still journals the close
+    @Test
+    void testFailedAutoCommandJournalsDoorChange() throws Exception {
+        boolean[] failing = new boolean[1];
+        PressureSensor lock = new PressureSensor(1.0);
+        IPressureSensor failingLock = new IPressureSensor() {
+            public double getPressure() {
+                return lock.getPressure();
+            }
+
+            public void setPressure(double newPressure) throws PressureException {
+                if (failing[0]) {
+                    throw new PressureException("Sensor offline");
+                }
+                lock.setPressure(newPressure);
+            }
+        };
+        IDoor outerDoor = new Door(new PressureSensor(0.0), failingLock, DoorState.CLOSED);
+        IDoor innerDoor = new Door(new PressureSensor(1.0), failingLock, DoorState.CLOSED);
+        IAirLock failingAirLock = new JournalingAirLock(9, new AirLock(outerDoor, innerDoor, failingLock), journal);
+        failingAirLock.toggleOperationMode();
+        failingAirLock.openInnerDoor();
+
+        failing[0] = true;
+        assertThrows(AirLockException.class, () -> failingAirLock.openOuterDoor());
+        assertTrue(failingAirLock.isInnerDoorClosed());
+        journal.close();
+
+        ReplayedAirLock replayed = JournalReplay.replay(file).get(9L);
+        assertEquals(DoorState.CLOSED, replayed.getInnerDoorState());
+        assertEquals(DoorState.CLOSED, replayed.getOuterDoorState());
+    }
+
+    // Ensure that pressure spreading through an assembly's open doors is journaled
+    @Test
+    void testAssemblyPropagationJournaled() throws Exception {
+        AirLockAssembly assembly = new AirLockAssembly(1.0, 1.0, 1.0);
+        IAirLock journaled = new JournalingAirLock(11, assembly, journal);
+        journaled.openOuterDoor();
+        assembly.setExteriorPressure(0.25);
+        journal.close();
+
+        ReplayedAirLock replayed = JournalReplay.replay(file).get(11L);
+        assertEquals(DoorState.OPEN, replayed.getOuterDoorState());
+        assertEquals(0.25, replayed.getExteriorPressure());
+        assertEquals(0.25, replayed.getLockPressure());
+        assertEquals(1.0, replayed.getInteriorPressure());
+    }
+
+    // Ensure that a journal failure on propagated pressure is reported by the next command
+    @Test
+    void testAssemblyPressureFailureReported() throws Exception {
+        // Room for the seven starting events and nothing more
+        journal.close();
+        journal = new AirLockJournal(tempDir.resolve("small.journal"), 8 + 7 * 25, 10);
+        AirLockAssembly assembly = new AirLockAssembly(1.0, 1.0, 1.0);
+        IAirLock journaled = new JournalingAirLock(11, assembly, journal);
+
+        assembly.setLockPressure(0.5);
+        AirLockException e = assertThrows(AirLockException.class, journaled::equaliseWithCabinPressure);
+        assertInstanceOf(JournalException.class, e.getCause());
+        assertEquals(1.0, assembly.getLockSensor().getPressure());
+        journaled.equaliseWithCabinPressure();
+    }
+
+    // Ensure that reopening a journal appends after the committed events
+    @Test
+    void testReopenAppends() throws Exception {
+        airLock.toggleOperationMode();
+        journal.close();
+        int before = AirLockJournal.replay(file, (timestamp, id, type, value) -> { });
+
+        journal = new AirLockJournal(file, 1 << 16, 10);
+        journal.append(8, JournalEventType.SEALED, 0);
+        journal.close();
+
+        Map<Long, ReplayedAirLock> airLocks = JournalReplay.replay(file);
+        assertEquals(2, airLocks.size());
+        assertEquals(before + 1, AirLockJournal.replay(file, (timestamp, id, type, value) -> { }));
+    }
+
+    // Ensure that appending to a closed or full journal throws a JournalException
+    @Test
+    void testClosedAndFullJournal() throws Exception {
+        journal.close();
+        assertThrows(JournalException.class, () -> journal.append(1, JournalEventType.SEALED, 0));
+
+        journal = new AirLockJournal(tempDir.resolve("small.journal"), 8 + 25, 10);
+        journal.append(1, JournalEventType.SEALED, 0);
+        assertThrows(JournalException.class, () -> journal.append(1, JournalEventType.SEALED, 0));
+    }
+
+    @AfterEach
+    void tearDown() throws JournalException {
+        journal.close();
+        journal = null;
+        airLock = null;
+    }
+}
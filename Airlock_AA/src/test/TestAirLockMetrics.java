@@ -0,0 +1,175 @@
+package test;
+
+import airlock.entities.*;
+import airlock.exceptions.AirLockException;
+import airlock.exceptions.DoorException;
+import airlock.metrics.AirLockMetrics;
+import airlock.metrics.LatencyHistogram;
+import airlock.metrics.MeteredAirLock;
+import airlock.metrics.MetricsEndpoint;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.management.ObjectName;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestAirLockMetrics {
+
+    AirLockMetrics metrics;
+    MeteredAirLock airLock;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        IPressureSensor lockSensor = new PressureSensor(1.0);
+        IDoor outerDoor = new Door(new PressureSensor(0.0), lockSensor, DoorState.CLOSED);
+        IDoor innerDoor = new Door(new PressureSensor(1.0), lockSensor, DoorState.CLOSED);
+        metrics = new AirLockMetrics("test-lock");
+        airLock = new MeteredAirLock(new AirLock(outerDoor, innerDoor, lockSensor), metrics);
+    }
+
+    // Ensure that histogram percentiles fall within the bucket precision
+    @Test
+    void testHistogramPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 1000; value++) {
+            histogram.record(value);
+        }
+        assertEquals(1000, histogram.getCount());
+        assertEquals(500.5, histogram.getMean(), 1e-9);
+        assertEquals(500, histogram.getPercentile(50), 500 * 0.07);
+        assertEquals(990, histogram.getPercentile(99), 990 * 0.07);
+        assertTrue(histogram.getMax() >= 1000);
+        histogram.reset();
+        assertEquals(0, histogram.getPercentile(99));
+    }
+
+    // Ensure that values past the histogram's range share its last bucket and keep their sum
+    @Test
+    void testHistogramRange() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getMax());
+        histogram.record(1L << 40);
+        histogram.record(1L << 34);
+        assertEquals(2, histogram.getCount());
+        assertEquals((1L << 34) - 1, histogram.getMax());
+        assertEquals(((1L << 40) + (1L << 34)) / 2.0, histogram.getMean(), 1e-9);
+    }
+
+    // Ensure that commands and rejections by reason are counted
+    @Test
+    void testCommandsAndRejectionsCounted() {
+        assertThrows(AirLockException.class, () -> airLock.openOuterDoor());
+        assertEquals(AirLockResult.OK, airLock.tryOpenInnerDoor());
+        assertEquals(AirLockResult.NOT_SEALED, airLock.tryToggleOperationMode());
+
+        assertEquals(3, metrics.getCommandCount());
+        assertEquals(2, metrics.getRejectedCount());
+        assertEquals(1, metrics.getRejectedCount(AirLockResult.OUTER_DOOR_PRESSURE_NOT_EQUAL));
+        assertEquals(1, metrics.getCommandLatency(AirLockCommand.OPEN_INNER).getCount());
+    }
+
+    // Ensure that AUTO mode opens are recorded as implicit sequences
+    @Test
+    void testAutoSequenceRecorded() throws AirLockException {
+        airLock.toggleOperationMode();
+        airLock.openOuterDoor();
+        airLock.openInnerDoor();
+        assertEquals(2, metrics.getAutoSequenceCount());
+        assertTrue(metrics.getReport().contains("AUTO count=2"));
+    }
+
+    // Ensure that rejected commands throw the same detailed exceptions as the wrapped airlock
+    @Test
+    void testRejectionMessagesMatchAirLock() {
+        AirLockException e = assertThrows(AirLockException.class, () -> airLock.openOuterDoor());
+        assertEquals("Error while opening outer door. Pressure sensors must be equal when door is open, "
+                + "but were 0.0 and 1.0", e.getMessage());
+        e = assertThrows(AirLockException.class, () -> airLock.closeInnerDoor());
+        assertEquals("DoorException thrown: airlock.exceptions.DoorException: Door is already closed", e.getMessage());
+        assertEquals(2, metrics.getRejectedCount());
+    }
+
+    // Ensure that the AUTO sequence times only the close and equalise, not opening the door
+    @Test
+    void testAutoSequenceExcludesOpen() throws Exception {
+        IPressureSensor lockSensor = new PressureSensor(1.0);
+        IDoor innerDoor = new Door(new PressureSensor(1.0), lockSensor, DoorState.CLOSED);
+        IDoor slowDoor = new Door(new PressureSensor(0.0), lockSensor, DoorState.CLOSED) {
+            @Override
+            public void open() throws DoorException {
+                super.open();
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        airLock = new MeteredAirLock(new AirLock(slowDoor, innerDoor, lockSensor), metrics);
+        airLock.toggleOperationMode();
+        airLock.openOuterDoor();
+
+        assertEquals(1, metrics.getAutoSequenceCount());
+        assertTrue(metrics.getCommandLatency(AirLockCommand.OPEN_OUTER).getMax() >= 50_000_000L);
+        assertTrue(metrics.getAutoSequenceP99Nanos() < 50_000_000L);
+    }
+
+    // Ensure that wrapping an airlock keeps the AUTO sequence listener it already had
+    @Test
+    void testExistingAutoSequenceListenerKept() throws Exception {
+        IPressureSensor lockSensor = new PressureSensor(1.0);
+        IDoor outerDoor = new Door(new PressureSensor(0.0), lockSensor, DoorState.CLOSED);
+        IDoor innerDoor = new Door(new PressureSensor(1.0), lockSensor, DoorState.CLOSED);
+        AirLock wrapped = new AirLock(outerDoor, innerDoor, lockSensor);
+        List<AirLockCommand> sequences = new ArrayList<>();
+        wrapped.setAutoSequenceListener((command, nanos) -> sequences.add(command));
+        airLock = new MeteredAirLock(wrapped, metrics);
+        airLock.toggleOperationMode();
+        airLock.openOuterDoor();
+
+        assertEquals(List.of(AirLockCommand.OPEN_OUTER), sequences);
+        assertEquals(1, metrics.getAutoSequenceCount());
+    }
+
+    // Ensure that the metrics are readable over JMX
+    @Test
+    void testJmxRegistration() throws Exception {
+        ObjectName name = metrics.registerMBean();
+        try {
+            airLock.tryOpenInnerDoor();
+            Object count = ManagementFactory.getPlatformMBeanServer().getAttribute(name, "CommandCount");
+            assertEquals(1L, count);
+        } finally {
+            metrics.unregisterMBean();
+        }
+    }
+
+    // Ensure that the text endpoint serves the report
+    @Test
+    void testTextEndpoint() throws Exception {
+        airLock.tryOpenInnerDoor();
+        try (MetricsEndpoint endpoint = new MetricsEndpoint(0)) {
+            endpoint.register(metrics);
+            URL url = new URL("http://localhost:" + endpoint.getPort() + "/metrics");
+            try (InputStream in = url.openStream()) {
+                String body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+                assertTrue(body.startsWith("airlock test-lock"));
+                assertTrue(body.contains("OI count=1"));
+            }
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        metrics = null;
+        airLock = null;
+    }
+}
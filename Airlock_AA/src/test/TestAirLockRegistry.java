@@ -0,0 +1,180 @@
+package test;
+
+import airlock.entities.*;
+import airlock.exceptions.AirLockException;
+import airlock.fleet.AirLockRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestAirLockRegistry {
+
+    AirLockRegistry registry;
+
+    @BeforeEach
+    public void setUp() {
+        registry = new AirLockRegistry();
+    }
+
+    private static AirLock newAirLock() throws Exception {
+        IPressureSensor lockSensor = new PressureSensor(1.0);
+        return new AirLock(new Door(new PressureSensor(0.0), lockSensor, DoorState.CLOSED),
+                new Door(new PressureSensor(1.0), lockSensor, DoorState.CLOSED), lockSensor);
+    }
+
+    // Ensure that airlocks are found by id, including unusual ids
+    @Test
+    void testRegisterAndGet() throws Exception {
+        long[] ids = {0, -1, 42, Long.MIN_VALUE, Long.MAX_VALUE};
+        List<IAirLock> airLocks = new ArrayList<>();
+        for (long id : ids) {
+            IAirLock airLock = newAirLock();
+            airLocks.add(airLock);
+            registry.register(id, airLock);
+        }
+        for (int i = 0; i < ids.length; i++) {
+            assertSame(airLocks.get(i), registry.get(ids[i]));
+        }
+        assertNull(registry.get(7));
+        assertEquals(5, registry.size());
+        assertThrows(AirLockException.class, () -> registry.register(42, newAirLock()));
+    }
+
+    // Ensure that an unregistered id is gone and can be registered again
+    @Test
+    void testUnregister() throws Exception {
+        IAirLock first = newAirLock();
+        registry.register(5, first);
+        assertSame(first, registry.unregister(5));
+        assertNull(registry.get(5));
+        assertNull(registry.unregister(5));
+
+        IAirLock second = newAirLock();
+        registry.register(5, second);
+        assertSame(second, registry.get(5));
+        assertEquals(1, registry.size());
+    }
+
+    // Ensure that a bulk registration is all or nothing
+    @Test
+    void testRegisterAll() throws Exception {
+        registry.register(3, newAirLock());
+        assertThrows(AirLockException.class, () -> registry.registerAll(
+                new long[] {1, 2, 3}, new IAirLock[] {newAirLock(), newAirLock(), newAirLock()}));
+        assertThrows(AirLockException.class, () -> registry.registerAll(
+                new long[] {1, 1}, new IAirLock[] {newAirLock(), newAirLock()}));
+        assertEquals(1, registry.size());
+
+        int count = 10_000;
+        long[] ids = new long[count];
+        IAirLock[] airLocks = new IAirLock[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = 1000L * (count - i);
+            airLocks[i] = newAirLock();
+        }
+        registry.registerAll(ids, airLocks);
+        assertEquals(count + 1, registry.size());
+        for (int i = 0; i < count; i++) {
+            assertSame(airLocks[i], registry.get(ids[i]));
+        }
+    }
+
+    // Ensure that iteration is in ascending id order
+    @Test
+    void testForEachInIdOrder() throws Exception {
+        for (long id : new long[] {30, -5, 10, 20}) {
+            registry.register(id, newAirLock());
+        }
+        registry.unregister(20);
+        List<Long> visited = new ArrayList<>();
+        registry.forEach((id, airLock) -> visited.add(id));
+        assertEquals(List.of(-5L, 10L, 30L), visited);
+    }
+
+    // Ensure that the state indexes follow commands sent to the airlocks
+    @Test
+    void testStateIndexes() throws Exception {
+        AirLock first = newAirLock();
+        AirLock second = newAirLock();
+        registry.register(1, first);
+        registry.register(2, second);
+        assertEquals(2, registry.countSealed());
+        assertEquals(2, registry.countInManualMode());
+
+        second.openInnerDoor();
+        first.toggleOperationMode();
+        assertEquals(1, registry.countUnsealed());
+        assertEquals(1, registry.countInAutoMode());
+
+        List<Long> unsealed = new ArrayList<>();
+        registry.forEachUnsealed((id, airLock) -> unsealed.add(id));
+        assertEquals(List.of(2L), unsealed);
+        List<Long> auto = new ArrayList<>();
+        registry.forEachInAutoMode((id, airLock) -> auto.add(id));
+        assertEquals(List.of(1L), auto);
+
+        registry.unregister(2);
+        second.closeInnerDoor();
+        assertEquals(1, registry.countSealed());
+        assertEquals(0, registry.countUnsealed());
+    }
+
+    // Ensure that airlocks the registry cannot listen to are indexed on reindex
+    @Test
+    void testReindex() throws Exception {
+        IAirLock airLock = new ConcurrentAirLock(new PressureSensor(1.0), new PressureSensor(1.0),
+                new PressureSensor(1.0), DoorState.CLOSED, DoorState.CLOSED);
+        registry.register(9, airLock);
+        airLock.openOuterDoor();
+        assertEquals(1, registry.countSealed());
+        registry.reindex(9);
+        assertEquals(1, registry.countUnsealed());
+    }
+
+    // Ensure that lock free readers always find airlocks registered before they
+    // started while the table is growing and shrinking under them
+    @Test
+    void testConcurrentReads() throws Exception {
+        int stable = 1000;
+        for (int i = 0; i < stable; i++) {
+            registry.register(i, newAirLock());
+        }
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicBoolean missed = new AtomicBoolean();
+        Thread[] readers = new Thread[3];
+        for (int r = 0; r < readers.length; r++) {
+            readers[r] = new Thread(() -> {
+                while (running.get()) {
+                    for (int i = 0; i < stable; i++) {
+                        if (registry.get(i) == null) {
+                            missed.set(true);
+                        }
+                    }
+                }
+            });
+            readers[r].start();
+        }
+        for (int i = stable; i < 50_000; i++) {
+            registry.register(i, newAirLock());
+            if (i % 3 == 0) {
+                registry.unregister(i);
+            }
+        }
+        running.set(false);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        assertFalse(missed.get());
+    }
+
+    @AfterEach
+    void tearDown() {
+        registry = null;
+    }
+}
@@ -0,0 +1,87 @@
+package test;
+
+import airlock.entities.*;
+import airlock.exceptions.AirLockException;
+import airlock.exceptions.DoorException;
+import airlock.exceptions.PressureException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestAirLockResults {
+
+    AirLock airLock;
+    static IPressureSensor outerDoorExSensor;
+    static IPressureSensor lockSensor;
+
+    @BeforeEach
+    public void setUp() throws PressureException, DoorException {
+        outerDoorExSensor = new PressureSensor(0.5);
+        lockSensor = new PressureSensor(1.0);
+        IDoor outerDoor = new Door(outerDoorExSensor, lockSensor, DoorState.CLOSED);
+        IDoor innerDoor = new Door(new PressureSensor(1.0), lockSensor, DoorState.CLOSED);
+        airLock = new AirLock(outerDoor, innerDoor, lockSensor);
+    }
+
+    // Ensure that accepted commands return OK and change state
+    @Test
+    void testAcceptedCommands() {
+        assertEquals(AirLockResult.OK, airLock.tryOpenInnerDoor());
+        assertTrue(airLock.isUnsealed());
+        assertEquals(AirLockResult.OK, airLock.tryCloseInnerDoor());
+        assertTrue(airLock.isSealed());
+        assertEquals(AirLockResult.OK, airLock.tryToggleOperationMode());
+        assertTrue(airLock.isInAutoMode());
+    }
+
+    // Ensure that rejected commands return a result code and leave state unchanged
+    @Test
+    void testRejectedCommands() {
+        assertEquals(AirLockResult.OUTER_DOOR_PRESSURE_NOT_EQUAL, airLock.tryOpenOuterDoor());
+        assertEquals(AirLockResult.OUTER_DOOR_ALREADY_CLOSED, airLock.tryCloseOuterDoor());
+        assertEquals(AirLockResult.INNER_DOOR_ALREADY_CLOSED, airLock.tryCloseInnerDoor());
+        assertTrue(airLock.isSealed());
+
+        airLock.tryOpenInnerDoor();
+        assertEquals(AirLockResult.INNER_DOOR_ALREADY_OPEN, airLock.tryOpenInnerDoor());
+        assertEquals(AirLockResult.NOT_SEALED, airLock.tryEqualiseWithEnvironmentPressure());
+        assertEquals(AirLockResult.NOT_SEALED, airLock.tryToggleOperationMode());
+        assertTrue(airLock.isInManualMode());
+    }
+
+    // Ensure that AUTO mode sequencing works through the result API
+    @Test
+    void testAutoModeOpenOuterDoor() {
+        airLock.tryToggleOperationMode();
+        airLock.tryOpenInnerDoor();
+        assertEquals(AirLockResult.OK, airLock.tryOpenOuterDoor());
+        assertTrue(airLock.isInnerDoorClosed());
+        assertEquals(0.5, lockSensor.getPressure());
+    }
+
+    // Ensure that the exception API still reports the detailed messages
+    @Test
+    void testExceptionMessages() {
+        AirLockException e = assertThrows(AirLockException.class, () -> airLock.openOuterDoor());
+        assertEquals("Error while opening outer door. Pressure sensors must be equal when door is open, "
+                + "but were 0.5 and 1.0", e.getMessage());
+        e = assertThrows(AirLockException.class, () -> airLock.closeInnerDoor());
+        assertTrue(e.getMessage().endsWith("Door is already closed"));
+    }
+
+    // Ensure that AirLockCommand dispatches to the result API
+    @Test
+    void testCommandTryExecute() {
+        assertEquals(AirLockResult.OK, AirLockCommand.OPEN_INNER.tryExecute(airLock));
+        assertEquals(AirLockResult.INNER_DOOR_ALREADY_OPEN, AirLockCommand.OPEN_INNER.tryExecute(airLock));
+    }
+
+    @AfterEach
+    void tearDown() {
+        airLock = null;
+        outerDoorExSensor = null;
+        lockSensor = null;
+    }
+}
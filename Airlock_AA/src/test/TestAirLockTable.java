@@ -0,0 +1,135 @@
+package test;
+
+import airlock.entities.*;
+import airlock.exceptions.AirLockException;
+import airlock.exceptions.DoorException;
+import airlock.exceptions.PressureException;
+import airlock.table.AirLockTable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestAirLockTable {
+
+    AirLockTable table;
+    int row;
+
+    @BeforeEach
+    public void setUp() throws PressureException, DoorException {
+        table = new AirLockTable(2);
+        row = table.addAirLock(0.0, 1.0, 1.0, DoorState.CLOSED, DoorState.CLOSED);
+    }
+
+    // Ensure that a new row is SEALED and in MANUAL mode
+    @Test
+    void testInitialState() {
+        IAirLock airLock = table.airLock(row);
+        assertTrue(airLock.isSealed());
+        assertTrue(airLock.isInManualMode());
+        assertEquals(1, table.size());
+    }
+
+    // Ensure that negative pressures and unequal open doors are rejected
+    @Test
+    void testAddInvalidRows() {
+        assertThrows(PressureException.class,
+                () -> table.addAirLock(-1.0, 1.0, 1.0, DoorState.CLOSED, DoorState.CLOSED));
+        assertThrows(DoorException.class,
+                () -> table.addAirLock(0.0, 1.0, 1.0, DoorState.OPEN, DoorState.CLOSED));
+        assertEquals(1, table.size());
+    }
+
+    // Ensure that sensor views read and write the pressure columns
+    @Test
+    void testSensorView() throws PressureException {
+        IPressureSensor lockSensor = table.lockSensor(row);
+        lockSensor.setPressure(2.5);
+        assertEquals(2.5, table.lockSensor(row).getPressure());
+        assertThrows(PressureException.class, () -> lockSensor.setPressure(-1.0));
+    }
+
+    // Ensure that door views check pressures the same way as Door
+    @Test
+    void testDoorView() throws DoorException {
+        IDoor outerDoor = table.outerDoor(row);
+        assertThrows(DoorException.class, outerDoor::open);
+        IDoor innerDoor = table.innerDoor(row);
+        innerDoor.open();
+        assertTrue(table.innerDoor(row).isOpen());
+        assertTrue(table.airLock(row).isUnsealed());
+    }
+
+    // Ensure that the airlock view follows AUTO mode sequencing
+    @Test
+    void testAutoModeOpenOuterDoor() throws AirLockException {
+        IAirLock airLock = table.airLock(row);
+        airLock.toggleOperationMode();
+        airLock.openInnerDoor();
+        airLock.openOuterDoor();
+        assertFalse(airLock.isOuterDoorClosed());
+        assertTrue(airLock.isInnerDoorClosed());
+        assertEquals(0.0, table.lockSensor(row).getPressure());
+    }
+
+    // Ensure that the table grows and counts sealed and AUTO rows
+    @Test
+    void testGrowAndCount() throws Exception {
+        for (int i = 0; i < 200; i++) {
+            int added = table.addAirLock(1.0, 1.0, 1.0, DoorState.CLOSED,
+                    i % 2 == 0 ? DoorState.OPEN : DoorState.CLOSED);
+            if (i % 4 == 1) {
+                table.airLock(added).toggleOperationMode();
+            }
+        }
+        assertEquals(201, table.size());
+        assertEquals(101, table.countSealed());
+        assertEquals(50, table.countInAutoMode());
+    }
+
+    // Ensure that batch equalisation only updates SEALED rows and reports the rest
+    @Test
+    void testBatchEqualise() throws Exception {
+        for (int i = 1; i < 150; i++) {
+            table.addAirLock(i, 2.0, 2.0, DoorState.CLOSED,
+                    i % 10 == 0 ? DoorState.OPEN : DoorState.CLOSED);
+        }
+        long[] unsealedRows = new long[3];
+        int equalised = table.equaliseWithEnvironmentPressure(0, table.size(), unsealedRows);
+
+        assertEquals(136, equalised);
+        for (int i = 0; i < table.size(); i++) {
+            boolean unsealed = (unsealedRows[i >>> 6] & (1L << i)) != 0;
+            assertEquals(table.airLock(i).isUnsealed(), unsealed);
+            double expected = unsealed ? 2.0 : table.exteriorSensor(i).getPressure();
+            assertEquals(expected, table.lockSensor(i).getPressure());
+        }
+    }
+
+    // Ensure that batch equalisation stays inside the requested rows
+    @Test
+    void testBatchEqualiseRange() throws Exception {
+        for (int i = 1; i < 100; i++) {
+            table.addAirLock(5.0, 2.0, 3.0, DoorState.CLOSED, DoorState.CLOSED);
+        }
+        assertEquals(40, table.equaliseWithCabinPressure(30, 70, null));
+        assertEquals(2.0, table.lockSensor(29).getPressure());
+        assertEquals(3.0, table.lockSensor(30).getPressure());
+        assertEquals(3.0, table.lockSensor(69).getPressure());
+        assertEquals(2.0, table.lockSensor(70).getPressure());
+        assertThrows(IndexOutOfBoundsException.class,
+                () -> table.equaliseWithCabinPressure(0, 101, null));
+    }
+
+    // Ensure that rows outside the table are rejected
+    @Test
+    void testInvalidRow() {
+        assertThrows(IndexOutOfBoundsException.class, () -> table.airLock(5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        table = null;
+    }
+}
@@ -0,0 +1,119 @@
+package test;
+
+import airlock.async.AsyncAirLock;
+import airlock.entities.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestAsyncAirLock {
+
+    ExecutorService executor;
+    IPressureSensor lockSensor;
+
+    @BeforeEach
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(2);
+    }
+
+    private AsyncAirLock newAsyncAirLock(long doorMillis, long pumpMillis) throws Exception {
+        lockSensor = new PressureSensor(1.0);
+        IDoor outerDoor = new Door(new PressureSensor(0.0), lockSensor, DoorState.CLOSED);
+        IDoor innerDoor = new Door(new PressureSensor(1.0), lockSensor, DoorState.CLOSED);
+        return new AsyncAirLock(new AirLock(outerDoor, innerDoor, lockSensor), executor, doorMillis, pumpMillis);
+    }
+
+    // Ensure that commands complete with their result codes in order
+    @Test
+    void testCommandsInOrder() throws Exception {
+        AsyncAirLock airLock = newAsyncAirLock(0, 0);
+        CompletableFuture<AirLockResult> open = airLock.openInnerDoor();
+        CompletableFuture<AirLockResult> openAgain = airLock.openInnerDoor();
+        CompletableFuture<AirLockResult> close = airLock.closeInnerDoor();
+        assertEquals(AirLockResult.OK, open.get());
+        assertEquals(AirLockResult.INNER_DOOR_ALREADY_OPEN, openAgain.get());
+        assertEquals(AirLockResult.OK, close.get());
+        assertTrue(airLock.getAirLock().isSealed());
+    }
+
+    // Ensure that the AUTO mode sequence closes, equalises and opens
+    @Test
+    void testAutoModeSequence() throws Exception {
+        AsyncAirLock airLock = newAsyncAirLock(5, 5);
+        airLock.toggleOperationMode();
+        airLock.openInnerDoor();
+        assertEquals(AirLockResult.OK, airLock.openOuterDoor().get(5, TimeUnit.SECONDS));
+        assertTrue(airLock.getAirLock().isInnerDoorClosed());
+        assertFalse(airLock.getAirLock().isOuterDoorClosed());
+        assertEquals(0.0, lockSensor.getPressure());
+    }
+
+    // Ensure that opening a door already open is rejected the same way in both modes
+    @Test
+    void testOpenDoorAlreadyOpen() throws Exception {
+        AsyncAirLock airLock = newAsyncAirLock(0, 0);
+        assertEquals(AirLockResult.OK, airLock.openInnerDoor().get());
+        assertEquals(AirLockResult.INNER_DOOR_ALREADY_OPEN, airLock.openInnerDoor().get());
+        airLock.closeInnerDoor();
+        airLock.equaliseWithEnvironmentPressure();
+        assertEquals(AirLockResult.OK, airLock.openOuterDoor().get());
+        assertEquals(AirLockResult.OUTER_DOOR_ALREADY_OPEN, airLock.openOuterDoor().get());
+        airLock.closeOuterDoor();
+
+        airLock.toggleOperationMode();
+        assertEquals(AirLockResult.OK, airLock.openOuterDoor().get());
+        assertEquals(AirLockResult.OUTER_DOOR_ALREADY_OPEN, airLock.openOuterDoor().get());
+        assertEquals(AirLockResult.OK, airLock.openInnerDoor().get());
+        assertEquals(AirLockResult.INNER_DOOR_ALREADY_OPEN, airLock.openInnerDoor().get());
+        assertTrue(airLock.getAirLock().isOuterDoorClosed());
+        assertEquals(1.0, lockSensor.getPressure());
+    }
+
+    // Ensure that a rejected step ends the sequence with its result
+    @Test
+    void testRejectedStep() throws Exception {
+        AsyncAirLock airLock = newAsyncAirLock(0, 0);
+        assertEquals(AirLockResult.OUTER_DOOR_PRESSURE_NOT_EQUAL, airLock.openOuterDoor().get());
+        assertEquals(AirLockResult.NOT_SEALED,
+                airLock.openInnerDoor().thenCompose(result -> airLock.toggleOperationMode()).get());
+    }
+
+    // Ensure that many airlocks sequence concurrently without a thread each
+    @Test
+    void testManyAirLocksShareThreads() throws Exception {
+        List<CompletableFuture<AirLockResult>> results = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int i = 0; i < 200; i++) {
+            AsyncAirLock airLock = newAsyncAirLock(50, 50);
+            airLock.toggleOperationMode();
+            results.add(airLock.openOuterDoor());
+        }
+        for (CompletableFuture<AirLockResult> result : results) {
+            assertEquals(AirLockResult.OK, result.get(10, TimeUnit.SECONDS));
+        }
+        // 200 sequences of 100ms on 2 threads would take 10s if each held a thread
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+    }
+
+    // Ensure that invalid arguments are rejected
+    @Test
+    void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new AsyncAirLock(null, executor, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> newAsyncAirLock(-1, 0));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        executor = null;
+    }
+}
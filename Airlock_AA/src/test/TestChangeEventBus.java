@@ -0,0 +1,229 @@
+package test;
+
+import airlock.entities.AirLockAssembly;
+import airlock.entities.Door;
+import airlock.entities.DoorState;
+import airlock.entities.IDoor;
+import airlock.entities.IPressureSensor;
+import airlock.entities.PressureSensor;
+import airlock.events.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestChangeEventBus {
+
+    ChangeEventBus bus;
+
+    // Records events on its own thread, read once the bus has closed
+    static class RecordingListener implements IChangeListener {
+        final List<String> events = new ArrayList<>();
+        final List<Long> sources = new ArrayList<>();
+        final List<Double> values = new ArrayList<>();
+        int batches;
+
+        @Override
+        public void onChange(ChangeEventType type, long sourceId, double value) {
+            events.add(type + " " + sourceId);
+            sources.add(sourceId);
+            values.add(value);
+        }
+
+        @Override
+        public void onBatchEnd() {
+            batches++;
+        }
+    }
+
+    @BeforeEach
+    public void setUp() {
+        bus = new ChangeEventBus(16);
+    }
+
+    // Ensure that sensor and door changes reach a subscriber in order
+    @Test
+    void testSensorAndDoorEvents() throws Exception {
+        RecordingListener listener = new RecordingListener();
+        bus.subscribe(listener);
+        bus.start();
+
+        IPressureSensor sensor = new ObservablePressureSensor(1, new PressureSensor(1.0), bus);
+        IDoor door = new ObservableDoor(2, new Door(new PressureSensor(1.0), sensor, DoorState.CLOSED), bus);
+        sensor.setPressure(1.0);
+        door.open();
+        sensor.setPressure(0.5);
+        assertThrows(Exception.class, door::open);
+        door.close();
+        bus.close();
+
+        assertEquals(List.of("DOOR_OPENED 2", "PRESSURE_CHANGED 1", "DOOR_CLOSED 2"), listener.events);
+        assertEquals(0.5, listener.values.get(1));
+        assertTrue(listener.batches >= 1 && listener.batches <= 3);
+    }
+
+    // Ensure that an assembly publishes door moves and pressure flowing through its open doors
+    @Test
+    void testAssemblyEvents() throws Exception {
+        RecordingListener listener = new RecordingListener();
+        bus.subscribe(listener);
+        bus.start();
+
+        AirLockAssembly assembly = new AirLockAssembly(0.5, 1.0, 1.0);
+        new ObservableAssembly(10, assembly, bus);
+        assembly.getAirLock().openInnerDoor();
+        assembly.setInteriorPressure(0.75);
+        assembly.getAirLock().closeInnerDoor();
+        assembly.getAirLock().tryOpenInnerDoor();
+        bus.close();
+
+        assertEquals("DOOR_OPENED 14", listener.events.get(0));
+        assertEquals(Set.of("PRESSURE_CHANGED 11", "PRESSURE_CHANGED 12"), Set.copyOf(listener.events.subList(1, 3)));
+        assertEquals(List.of(0.75, 0.75), listener.values.subList(1, 3));
+        assertEquals(List.of("DOOR_CLOSED 14", "DOOR_OPENED 14"), listener.events.subList(3, 5));
+        assertEquals(5, listener.events.size());
+    }
+
+    // Ensure that a wrapped sensor's changes are published even when set on the sensor itself
+    @Test
+    void testWrappedSensorChangesPublished() throws Exception {
+        RecordingListener listener = new RecordingListener();
+        bus.subscribe(listener);
+        bus.start();
+
+        PressureSensor inner = new PressureSensor(1.0);
+        IPressureSensor sensor = new ObservablePressureSensor(1, inner, bus);
+        inner.setPressure(0.5);
+        sensor.setPressure(0.25);
+        sensor.setPressure(0.25);
+        bus.close();
+
+        assertEquals(List.of("PRESSURE_CHANGED 1", "PRESSURE_CHANGED 1"), listener.events);
+        assertEquals(List.of(0.5, 0.25), listener.values);
+    }
+
+    // Ensure that every subscriber sees every event from concurrent producers,
+    // in each producer's order, even when the ring wraps many times
+    @Test
+    void testConcurrentFanOut() throws Exception {
+        RecordingListener first = new RecordingListener();
+        RecordingListener second = new RecordingListener();
+        bus.subscribe(first);
+        bus.subscribe(second);
+        bus.start();
+
+        int producers = 4;
+        int perProducer = 10_000;
+        Thread[] threads = new Thread[producers];
+        for (int p = 0; p < producers; p++) {
+            long source = p;
+            threads[p] = new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    bus.publish(ChangeEventType.PRESSURE_CHANGED, source, i);
+                }
+            });
+            threads[p].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        bus.close();
+
+        for (RecordingListener listener : List.of(first, second)) {
+            assertEquals(producers * perProducer, listener.sources.size());
+            double[] last = new double[producers];
+            Arrays.fill(last, -1);
+            for (int i = 0; i < listener.sources.size(); i++) {
+                int source = listener.sources.get(i).intValue();
+                assertEquals(last[source] + 1, listener.values.get(i));
+                last[source] = listener.values.get(i);
+            }
+        }
+        assertEquals(producers * perProducer, bus.getPublishedCount());
+    }
+
+    // Ensure that a failing listener is counted and does not stop the others
+    @Test
+    void testFailingListener() throws Exception {
+        RecordingListener listener = new RecordingListener();
+        bus.subscribe(new IChangeListener() {
+            @Override
+            public void onChange(ChangeEventType type, long sourceId, double value) {
+                throw new IllegalStateException("broken dashboard");
+            }
+
+            @Override
+            public void onBatchEnd() {
+            }
+        });
+        bus.subscribe(listener);
+        bus.start();
+        for (int i = 0; i < 100; i++) {
+            bus.publish(ChangeEventType.DOOR_OPENED, i, 0.0);
+        }
+        bus.close();
+
+        assertEquals(100, listener.events.size());
+        assertEquals(100, bus.getListenerErrorCount());
+    }
+
+    // Ensure that the bus enforces its lifecycle
+    @Test
+    void testLifecycle() throws Exception {
+        assertThrows(IllegalArgumentException.class, () -> new ChangeEventBus(12));
+        assertThrows(IllegalStateException.class, () -> bus.publish(ChangeEventType.DOOR_OPENED, 1, 0.0));
+        bus.start();
+        assertThrows(IllegalStateException.class, () -> bus.subscribe(new RecordingListener()));
+        bus.close();
+        assertEquals(-1, bus.publish(ChangeEventType.DOOR_OPENED, 1, 0.0));
+        assertEquals(1, bus.getDroppedCount());
+    }
+
+    // Ensure that a closed bus drops events instead of failing the command that changed the assembly
+    @Test
+    void testClosedBusKeepsAssemblyConsistent() throws Exception {
+        bus.start();
+        AirLockAssembly assembly = new AirLockAssembly(1.0, 1.0, 1.0);
+        new ObservableAssembly(10, assembly, bus);
+        assembly.getAirLock().openOuterDoor();
+        bus.close();
+
+        assembly.setExteriorPressure(0.2);
+        assertEquals(0.2, assembly.getLockSensor().getPressure());
+        assertFalse(assembly.getInteriorDoor().isPressureEqual());
+        assembly.getAirLock().closeOuterDoor();
+        assembly.setExteriorPressure(0.0);
+        assertEquals(0.2, assembly.getLockSensor().getPressure());
+        assertTrue(bus.getDroppedCount() >= 3);
+    }
+
+    // Ensure that a detached assembly publishes nothing more
+    @Test
+    void testDetachedAssembly() throws Exception {
+        RecordingListener listener = new RecordingListener();
+        bus.subscribe(listener);
+        bus.start();
+
+        AirLockAssembly assembly = new AirLockAssembly(0.5, 1.0, 1.0);
+        ObservableAssembly observed = new ObservableAssembly(10, assembly, bus);
+        assembly.getAirLock().openInnerDoor();
+        observed.detach();
+        assembly.setInteriorPressure(0.75);
+        assembly.getAirLock().closeInnerDoor();
+        bus.close();
+
+        assertEquals(List.of("DOOR_OPENED 14"), listener.events);
+    }
+
+    @AfterEach
+    void tearDown() {
+        bus.close();
+        bus = null;
+    }
+}
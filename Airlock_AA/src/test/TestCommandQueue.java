@@ -0,0 +1,193 @@
+package test;
+
+import airlock.entities.*;
+import airlock.exceptions.DoorException;
+import airlock.exceptions.PressureException;
+import airlock.fleet.AirLockFleet;
+import airlock.fleet.CommandQueue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestCommandQueue {
+
+    AirLock airLock;
+    IPressureSensor lockSensor;
+    CommandQueue queue;
+
+    @BeforeEach
+    public void setUp() throws PressureException, DoorException {
+        lockSensor = new PressureSensor(1.0);
+        IDoor outerDoor = new Door(new PressureSensor(0.0), lockSensor, DoorState.CLOSED);
+        IDoor innerDoor = new Door(new PressureSensor(0.5), lockSensor, DoorState.CLOSED);
+        airLock = new AirLock(outerDoor, innerDoor, lockSensor);
+        queue = new CommandQueue(airLock);
+    }
+
+    // Ensure that repeated commands are deduplicated
+    @Test
+    void testRepeatedCommandsCoalesced() {
+        assertTrue(queue.submit(AirLockCommand.EQUALISE_ENVIRONMENT));
+        assertFalse(queue.submit(AirLockCommand.EQUALISE_ENVIRONMENT));
+        assertFalse(queue.submit(AirLockCommand.OPEN_OUTER));
+        queue.submit(AirLockCommand.OPEN_OUTER);
+        queue.submit(AirLockCommand.OPEN_OUTER);
+        assertEquals(2, queue.size());
+        assertEquals(3, queue.getCoalescedCount());
+
+        assertEquals(2, queue.drain());
+        assertFalse(airLock.isOuterDoorClosed());
+        assertEquals(0, queue.getRejectedCount());
+    }
+
+    // Ensure that a later equalise supersedes an earlier one
+    @Test
+    void testEqualiseSuperseded() {
+        queue.submit(AirLockCommand.EQUALISE_ENVIRONMENT);
+        queue.submit(AirLockCommand.EQUALISE_CABIN);
+        assertEquals(1, queue.size());
+        queue.drain();
+        assertEquals(0.5, lockSensor.getPressure());
+    }
+
+    // Ensure that two toggles cancel out
+    @Test
+    void testTogglesCancel() {
+        queue.submit(AirLockCommand.TOGGLE_MODE);
+        queue.submit(AirLockCommand.TOGGLE_MODE);
+        queue.submit(AirLockCommand.TOGGLE_MODE);
+        assertEquals(1, queue.size());
+        queue.drain();
+        assertTrue(airLock.isInAutoMode());
+    }
+
+    // Ensure that commands which are not redundant keep their order
+    @Test
+    void testOrderKept() {
+        queue.submit(AirLockCommand.EQUALISE_CABIN);
+        queue.submit(AirLockCommand.OPEN_INNER);
+        queue.submit(AirLockCommand.CLOSE_INNER);
+        queue.submit(AirLockCommand.OPEN_OUTER);
+        assertEquals(4, queue.drain());
+        assertEquals(4, queue.getExecutedCount());
+        assertEquals(1, queue.getRejectedCount());
+        assertTrue(airLock.isInnerDoorClosed());
+        assertEquals(0, queue.drain());
+    }
+
+    // Ensure that the fleet drains queued commands on the airlock's shard
+    @Test
+    void testFleetEnqueue() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        try (AirLockFleet fleet = new AirLockFleet(1)) {
+            fleet.register(1, airLock);
+            blockShard(fleet, release);
+            for (int i = 0; i < 100; i++) {
+                fleet.enqueue(1, AirLockCommand.EQUALISE_CABIN);
+            }
+            fleet.enqueue(1, AirLockCommand.OPEN_OUTER);
+            release.countDown();
+            fleet.submit(1, AirLockCommand.EQUALISE_CABIN).get();
+            assertEquals(101, fleet.getQueue(1).getSubmittedCount());
+            assertEquals(99, fleet.getQueue(1).getCoalescedCount());
+            assertEquals(2, fleet.getQueue(1).getExecutedCount());
+        }
+        assertEquals(0.5, lockSensor.getPressure());
+    }
+
+    // Ensure that queued and submitted commands for one airlock run in the order they were handed to the fleet
+    @Test
+    void testFleetEnqueueSubmitOrder() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CommandQueue fleetQueue;
+        try (AirLockFleet fleet = new AirLockFleet(1)) {
+            fleet.register(1, airLock);
+            blockShard(fleet, release);
+            fleet.enqueue(1, AirLockCommand.EQUALISE_ENVIRONMENT);
+            fleet.submit(1, AirLockCommand.EQUALISE_CABIN);
+            fleet.enqueue(1, AirLockCommand.EQUALISE_ENVIRONMENT);
+            fleetQueue = fleet.getQueue(1);
+            release.countDown();
+        }
+        assertEquals(0.0, lockSensor.getPressure());
+        assertEquals(2, fleetQueue.getExecutedCount());
+    }
+
+    // Ensure that toggles cancelling out before a submit do not let later queued commands overtake it
+    @Test
+    void testFleetCancelledRunKeepsOrder() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        try (AirLockFleet fleet = new AirLockFleet(1)) {
+            fleet.register(1, airLock);
+            blockShard(fleet, release);
+            fleet.enqueue(1, AirLockCommand.TOGGLE_MODE);
+            fleet.enqueue(1, AirLockCommand.TOGGLE_MODE);
+            fleet.enqueue(1, AirLockCommand.EQUALISE_CABIN);
+            fleet.submit(1, AirLockCommand.EQUALISE_ENVIRONMENT);
+            fleet.enqueue(1, AirLockCommand.EQUALISE_CABIN);
+            release.countDown();
+        }
+        assertEquals(0.5, lockSensor.getPressure());
+        assertFalse(airLock.isInAutoMode());
+    }
+
+    // Ensure that a run emptied by coalescing keeps its drain and the next command waits for its own
+    @Test
+    void testBarrierAfterCancel() {
+        assertTrue(queue.submit(AirLockCommand.TOGGLE_MODE));
+        assertFalse(queue.submit(AirLockCommand.TOGGLE_MODE));
+        assertFalse(queue.submit(AirLockCommand.EQUALISE_CABIN));
+        queue.barrier();
+        assertTrue(queue.submit(AirLockCommand.EQUALISE_ENVIRONMENT));
+        assertEquals(1, queue.drain());
+        assertEquals(0.5, lockSensor.getPressure());
+        assertEquals(1, queue.drain());
+        assertEquals(0.0, lockSensor.getPressure());
+    }
+
+    // Ensure that a barrier stops a drain at the commands pending when it was set
+    @Test
+    void testBarrier() {
+        assertTrue(queue.submit(AirLockCommand.EQUALISE_ENVIRONMENT));
+        queue.barrier();
+        assertTrue(queue.submit(AirLockCommand.EQUALISE_CABIN));
+        assertFalse(queue.submit(AirLockCommand.TOGGLE_MODE));
+        assertEquals(3, queue.size());
+        assertEquals(1, queue.drain());
+        assertEquals(0.0, lockSensor.getPressure());
+        assertEquals(2, queue.drain());
+        assertEquals(0.5, lockSensor.getPressure());
+        assertTrue(airLock.isInAutoMode());
+    }
+
+    private static void blockShard(AirLockFleet fleet, CountDownLatch release) throws Exception {
+        // Parks the fleet's only shard on an airlock whose lock sensor waits for the latch
+        IPressureSensor blockingSensor = new IPressureSensor() {
+            public double getPressure() {
+                return 1.0;
+            }
+
+            public void setPressure(double newPressure) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        IDoor outerDoor = new Door(new PressureSensor(1.0), blockingSensor, DoorState.CLOSED);
+        IDoor innerDoor = new Door(new PressureSensor(1.0), blockingSensor, DoorState.CLOSED);
+        fleet.register(2, new AirLock(outerDoor, innerDoor, blockingSensor));
+        fleet.submit(2, AirLockCommand.EQUALISE_CABIN);
+    }
+
+    @AfterEach
+    void tearDown() {
+        airLock = null;
+        queue = null;
+    }
+}
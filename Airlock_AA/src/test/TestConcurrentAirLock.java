@@ -0,0 +1,153 @@
+package test;
+
+import airlock.entities.*;
+import airlock.exceptions.AirLockException;
+import airlock.exceptions.PressureException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestConcurrentAirLock {
+
+    IAirLock airLock;
+    static IPressureSensor exteriorSensor;
+    static IPressureSensor lockSensor;
+    static IPressureSensor interiorSensor;
+
+    @BeforeEach
+    public void setUp() throws PressureException, AirLockException {
+        exteriorSensor = new PressureSensor(0.0);
+        lockSensor = new PressureSensor(1.0);
+        interiorSensor = new PressureSensor(1.0);
+        airLock = new ConcurrentAirLock(exteriorSensor, lockSensor, interiorSensor,
+                DoorState.CLOSED, DoorState.CLOSED);
+    }
+
+    // Ensure that a new airlock with both doors closed is SEALED and in MANUAL mode
+    @Test
+    void testInitialState() {
+        assertTrue(airLock.isSealed());
+        assertTrue(airLock.isInManualMode());
+        assertTrue(airLock.isOuterDoorClosed());
+        assertTrue(airLock.isInnerDoorClosed());
+    }
+
+    // Ensure that the constructor rejects both doors open
+    @Test
+    void testConstructorBothDoorsOpen() {
+        assertThrows(AirLockException.class, () -> new ConcurrentAirLock(
+                interiorSensor, lockSensor, interiorSensor, DoorState.OPEN, DoorState.OPEN));
+    }
+
+    // Ensure that MANUAL mode rejects opening a door across unequal pressures
+    @Test
+    void testManualOpenUnequalPressure() {
+        assertThrows(AirLockException.class, () -> airLock.openOuterDoor());
+        assertTrue(airLock.isSealed());
+    }
+
+    // Ensure that MANUAL mode never opens a door while the other is open
+    @Test
+    void testManualOpenWithOtherDoorOpen() throws AirLockException, PressureException {
+        exteriorSensor.setPressure(1.0);
+        airLock.openInnerDoor();
+        assertThrows(AirLockException.class, () -> airLock.openOuterDoor());
+        assertTrue(airLock.isOuterDoorClosed());
+    }
+
+    // Ensure that AUTO mode closes the inner door, equalises and opens the outer door
+    @Test
+    void testAutoOpenOuterDoor() throws AirLockException {
+        airLock.toggleOperationMode();
+        airLock.openInnerDoor();
+        airLock.openOuterDoor();
+        assertFalse(airLock.isOuterDoorClosed());
+        assertTrue(airLock.isInnerDoorClosed());
+        assertTrue(airLock.isUnsealed());
+        assertEquals(0.0, lockSensor.getPressure());
+    }
+
+    // Ensure that an unchecked exception from the lock sensor during an AUTO open does not leave the airlock busy
+    @Test
+    void testAutoOpenSensorFailureReleasesAirLock() throws Exception {
+        IPressureSensor failingSensor = new IPressureSensor() {
+            public double getPressure() {
+                return 1.0;
+            }
+
+            public void setPressure(double newPressure) {
+                throw new IllegalStateException("Sensor offline");
+            }
+        };
+        airLock = new ConcurrentAirLock(exteriorSensor, failingSensor, interiorSensor,
+                DoorState.CLOSED, DoorState.CLOSED);
+        airLock.toggleOperationMode();
+        assertThrows(IllegalStateException.class, () -> airLock.openOuterDoor());
+        assertTrue(airLock.isOuterDoorClosed());
+
+        // The next command must not wait on the failed one
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> airLock.toggleOperationMode());
+        assertTrue(airLock.isInManualMode());
+    }
+
+    // Ensure that equalising and toggling mode require the airlock to be SEALED
+    @Test
+    void testUnsealedOperationsRejected() throws AirLockException {
+        airLock.openInnerDoor();
+        assertThrows(AirLockException.class, () -> airLock.equaliseWithEnvironmentPressure());
+        assertThrows(AirLockException.class, () -> airLock.toggleOperationMode());
+    }
+
+    // Ensure that closing an already closed door throws an AirLockException
+    @Test
+    void testCloseClosedDoor() {
+        assertThrows(AirLockException.class, () -> airLock.closeOuterDoor());
+    }
+
+    // Ensure that concurrent control threads never leave both doors open
+    @Test
+    void testConcurrentCommandsNeverOpenBothDoors() throws Exception {
+        ConcurrentAirLock airLock = (ConcurrentAirLock) this.airLock;
+        airLock.toggleOperationMode();
+        AtomicBoolean bothOpen = new AtomicBoolean(false);
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            Random random = new Random(t);
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 20000; i++) {
+                    try {
+                        switch (random.nextInt(4)) {
+                            case 0: airLock.openOuterDoor(); break;
+                            case 1: airLock.openInnerDoor(); break;
+                            case 2: airLock.closeOuterDoor(); break;
+                            default: airLock.closeInnerDoor(); break;
+                        }
+                    } catch (AirLockException e) {
+                        // rejected commands are expected under contention
+                    }
+                    if (airLock.areBothDoorsOpen()) {
+                        bothOpen.set(true);
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertFalse(bothOpen.get());
+    }
+
+    @AfterEach
+    void tearDown() {
+        exteriorSensor = null;
+        lockSensor = null;
+        interiorSensor = null;
+    }
+}
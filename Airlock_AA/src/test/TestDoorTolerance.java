@@ -0,0 +1,127 @@
+package test;
+
+import airlock.entities.AirLockAssembly;
+import airlock.entities.Door;
+import airlock.entities.DoorState;
+import airlock.entities.IAirLock;
+import airlock.entities.IPressureSensor;
+import airlock.entities.PressureSensor;
+import airlock.entities.PressureTolerance;
+import airlock.exceptions.DoorException;
+import airlock.exceptions.PressureException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestDoorTolerance {
+
+    PressureSensor exSensor;
+    PressureSensor inSensor;
+
+    @BeforeEach
+    public void setUp() throws PressureException {
+        exSensor = new PressureSensor(1.0);
+        inSensor = new PressureSensor(1.0);
+    }
+
+    // Ensure that the default tolerance is the same as Door.TOLERANCE with no hysteresis
+    @Test
+    void testDefaultTolerance() throws Exception {
+        Door door = new Door(exSensor, inSensor, DoorState.CLOSED);
+        assertEquals(Door.TOLERANCE, door.getTolerance().getTolerance());
+        assertEquals(0.0, door.getTolerance().getHysteresis());
+
+        exSensor.setPressure(1.0005);
+        assertTrue(door.isPressureEqual());
+        exSensor.setPressure(1.002);
+        assertFalse(door.isPressureEqual());
+        assertThrows(DoorException.class, () -> door.open());
+    }
+
+    // Ensure that pressures only stop being equal once they pass the tolerance plus the hysteresis
+    @Test
+    void testHysteresis() throws Exception {
+        Door door = new Door(exSensor, inSensor, DoorState.CLOSED, new PressureTolerance(0.01, 0.02));
+        exSensor.setPressure(1.02);
+        assertTrue(door.isPressureEqual());
+        exSensor.setPressure(1.05);
+        assertFalse(door.isPressureEqual());
+        exSensor.setPressure(1.005);
+        assertTrue(door.isPressureEqual());
+
+        // Noise past the tolerance but inside the hysteresis keeps the door eligible
+        exSensor.setPressure(1.025);
+        assertTrue(door.isPressureEqual());
+        exSensor.setPressure(0.975);
+        assertTrue(door.isPressureEqual());
+
+        exSensor.setPressure(1.04);
+        assertFalse(door.isPressureEqual());
+        // Back inside the hysteresis is not enough, it has to come within the tolerance
+        exSensor.setPressure(1.02);
+        assertFalse(door.isPressureEqual());
+        assertThrows(DoorException.class, () -> door.open());
+        exSensor.setPressure(1.008);
+        door.open();
+        assertTrue(door.isOpen());
+    }
+
+    // Ensure that a door is told of changes even when the sensor also has a dirty listener
+    @Test
+    void testDirtyListenerDoesNotReplaceDoor() throws Exception {
+        int[] dirty = new int[1];
+        Door door = new Door(exSensor, inSensor, DoorState.CLOSED);
+        exSensor.setDirtyListener(() -> dirty[0]++);
+        inSensor.setPressure(2.0);
+        exSensor.setPressure(2.0);
+        assertTrue(door.isPressureEqual());
+        assertEquals(1, dirty[0]);
+    }
+
+    // Ensure that doors over sensors that do not report changes read them on each open
+    @Test
+    void testSensorWithoutNotifications() throws Exception {
+        double[] pressure = { 1.0 };
+        IPressureSensor polled = new IPressureSensor() {
+            public double getPressure() {
+                return pressure[0];
+            }
+
+            public void setPressure(double newPressure) {
+                pressure[0] = newPressure;
+            }
+        };
+        Door door = new Door(polled, inSensor, DoorState.CLOSED, new PressureTolerance(0.01, 0.02));
+        pressure[0] = 1.5;
+        assertThrows(DoorException.class, () -> door.open());
+        pressure[0] = 1.0;
+        door.open();
+        assertTrue(door.isOpen());
+    }
+
+    // Ensure that an assembly applies its tolerance to both doors and to the airlock rules
+    @Test
+    void testAssemblyTolerance() throws Exception {
+        AirLockAssembly assembly = new AirLockAssembly(1.0, 1.0, 1.0, new PressureTolerance(0.01, 0.05));
+        IAirLock airLock = assembly.getAirLock();
+        assembly.setExteriorPressure(1.04);
+        assertTrue(assembly.getExteriorDoor().isPressureEqual());
+        airLock.openOuterDoor();
+        assertFalse(airLock.isOuterDoorClosed());
+        airLock.closeOuterDoor();
+
+        assembly.setInteriorPressure(1.2);
+        assertFalse(assembly.getInteriorDoor().isPressureEqual());
+        assertThrows(Exception.class, () -> airLock.openInnerDoor());
+    }
+
+    // Ensure that invalid tolerances are rejected
+    @Test
+    void testInvalidTolerance() {
+        assertThrows(IllegalArgumentException.class, () -> new PressureTolerance(-0.1, 0.0));
+        assertThrows(IllegalArgumentException.class, () -> new PressureTolerance(0.1, Double.NaN));
+        assertThrows(IllegalArgumentException.class, () -> new PressureTolerance(Double.POSITIVE_INFINITY, 0.0));
+        assertThrows(DoorException.class, () -> new Door(exSensor, inSensor, DoorState.CLOSED, null));
+    }
+}
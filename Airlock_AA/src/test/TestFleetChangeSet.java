@@ -0,0 +1,193 @@
+package test;
+
+import airlock.entities.*;
+import airlock.fleet.AirLockFleet;
+import airlock.fleet.AirLockRegistry;
+import airlock.fleet.FleetChangeSet;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestFleetChangeSet {
+
+    AirLockFleet fleet;
+    AirLockAssembly[] assemblies;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        fleet = new AirLockFleet(1);
+        assemblies = new AirLockAssembly[3];
+        for (int i = 0; i < assemblies.length; i++) {
+            assemblies[i] = new AirLockAssembly(1.0, 1.0, 1.0);
+            fleet.register(i, assemblies[i]);
+        }
+    }
+
+    private List<Long> changedSince(long version, long[] newVersion) {
+        List<Long> ids = new ArrayList<>();
+        newVersion[0] = fleet.changedSince(version, ids::add);
+        return ids;
+    }
+
+    // Ensure that only airlocks changed since the version are returned
+    @Test
+    void testChangedSince() throws Exception {
+        long[] version = new long[1];
+        assertEquals(List.of(0L, 1L, 2L), changedSince(0, version));
+        assertEquals(List.of(), changedSince(version[0], version));
+
+        assemblies[1].getAirLock().openOuterDoor();
+        assemblies[1].getAirLock().closeOuterDoor();
+        assemblies[2].setInteriorPressure(0.5);
+        assertEquals(List.of(1L, 2L), changedSince(version[0], version));
+
+        assemblies[0].getAirLock().toggleOperationMode();
+        assertEquals(List.of(0L), changedSince(version[0], version));
+    }
+
+    // Ensure that rejected commands do not mark an airlock dirty
+    @Test
+    void testRejectedCommandClean() throws Exception {
+        long version = fleet.changedSince(0, id -> { });
+        assemblies[0].getAirLock().tryCloseOuterDoor();
+        assertEquals(List.of(), changedSince(version, new long[1]));
+    }
+
+    // Ensure that readers at different versions each see their own changes
+    @Test
+    void testIndependentReaders() throws Exception {
+        long first = fleet.changedSince(0, id -> { });
+        assemblies[0].setExteriorPressure(0.5);
+        long second = fleet.changedSince(first, id -> { });
+        assemblies[2].setExteriorPressure(0.5);
+        assemblies[0].setExteriorPressure(0.25);
+
+        assertEquals(List.of(2L, 0L), changedSince(first, new long[1]));
+        assertEquals(List.of(2L, 0L), changedSince(second, new long[1]));
+        // A full read lists every airlock once, in the order of their last change
+        assertEquals(List.of(1L, 2L, 0L), changedSince(0, new long[1]));
+    }
+
+    // Ensure that an unregistered airlock is reported once more
+    @Test
+    void testUnregister() throws Exception {
+        long version = fleet.changedSince(0, id -> { });
+        fleet.unregister(1);
+        assertEquals(List.of(1L), changedSince(version, new long[1]));
+        assertNull(fleet.get(1));
+    }
+
+    // Ensure that tracking and untracking airlocks does not grow the change log
+    @Test
+    void testTrackChurnBoundsLog() {
+        FleetChangeSet changes = new FleetChangeSet();
+        long version = 0;
+        for (long id = 0; id < 10_000; id++) {
+            changes.track(id);
+            changes.untrack(id);
+            if (id % 10 == 0) {
+                version = changes.changedSince(version, changed -> { });
+            }
+        }
+        assertTrue(changes.getLogSize() <= 64);
+        List<Long> ids = new ArrayList<>();
+        changes.changedSince(version, ids::add);
+        assertEquals(List.of(9991L, 9992L, 9993L, 9994L, 9995L, 9996L, 9997L, 9998L, 9999L), ids);
+        assertEquals(0, changes.size());
+    }
+
+    // Ensure that an airlock registered again before its removal was read is reported once
+    @Test
+    void testRetrackReportedOnce() {
+        FleetChangeSet changes = new FleetChangeSet();
+        changes.track(1);
+        long version = changes.changedSince(0, id -> { });
+        changes.untrack(1);
+        changes.track(1).markDirty();
+        List<Long> ids = new ArrayList<>();
+        changes.changedSince(version, ids::add);
+        assertEquals(List.of(1L), ids);
+    }
+
+    // Ensure that the change log stays correct across many epochs of churn
+    @Test
+    void testManyEpochs() {
+        FleetChangeSet changes = new FleetChangeSet();
+        IDirtyListener[] trackers = new IDirtyListener[100];
+        for (int i = 0; i < trackers.length; i++) {
+            trackers[i] = changes.track(i);
+        }
+        long version = changes.changedSince(0, id -> { });
+        for (int round = 0; round < 1000; round++) {
+            trackers[round % 100].markDirty();
+            trackers[(round * 7) % 100].markDirty();
+            List<Long> ids = new ArrayList<>();
+            version = changes.changedSince(version, ids::add);
+            assertTrue(ids.contains((long) (round % 100)));
+            assertTrue(ids.contains((long) ((round * 7) % 100)));
+            assertTrue(ids.size() <= 2);
+        }
+        List<Long> all = new ArrayList<>();
+        changes.changedSince(0, all::add);
+        assertEquals(100, all.size());
+    }
+
+    // Ensure that sensors and doors only report actual changes
+    @Test
+    void testEntityDirtyBits() throws Exception {
+        int[] marks = new int[1];
+        PressureSensor sensor = new PressureSensor(1.0);
+        sensor.setDirtyListener(() -> marks[0]++);
+        sensor.setPressure(1.0);
+        assertEquals(0, marks[0]);
+        sensor.setPressure(0.5);
+        assertEquals(1, marks[0]);
+
+        Door door = new Door(new PressureSensor(0.5), sensor, DoorState.CLOSED);
+        door.setDirtyListener(() -> marks[0]++);
+        door.open();
+        assertThrows(Exception.class, door::open);
+        assertEquals(2, marks[0]);
+    }
+
+    // Ensure that registering with the fleet keeps a registry already listening to the assembly up to date
+    @Test
+    void testFleetAndRegistryBothTrack() throws Exception {
+        AirLockAssembly assembly = new AirLockAssembly(1.0, 1.0, 1.0);
+        AirLockRegistry registry = new AirLockRegistry();
+        registry.register(7, assembly);
+        fleet.register(7, assembly);
+        long version = fleet.changedSince(0, id -> { });
+
+        assembly.getAirLock().openOuterDoor();
+        assertEquals(1, registry.countUnsealed());
+        assertEquals(List.of(7L), changedSince(version, new long[1]));
+    }
+
+    // Ensure that unregistering detaches the fleet's tracker and leaves other listeners in place
+    @Test
+    void testUnregisterDetachesTracker() throws Exception {
+        int[] marks = new int[1];
+        IDirtyListener other = () -> marks[0]++;
+        assemblies[0].addDirtyListener(other);
+        fleet.unregister(0);
+        fleet.register(0, assemblies[0]);
+        fleet.unregister(0);
+        assertSame(other, assemblies[0].getDirtyListener());
+        assertSame(other, assemblies[0].getTopology().getDirtyListener());
+
+        assemblies[0].setExteriorPressure(0.5);
+        assertEquals(1, marks[0]);
+    }
+
+    @AfterEach
+    void tearDown() {
+        fleet.close();
+        fleet = null;
+    }
+}
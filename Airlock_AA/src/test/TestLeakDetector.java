@@ -0,0 +1,117 @@
+package test;
+
+import airlock.entities.AirLockAssembly;
+import airlock.telemetry.LeakDetector;
+import airlock.telemetry.SensorPosition;
+import airlock.telemetry.TelemetryPipeline;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestLeakDetector {
+
+    static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    List<Long> leaks;
+    LeakDetector detector;
+
+    @BeforeEach
+    public void setUp() {
+        leaks = new ArrayList<>();
+        detector = new LeakDetector(0.05, 10 * SECOND,
+                (airLockId, baseline, pressure, elapsed) -> leaks.add(airLockId));
+    }
+
+    // Ensure that drift beyond the threshold within the window raises one alert
+    @Test
+    void testDriftRaisesAlert() {
+        detector.sample(1, 1.0, true, 0);
+        detector.sample(1, 0.97, true, 2 * SECOND);
+        assertTrue(leaks.isEmpty());
+        detector.sample(1, 0.94, true, 4 * SECOND);
+        detector.sample(1, 0.90, true, 6 * SECOND);
+        assertEquals(List.of(1L), leaks);
+        assertEquals(1, detector.getAlertCount());
+    }
+
+    // Ensure that drift spread over more than the window is not a leak
+    @Test
+    void testSlowDriftOutsideWindow() {
+        detector.sample(1, 1.0, true, 0);
+        detector.sample(1, 0.97, true, 11 * SECOND);
+        detector.sample(1, 0.94, true, 22 * SECOND);
+        assertTrue(leaks.isEmpty());
+    }
+
+    // Ensure that drift between two samples further apart than the window still raises an alert
+    @Test
+    void testDriftAcrossWindowRaisesAlert() {
+        detector.sample(1, 1.0, true, 0);
+        detector.sample(1, 0.5, true, 11 * SECOND);
+        assertEquals(List.of(1L), leaks);
+
+        // The window rolled to the new pressure, holding there raises nothing more
+        detector.sample(1, 0.5, true, 12 * SECOND);
+        assertEquals(1, detector.getAlertCount());
+    }
+
+    // Ensure that an accepted equalise on a watched airlock resets its baseline
+    @Test
+    void testEqualiseResetsWatchedBaseline() throws Exception {
+        AirLockAssembly assembly = new AirLockAssembly(0.0, 1.0, 1.0);
+        detector.watch(5, assembly);
+        detector.sample(5, 1.0, true, 0);
+        assembly.getAirLock().equaliseWithEnvironmentPressure();
+        detector.sample(5, 0.0, true, SECOND);
+        assertTrue(leaks.isEmpty());
+
+        detector.unwatch(5, assembly);
+        assembly.getAirLock().equaliseWithCabinPressure();
+        detector.sample(5, 1.0, true, 2 * SECOND);
+        assertEquals(List.of(5L), leaks);
+    }
+
+    // Ensure that unsealed airlocks and reset baselines do not raise alerts
+    @Test
+    void testUnsealedAndReset() {
+        detector.sample(1, 1.0, true, 0);
+        detector.sample(1, 0.5, false, SECOND);
+        detector.sample(1, 0.5, true, 2 * SECOND);
+        detector.reset(1);
+        detector.sample(1, 0.0, true, 3 * SECOND);
+        detector.sample(1, 0.0, true, 4 * SECOND);
+        assertTrue(leaks.isEmpty());
+    }
+
+    // Ensure that the telemetry pipeline feeds lock samples to the detector
+    @Test
+    void testPipelineFeedsDetector() throws Exception {
+        Map<Long, AirLockAssembly> airLocks = new HashMap<>();
+        airLocks.put(3L, new AirLockAssembly(1.0, 1.0, 1.0));
+        TelemetryPipeline pipeline = new TelemetryPipeline(airLocks, 16, 1);
+        pipeline.setLeakDetector(detector);
+        try {
+            pipeline.submit(3, SensorPosition.LOCK, 1.0);
+            pipeline.flush();
+            pipeline.submit(3, SensorPosition.LOCK, 0.8);
+            pipeline.flush();
+        } finally {
+            pipeline.close();
+        }
+        assertEquals(List.of(3L), leaks);
+    }
+
+    @AfterEach
+    void tearDown() {
+        detector = null;
+        leaks = null;
+    }
+}
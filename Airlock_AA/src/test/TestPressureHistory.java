@@ -0,0 +1,94 @@
+package test;
+
+import airlock.entities.PressureHistory;
+import airlock.entities.PressureSensor;
+import airlock.exceptions.PressureException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestPressureHistory {
+
+    PressureHistory history;
+
+    @BeforeEach
+    public void setUp() {
+        history = new PressureHistory(4);
+    }
+
+    // Ensure that statistics cover only the samples in the window
+    @Test
+    void testRollingStatistics() {
+        history.record(0, 5.0);
+        history.record(1_000_000_000L, 1.0);
+        history.record(2_000_000_000L, 3.0);
+        assertEquals(1.0, history.getMin());
+        assertEquals(5.0, history.getMax());
+        assertEquals(3.0, history.getMean(), 1e-9);
+
+        history.record(3_000_000_000L, 4.0);
+        history.record(4_000_000_000L, 2.0);
+        // 5.0 has dropped out of the window
+        assertEquals(4, history.size());
+        assertEquals(4.0, history.getMax());
+        assertEquals(1.0, history.getMin());
+        assertEquals(2.5, history.getMean(), 1e-9);
+        assertEquals(2.0, history.getLatest());
+        // from 1.0 at 1s to 2.0 at 4s
+        assertEquals(1.0 / 3.0, history.getRateOfChange(), 1e-9);
+    }
+
+    // Ensure that min, max and mean match a brute force window over random samples
+    @Test
+    void testMatchesBruteForce() {
+        history = new PressureHistory(16);
+        Random random = new Random(1);
+        double[] samples = new double[1000];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = random.nextDouble() * 2.0;
+            history.record(i, samples[i]);
+            int from = Math.max(0, i - 15);
+            double min = Double.MAX_VALUE, max = -Double.MAX_VALUE, sum = 0;
+            for (int j = from; j <= i; j++) {
+                min = Math.min(min, samples[j]);
+                max = Math.max(max, samples[j]);
+                sum += samples[j];
+            }
+            assertEquals(min, history.getMin());
+            assertEquals(max, history.getMax());
+            assertEquals(sum / (i - from + 1), history.getMean(), 1e-9);
+        }
+    }
+
+    // Ensure that an empty history and a too small capacity are rejected
+    @Test
+    void testInvalidUse() {
+        assertThrows(IllegalStateException.class, () -> history.getMean());
+        assertEquals(0.0, history.getRateOfChange());
+        assertThrows(IllegalArgumentException.class, () -> new PressureHistory(1));
+    }
+
+    // Ensure that PressureSensor records history only once enabled
+    @Test
+    void testSensorHistory() throws PressureException {
+        PressureSensor sensor = new PressureSensor(1.0);
+        assertNull(sensor.getHistory());
+        assertEquals(1.0, sensor.getSmoothedPressure());
+
+        sensor.enableHistory(8);
+        sensor.setPressure(2.0);
+        sensor.setPressure(3.0);
+        assertEquals(3, sensor.getHistory().size());
+        assertEquals(2.0, sensor.getSmoothedPressure(), 1e-9);
+        assertEquals(3.0, sensor.getPressure());
+    }
+
+    @AfterEach
+    void tearDown() {
+        history = null;
+    }
+}
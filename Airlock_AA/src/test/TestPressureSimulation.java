@@ -0,0 +1,92 @@
+package test;
+
+import airlock.entities.DoorState;
+import airlock.exceptions.AirLockException;
+import airlock.exceptions.DoorException;
+import airlock.exceptions.PressureException;
+import airlock.simulation.EulerIntegrator;
+import airlock.simulation.ExponentialIntegrator;
+import airlock.simulation.PressureSimulation;
+import airlock.table.AirLockTable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestPressureSimulation {
+
+    AirLockTable table;
+    PressureSimulation simulation;
+    int row;
+
+    @BeforeEach
+    public void setUp() throws PressureException, DoorException {
+        table = new AirLockTable(4);
+        row = table.addAirLock(0.0, 1.0, 1.0, DoorState.CLOSED, DoorState.CLOSED);
+        simulation = new PressureSimulation(table, new ExponentialIntegrator(), 1.0);
+    }
+
+    // Ensure that the lock pressure ramps towards the environment over several ticks
+    @Test
+    void testPressureRampsOverTime() throws AirLockException {
+        simulation.equaliseWithEnvironmentPressure(row);
+        simulation.tick(0.5);
+        double afterOneTick = table.getLockPressure(row);
+        assertTrue(afterOneTick < 1.0 && afterOneTick > 0.0);
+        assertEquals(Math.exp(-0.5), afterOneTick, 1e-9);
+        assertTrue(simulation.isEqualising(row));
+    }
+
+    // Ensure that equalisation finishes and snaps to the source pressure
+    @Test
+    void testEqualisationCompletes() throws AirLockException {
+        simulation.equaliseWithEnvironmentPressure(row);
+        int ticks = 0;
+        while (simulation.tick(0.1) > 0) {
+            ticks++;
+        }
+        assertTrue(ticks > 10);
+        assertEquals(0.0, table.getLockPressure(row));
+        assertFalse(simulation.isEqualising(row));
+    }
+
+    // Ensure that equalising requires the airlock to be SEALED
+    @Test
+    void testUnsealedRejected() throws Exception {
+        int open = table.addAirLock(1.0, 1.0, 1.0, DoorState.OPEN, DoorState.CLOSED);
+        assertThrows(AirLockException.class, () -> simulation.equaliseWithCabinPressure(open));
+    }
+
+    // Ensure that opening a door while equalising shuts the valve
+    @Test
+    void testDoorOpenedWhileEqualising() throws Exception {
+        table.setLockPressure(row, 0.9);
+        table.lockSensor(row).setPressure(1.0);
+        simulation.equaliseWithEnvironmentPressure(row);
+        table.innerDoor(row).open();
+        assertEquals(0, simulation.tick(0.1));
+        assertEquals(1.0, table.getLockPressure(row));
+    }
+
+    // Ensure that a faster flow rate and the Euler integrator equalise in fewer ticks
+    @Test
+    void testFlowRateAndEuler() throws Exception {
+        simulation = new PressureSimulation(table, new EulerIntegrator(), 1.0);
+        int fast = table.addAirLock(0.0, 1.0, 1.0, DoorState.CLOSED, DoorState.CLOSED);
+        simulation.setFlowRate(fast, 20.0);
+        simulation.equaliseWithEnvironmentPressure(row);
+        simulation.equaliseWithEnvironmentPressure(fast);
+        simulation.tick(0.1);
+        assertFalse(simulation.isEqualising(fast));
+        assertTrue(simulation.isEqualising(row));
+        assertEquals(0.9, table.getLockPressure(row), 1e-9);
+        assertThrows(IllegalArgumentException.class, () -> simulation.setFlowRate(fast, 0.0));
+    }
+
+    @AfterEach
+    void tearDown() {
+        simulation = null;
+        table = null;
+    }
+}
@@ -0,0 +1,126 @@
+package test;
+
+import airlock.entities.AirLock;
+import airlock.entities.AirLockResult;
+import airlock.exceptions.DoorException;
+import airlock.exceptions.PressureException;
+import airlock.topology.PressureTopology;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestPressureTopology {
+
+    PressureTopology topology;
+    int exterior;
+    int firstLock;
+    int corridor;
+    int secondLock;
+    int cabin;
+
+    @BeforeEach
+    public void setUp() throws PressureException, DoorException {
+        // exterior - firstLock - corridor - secondLock - cabin, one door between each
+        topology = new PressureTopology();
+        exterior = topology.addChamber(0.0);
+        firstLock = topology.addChamber(0.0);
+        corridor = topology.addChamber(1.0);
+        secondLock = topology.addChamber(1.0);
+        cabin = topology.addChamber(1.0);
+        topology.addDoor(exterior, firstLock);
+        topology.addDoor(corridor, firstLock);
+        topology.addDoor(corridor, secondLock);
+        topology.addDoor(secondLock, cabin);
+    }
+
+    // Ensure that opening doors joins chambers and pressure spreads through them
+    @Test
+    void testOpenDoorsPropagate() throws Exception {
+        topology.getDoor(2).open();
+        topology.getDoor(3).open();
+        assertTrue(topology.isConnected(corridor, cabin));
+        assertFalse(topology.isConnected(firstLock, cabin));
+        assertEquals(3, topology.getComponentSize(secondLock));
+
+        topology.getSensor(cabin).setPressure(0.75);
+        assertEquals(0.75, topology.getPressure(corridor));
+        assertEquals(0.75, topology.getPressure(secondLock));
+        assertEquals(0.0, topology.getPressure(firstLock));
+    }
+
+    // Ensure that a door refusing to open leaves the chambers apart
+    @Test
+    void testRejectedOpen() {
+        assertThrows(DoorException.class, () -> topology.getDoor(1).open());
+        assertFalse(topology.isConnected(firstLock, corridor));
+    }
+
+    // Ensure that closing a door splits only where no other open path remains
+    @Test
+    void testCloseSplits() throws Exception {
+        int bypass = topology.addDoor(corridor, cabin);
+        topology.getDoor(2).open();
+        topology.getDoor(3).open();
+        topology.getDoor(bypass).open();
+
+        topology.getDoor(3).close();
+        assertTrue(topology.isConnected(secondLock, cabin));
+        assertEquals(3, topology.getComponentSize(cabin));
+
+        topology.getDoor(bypass).close();
+        assertFalse(topology.isConnected(corridor, cabin));
+        assertTrue(topology.isConnected(corridor, secondLock));
+        topology.setPressure(corridor, 0.5);
+        assertEquals(0.5, topology.getPressure(secondLock));
+        assertEquals(1.0, topology.getPressure(cabin));
+    }
+
+    // Ensure that closing one of two parallel doors keeps the chambers joined through the other
+    @Test
+    void testParallelDoors() throws Exception {
+        int second = topology.addDoor(exterior, firstLock);
+        topology.getDoor(0).open();
+        topology.getDoor(second).open();
+
+        topology.getDoor(0).close();
+        assertTrue(topology.isConnected(exterior, firstLock));
+        topology.setPressure(exterior, 0.2);
+        assertEquals(0.2, topology.getPressure(firstLock));
+        assertTrue(topology.getDoor(second).isPressureEqual());
+
+        topology.getDoor(second).close();
+        assertFalse(topology.isConnected(exterior, firstLock));
+        topology.setPressure(exterior, 0.0);
+        assertEquals(0.2, topology.getPressure(firstLock));
+    }
+
+    // Ensure that an AirLock runs unchanged over topology doors and sensors
+    @Test
+    void testAirLockOnTopology() throws Exception {
+        AirLock airLock = new AirLock(topology.getDoor(0), topology.getDoor(1), topology.getSensor(firstLock));
+        topology.getDoor(2).open();
+
+        assertEquals(AirLockResult.OK, airLock.tryEqualiseWithCabinPressure());
+        assertEquals(AirLockResult.OK, airLock.tryOpenInnerDoor());
+        assertEquals(3, topology.getComponentSize(corridor));
+
+        topology.setPressure(secondLock, 0.9);
+        assertEquals(0.9, topology.getPressure(firstLock));
+        assertEquals(AirLockResult.OK, airLock.tryCloseInnerDoor());
+        assertEquals(1, topology.getComponentSize(firstLock));
+    }
+
+    // Ensure that chambers cannot hold a negative pressure
+    @Test
+    void testNegativePressure() {
+        assertThrows(PressureException.class, () -> topology.addChamber(-1.0));
+        assertThrows(PressureException.class, () -> topology.setPressure(cabin, -1.0));
+    }
+
+    @AfterEach
+    void tearDown() {
+        topology = null;
+    }
+}
@@ -0,0 +1,257 @@
+package test;
+
+import airlock.entities.AirLockAssembly;
+import airlock.entities.IDirtyListener;
+import airlock.fleet.AirLockRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+
+import static airlock.fleet.AirLockRegistry.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestRegistryIndexes {
+
+    AirLockRegistry registry;
+    AirLockAssembly[] assemblies;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        registry = new AirLockRegistry();
+        assemblies = new AirLockAssembly[4];
+        long[] ids = new long[assemblies.length];
+        for (int i = 0; i < assemblies.length; i++) {
+            assemblies[i] = new AirLockAssembly(0.0, 0.25 * i, 0.5);
+            ids[i] = i;
+        }
+        registry.registerAll(ids, assemblies);
+    }
+
+    private List<Long> lockPressureBetween(double min, double max) {
+        List<Long> ids = new ArrayList<>();
+        registry.forEachLockPressureBetween(min, max, (id, airLock) -> ids.add(id));
+        return ids;
+    }
+
+    private List<Long> cabinDifferenceAbove(double difference) {
+        List<Long> ids = new ArrayList<>();
+        registry.forEachCabinDifferenceAbove(difference, (id, airLock) -> ids.add(id));
+        Collections.sort(ids);
+        return ids;
+    }
+
+    // Ensure that combined state queries follow door and mode changes
+    @Test
+    void testCombinedStateQueries() throws Exception {
+        assemblies[2].getAirLock().openInnerDoor();
+        assemblies[0].getAirLock().toggleOperationMode();
+
+        assertEquals(1, registry.countMatching(INNER_OPEN, 0));
+        assertEquals(0, registry.countMatching(OUTER_OPEN, 0));
+        assertEquals(1, registry.countMatching(0, SEALED | AUTO));
+        assertEquals(2, registry.countMatching(SEALED, AUTO));
+
+        List<Long> ids = new ArrayList<>();
+        registry.forEachMatching(SEALED | AUTO, 0, (id, airLock) -> ids.add(id));
+        assertEquals(List.of(0L), ids);
+    }
+
+    // Ensure that the lock pressure index answers range queries in pressure order
+    @Test
+    void testLockPressureRange() throws Exception {
+        assertEquals(List.of(1L, 2L), lockPressureBetween(0.2, 0.5));
+        assemblies[3].setLockPressure(0.3);
+        assertEquals(List.of(1L, 3L, 2L), lockPressureBetween(0.2, 0.5));
+        assertEquals(List.of(0L, 1L, 3L, 2L), lockPressureBetween(0.0, 10.0));
+        assertEquals(List.of(), lockPressureBetween(0.6, 10.0));
+    }
+
+    // Ensure that the cabin difference index finds locks on either side of the cabin
+    @Test
+    void testCabinDifference() throws Exception {
+        // lock pressures 0, 0.25, 0.5 and 0.75 against a cabin of 0.5
+        assertEquals(List.of(0L, 1L, 3L), cabinDifferenceAbove(0.2));
+        assertEquals(List.of(0L), cabinDifferenceAbove(0.3));
+
+        assemblies[0].getAirLock().equaliseWithCabinPressure();
+        assemblies[2].setInteriorPressure(1.0);
+        assertEquals(List.of(2L), cabinDifferenceAbove(0.3));
+    }
+
+    // Ensure that unregistered assemblies leave every index
+    @Test
+    void testUnregister() throws Exception {
+        registry.unregister(1);
+        assertEquals(List.of(2L), lockPressureBetween(0.2, 0.5));
+        assertEquals(3, registry.countSealed());
+        assemblies[1].setLockPressure(0.4);
+        assertEquals(List.of(2L), lockPressureBetween(0.2, 0.5));
+    }
+
+    // Ensure that the indexes agree with a full scan after random churn
+    @Test
+    void testRandomChurn() throws Exception {
+        Random random = new Random(24);
+        AirLockRegistry churned = new AirLockRegistry();
+        AirLockAssembly[] many = new AirLockAssembly[500];
+        for (int i = 0; i < many.length; i++) {
+            many[i] = new AirLockAssembly(1.0, random.nextDouble(), 1.0);
+            churned.register(i, many[i]);
+        }
+        for (int step = 0; step < 5000; step++) {
+            AirLockAssembly assembly = many[random.nextInt(many.length)];
+            if (random.nextBoolean()) {
+                assembly.setLockPressure(random.nextDouble());
+            } else {
+                assembly.getAirLock().tryOpenInnerDoor();
+                assembly.getAirLock().tryCloseInnerDoor();
+                assembly.getAirLock().tryToggleOperationMode();
+            }
+        }
+        List<Long> expected = new ArrayList<>();
+        int manual = 0;
+        for (int i = 0; i < many.length; i++) {
+            double pressure = many[i].getLockSensor().getPressure();
+            if (pressure >= 0.25 && pressure <= 0.75) {
+                expected.add((long) i);
+            }
+            manual += many[i].getAirLock().isInManualMode() ? 1 : 0;
+        }
+        List<Long> actual = new ArrayList<>();
+        churned.forEachLockPressureBetween(0.25, 0.75, (id, airLock) -> actual.add(id));
+        Collections.sort(actual);
+        assertEquals(expected, actual);
+        assertEquals(manual, churned.countInManualMode());
+    }
+
+    // Ensure that pressure range queries agree with a full scan at every step of random updates
+    @Test
+    void testRandomPressureRanges() throws Exception {
+        Random random = new Random(2024);
+        AirLockRegistry ranged = new AirLockRegistry();
+        AirLockAssembly[] many = new AirLockAssembly[200];
+        for (int i = 0; i < many.length; i++) {
+            // Few distinct pressures, so many airlocks share a value
+            many[i] = new AirLockAssembly(1.0, random.nextInt(8) / 8.0, 1.0);
+            ranged.register(i, many[i]);
+        }
+        for (int step = 0; step < 2000; step++) {
+            int changed = random.nextInt(many.length);
+            if (random.nextInt(20) == 0) {
+                ranged.unregister(changed);
+                many[changed] = new AirLockAssembly(1.0, random.nextInt(8) / 8.0, 1.0);
+                ranged.register(changed, many[changed]);
+            } else {
+                many[changed].setLockPressure(random.nextInt(8) / 8.0);
+            }
+            double min = random.nextInt(9) / 8.0 - 0.0625;
+            double max = min + random.nextInt(4) / 8.0;
+            List<Long> expected = new ArrayList<>();
+            for (int i = 0; i < many.length; i++) {
+                double pressure = many[i].getLockSensor().getPressure();
+                if (pressure >= min && pressure <= max) {
+                    expected.add((long) i);
+                }
+            }
+            List<Long> actual = new ArrayList<>();
+            double[] last = {Double.NEGATIVE_INFINITY};
+            ranged.forEachLockPressureBetween(min, max, (id, airLock) -> {
+                double pressure = many[(int) id].getLockSensor().getPressure();
+                assertTrue(pressure >= last[0]);
+                last[0] = pressure;
+                actual.add(id);
+            });
+            Collections.sort(actual);
+            assertEquals(expected, actual);
+        }
+    }
+
+    // Ensure that commands do not wait for the registry lock and the indexes catch up on the next read
+    @Test
+    void testCommandsDoNotTakeRegistryLock() throws Exception {
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread reader = new Thread(() -> {
+            synchronized (registry) {
+                locked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        reader.start();
+        locked.await();
+        try {
+            assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+                assemblies[2].getAirLock().openInnerDoor();
+                assemblies[3].setLockPressure(0.1);
+            });
+        } finally {
+            release.countDown();
+            reader.join();
+        }
+        assertEquals(1, registry.countMatching(INNER_OPEN, 0));
+        assertEquals(List.of(3L, 1L), lockPressureBetween(0.05, 0.3));
+    }
+
+    // Ensure that unregistering takes the registry's listener off the assembly, however often it is re-registered
+    @Test
+    void testUnregisterDetachesListener() throws Exception {
+        int[] marks = new int[1];
+        IDirtyListener other = () -> marks[0]++;
+        assemblies[2].addDirtyListener(other);
+        for (int i = 0; i < 3; i++) {
+            registry.unregister(2);
+            registry.register(2, assemblies[2]);
+        }
+        registry.unregister(2);
+        assertSame(other, assemblies[2].getDirtyListener());
+        assertSame(other, assemblies[2].getTopology().getDirtyListener());
+
+        assemblies[2].getAirLock().openInnerDoor();
+        assertEquals(0, registry.countMatching(INNER_OPEN, 0));
+        assertTrue(marks[0] > 0);
+    }
+
+    // Ensure that airlocks at the same pressure are all indexed and can be moved and removed one by one
+    @Test
+    void testEqualPressures() throws Exception {
+        AirLockRegistry tied = new AirLockRegistry();
+        AirLockAssembly[] many = new AirLockAssembly[100];
+        for (int i = 0; i < many.length; i++) {
+            many[i] = new AirLockAssembly(0.0, 0.5, 0.5);
+            tied.register(i, many[i]);
+        }
+        for (int i = 0; i < many.length; i += 2) {
+            tied.unregister(i);
+        }
+        many[1].setLockPressure(0.75);
+        many[3].setLockPressure(0.25);
+
+        List<Long> ids = new ArrayList<>();
+        tied.forEachLockPressureBetween(0.5, 0.5, (id, airLock) -> ids.add(id));
+        assertEquals(48, ids.size());
+        assertFalse(ids.contains(1L) || ids.contains(3L) || ids.contains(0L));
+        List<Long> low = new ArrayList<>();
+        tied.forEachLockPressureBetween(0.0, 0.3, (id, airLock) -> low.add(id));
+        assertEquals(List.of(3L), low);
+        List<Long> differing = new ArrayList<>();
+        tied.forEachCabinDifferenceAbove(0.1, (id, airLock) -> differing.add(id));
+        assertEquals(List.of(3L, 1L), differing);
+    }
+
+    @AfterEach
+    void tearDown() {
+        registry = null;
+        assemblies = null;
+    }
+}
@@ -0,0 +1,86 @@
+package test;
+
+import airlock.entities.AirLockAssembly;
+import airlock.script.ScriptRunner;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestScriptRunner {
+
+    Map<Long, AirLockAssembly> airLocks;
+    ScriptRunner runner;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        airLocks = new HashMap<>();
+        airLocks.put(1L, new AirLockAssembly(1.0, 1.0, 1.0));
+        airLocks.put(2L, new AirLockAssembly(1.0, 1.0, 1.0));
+        runner = new ScriptRunner(airLocks);
+    }
+
+    private String run(String script) throws IOException {
+        StringWriter output = new StringWriter();
+        runner.run(new BufferedReader(new StringReader(script)), output);
+        return output.toString();
+    }
+
+    // Ensure that each command writes one result line
+    @Test
+    void testResultsPerCommand() throws IOException {
+        String output = run("1 OX\n1 OX\n2 TM\n");
+        assertEquals("OK\nERR Outer door is already open\nOK\n", output);
+        assertEquals(3, runner.getCommandCount());
+        assertEquals(1, runner.getRejectedCount());
+        assertTrue(airLocks.get(2L).getAirLock().isInAutoMode());
+    }
+
+    // Ensure that blank lines and comments are skipped
+    @Test
+    void testSkipsBlankAndComments() throws IOException {
+        assertEquals("OK\n", run("# recorded session\n\n  1 ox  \n"));
+        assertEquals(1, runner.getCommandCount());
+    }
+
+    // Ensure that setting a pressure propagates through open doors
+    @Test
+    void testSetPressurePropagates() throws IOException {
+        run("1 OX\n1 OI\n1 SX 0.5\n2 SX 0.25\n");
+        AirLockAssembly first = airLocks.get(1L);
+        assertEquals(0.5, first.getLockSensor().getPressure());
+        assertEquals(0.5, first.getInteriorSensor().getPressure());
+        AirLockAssembly second = airLocks.get(2L);
+        assertEquals(0.25, second.getExteriorSensor().getPressure());
+        assertEquals(1.0, second.getLockSensor().getPressure());
+    }
+
+    // Ensure that malformed lines are reported rather than stopping the run
+    @Test
+    void testMalformedLines() throws IOException {
+        String output = run("1\nx OX\n9 OX\n1 ZZ\n1 SI\n1 SI abc\n1 SX -1\n1 OX\n");
+        assertEquals(String.join("\n",
+                "ERR Missing option: 1",
+                "ERR Invalid airlock id: x",
+                "ERR Unknown airlock: 9",
+                "ERR Unrecognised option: ZZ",
+                "ERR Missing pressure",
+                "ERR Invalid pressure: abc",
+                "ERR The new value for Pressure cannot be negative",
+                "OK") + "\n", output);
+    }
+
+    @AfterEach
+    void tearDown() {
+        airLocks = null;
+        runner = null;
+    }
+}
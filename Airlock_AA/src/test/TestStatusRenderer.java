@@ -0,0 +1,100 @@
+package test;
+
+import airlock.entities.*;
+import airlock.exceptions.DoorException;
+import airlock.exceptions.PressureException;
+import airlock.status.StatusEncoder;
+import airlock.status.StatusRenderer;
+import airlock.table.AirLockTable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestStatusRenderer {
+
+    AirLockAssembly assembly;
+    StringBuilder out;
+
+    @BeforeEach
+    public void setUp() throws PressureException, DoorException {
+        assembly = new AirLockAssembly(0.25, 1.0, 1.0);
+        out = new StringBuilder();
+    }
+
+    // Ensure that pressures render the same as %3.1f
+    @Test
+    void testPressureMatchesFormat() {
+        double[] pressures = {0.0, 0.04, 0.05, 0.15, 0.25, 0.95, 1.0, 9.96, 12.34, 101.325, 1234567.89};
+        for (double pressure : pressures) {
+            out.setLength(0);
+            assertEquals(String.format(Locale.ROOT, "%3.1f", pressure),
+                    StatusRenderer.appendPressure(out, pressure).toString());
+        }
+    }
+
+    // Ensure that toString keeps the text it has always had
+    @Test
+    void testToStringUnchanged() throws Exception {
+        IDoor door = new Door(new PressureSensor(0.5), new PressureSensor(0.5), DoorState.OPEN);
+        assertEquals("Door: state: OPEN, external pressure: 0.5 bar, internal pressure: 0.5 bar", door.toString());
+        assertEquals("PressureSensor: pressure: 1.0 bar", new PressureSensor(1.0).toString());
+        assertEquals("Airlock: state: SEALED, mode: MANUAL", assembly.getAirLock().toString());
+    }
+
+    // Ensure that the status block matches the one Main used to format
+    @Test
+    void testAssemblyBlock() throws Exception {
+        assembly.getAirLock().openInnerDoor();
+        String expected = String.format("%n%s%nExterior %s%nLock %s%nInterior %s%nExterior %s,%nInterior %s%n",
+                assembly.getAirLock(), assembly.getExteriorSensor(), assembly.getLockSensor(),
+                assembly.getInteriorSensor(), assembly.getExteriorDoor(), assembly.getInteriorDoor())
+                .replace(System.lineSeparator(), "\n");
+        assertEquals(expected, StatusRenderer.appendAssembly(out, assembly).toString());
+        assertTrue(expected.contains("Airlock: state: UNSEALED"));
+    }
+
+    // Ensure that an assembly status survives the binary encoding
+    @Test
+    void testEncodeAssembly() throws Exception {
+        assembly.getAirLock().toggleOperationMode();
+        ByteBuffer buffer = ByteBuffer.allocate(StatusEncoder.RECORD_SIZE);
+        StatusEncoder.encode(buffer, 42, assembly);
+        assertFalse(buffer.hasRemaining());
+
+        assertEquals(42, StatusEncoder.getId(buffer, 0));
+        assertEquals(StatusEncoder.SEALED | StatusEncoder.AUTO, StatusEncoder.getFlags(buffer, 0));
+        assertEquals(0.25f, StatusEncoder.getExteriorPressure(buffer, 0));
+        assertEquals(1.0f, StatusEncoder.getLockPressure(buffer, 0));
+        assertEquals(1.0f, StatusEncoder.getInteriorPressure(buffer, 0));
+    }
+
+    // Ensure that a table is encoded in as many records as fit the buffer
+    @Test
+    void testEncodeTable() throws Exception {
+        AirLockTable table = new AirLockTable(4);
+        table.addAirLock(0.0, 1.0, 1.0, DoorState.CLOSED, DoorState.OPEN);
+        table.addAirLock(0.5, 0.5, 1.0, DoorState.OPEN, DoorState.CLOSED);
+        table.addAirLock(0.0, 0.0, 1.0, DoorState.CLOSED, DoorState.CLOSED);
+
+        ByteBuffer buffer = ByteBuffer.allocate(2 * StatusEncoder.RECORD_SIZE);
+        assertEquals(2, StatusEncoder.encode(buffer, table, 0, 3));
+        assertEquals(StatusEncoder.INNER_OPEN, StatusEncoder.getFlags(buffer, 0));
+        assertEquals(1, StatusEncoder.getId(buffer, StatusEncoder.RECORD_SIZE));
+        assertEquals(StatusEncoder.OUTER_OPEN, StatusEncoder.getFlags(buffer, StatusEncoder.RECORD_SIZE));
+
+        buffer.clear();
+        assertEquals(3, StatusEncoder.encode(buffer, table, 2, 3));
+        assertEquals(StatusEncoder.SEALED, StatusEncoder.getFlags(buffer, 0));
+    }
+
+    @AfterEach
+    void tearDown() {
+        assembly = null;
+        out = null;
+    }
+}
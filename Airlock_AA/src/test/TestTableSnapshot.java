@@ -0,0 +1,104 @@
+package test;
+
+import airlock.entities.DoorState;
+import airlock.entities.IAirLock;
+import airlock.table.AirLockTable;
+import airlock.table.TableSnapshot;
+import airlock.table.TableSnapshotWriter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestTableSnapshot {
+
+    @TempDir
+    Path tempDir;
+
+    Path file;
+    AirLockTable table;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        file = tempDir.resolve("airlocks.snapshot");
+        table = new AirLockTable(0);
+        for (int i = 0; i < 130; i++) {
+            int row = table.addAirLock(i * 0.5, 1.0, 1.0, DoorState.CLOSED, DoorState.CLOSED);
+            if (i % 3 == 0) {
+                table.airLock(row).toggleOperationMode();
+            }
+            if (i % 5 == 0) {
+                table.airLock(row).openInnerDoor();
+            }
+        }
+    }
+
+    // Ensure that a loaded snapshot matches the table it was taken from
+    @Test
+    void testWriteAndLoad() throws Exception {
+        TableSnapshot.capture(table).writeTo(file);
+        AirLockTable loaded = TableSnapshot.load(file);
+
+        assertEquals(table.size(), loaded.size());
+        for (int row = 0; row < table.size(); row++) {
+            IAirLock expected = table.airLock(row);
+            IAirLock actual = loaded.airLock(row);
+            assertEquals(expected.isInAutoMode(), actual.isInAutoMode());
+            assertEquals(expected.isInnerDoorClosed(), actual.isInnerDoorClosed());
+            assertEquals(expected.isOuterDoorClosed(), actual.isOuterDoorClosed());
+            assertEquals(table.getExteriorPressure(row), loaded.getExteriorPressure(row));
+            assertEquals(table.getLockPressure(row), loaded.getLockPressure(row));
+        }
+        assertEquals(table.countSealed(), loaded.countSealed());
+    }
+
+    // Ensure that a captured snapshot is not affected by later changes
+    @Test
+    void testCaptureIsIsolated() throws Exception {
+        TableSnapshot snapshot = TableSnapshot.capture(table);
+        table.setLockPressure(1, 9.0);
+        table.addAirLock(1.0, 1.0, 1.0, DoorState.CLOSED, DoorState.CLOSED);
+        snapshot.writeTo(file);
+
+        AirLockTable loaded = TableSnapshot.load(file);
+        assertEquals(130, loaded.size());
+        assertEquals(1.0, loaded.getLockPressure(1));
+    }
+
+    // Ensure that a loaded table can keep growing
+    @Test
+    void testLoadedTableGrows() throws Exception {
+        TableSnapshot.capture(table).writeTo(file);
+        AirLockTable loaded = TableSnapshot.load(file);
+        int row = loaded.addAirLock(2.0, 2.0, 2.0, DoorState.OPEN, DoorState.CLOSED);
+        assertEquals(130, row);
+        assertTrue(loaded.airLock(row).isUnsealed());
+    }
+
+    // Ensure that the background writer produces a loadable snapshot
+    @Test
+    void testBackgroundWriter() throws Exception {
+        try (TableSnapshotWriter writer = new TableSnapshotWriter(file)) {
+            assertEquals(file, writer.submit(table).get());
+        }
+        assertEquals(table.size(), TableSnapshot.load(file).size());
+    }
+
+    // Ensure that a file that is not a snapshot is rejected
+    @Test
+    void testLoadInvalidFile() throws IOException {
+        Files.write(file, new byte[] { 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12 });
+        assertThrows(IOException.class, () -> TableSnapshot.load(file));
+    }
+
+    @AfterEach
+    void tearDown() {
+        table = null;
+    }
+}
@@ -0,0 +1,229 @@
+package test;
+
+import airlock.entities.AirLockAssembly;
+import airlock.entities.AirLockCommand;
+import airlock.fleet.AirLockFleet;
+import airlock.telemetry.LeakDetector;
+import airlock.telemetry.SensorPosition;
+import airlock.telemetry.TelemetryPipeline;
+import airlock.telemetry.TelemetrySocketSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestTelemetryPipeline {
+
+    Map<Long, AirLockAssembly> airLocks;
+    TelemetryPipeline pipeline;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        airLocks = new HashMap<>();
+        airLocks.put(1L, new AirLockAssembly(1.0, 1.0, 1.0));
+        airLocks.put(2L, new AirLockAssembly(1.0, 1.0, 1.0));
+        pipeline = new TelemetryPipeline(airLocks, 1024, 64);
+    }
+
+    // Ensure that submitted samples are applied to the right sensors
+    @Test
+    void testSamplesApplied() throws Exception {
+        pipeline.submit(1, SensorPosition.EXTERIOR, 0.5);
+        pipeline.submit(2, SensorPosition.INTERIOR, 0.25);
+        pipeline.flush();
+        assertEquals(0.5, airLocks.get(1L).getExteriorSensor().getPressure());
+        assertEquals(0.25, airLocks.get(2L).getInteriorSensor().getPressure());
+        assertEquals(1.0, airLocks.get(1L).getLockSensor().getPressure());
+    }
+
+    // Ensure that samples propagate through open doors
+    @Test
+    void testPropagationThroughOpenDoors() throws Exception {
+        airLocks.get(1L).getAirLock().openOuterDoor();
+        pipeline.submit(1, SensorPosition.EXTERIOR, 0.5);
+        pipeline.flush();
+        assertEquals(0.5, airLocks.get(1L).getLockSensor().getPressure());
+        assertEquals(1.0, airLocks.get(1L).getInteriorSensor().getPressure());
+    }
+
+    // Ensure that the newest sample for a sensor wins and older ones are coalesced
+    @Test
+    void testCoalescing() throws Exception {
+        pipeline.close();
+        pipeline = new TelemetryPipeline(airLocks, 1024, 1024);
+        for (int i = 0; i < 500; i++) {
+            pipeline.submit(1, SensorPosition.LOCK, i);
+        }
+        pipeline.flush();
+        assertEquals(499.0, airLocks.get(1L).getLockSensor().getPressure());
+        assertEquals(500, pipeline.getAppliedCount() + pipeline.getCoalescedCount());
+        assertTrue(pipeline.getCoalescedCount() > 0);
+    }
+
+    // Ensure that unknown airlocks, negative pressures and malformed lines are rejected
+    @Test
+    void testIngestRejects() throws Exception {
+        String lines = "# samples\n1 X 0.5\n9 X 0.5\n1 I -1\n1 Q 0.5\n1 X abc\n2 L 0.75\n";
+        assertEquals(4, pipeline.ingest(new BufferedReader(new StringReader(lines))));
+        pipeline.flush();
+        assertEquals(2, pipeline.getAppliedCount());
+        assertEquals(4, pipeline.getRejectedCount());
+        assertEquals(0.75, airLocks.get(2L).getLockSensor().getPressure());
+    }
+
+    // Ensure that a full queue pushes back on producers
+    @Test
+    void testBackpressure() throws Exception {
+        pipeline.close();
+        pipeline = new TelemetryPipeline(airLocks, 4, 1);
+        int accepted = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (pipeline.submit(1, SensorPosition.EXTERIOR, 1.0, 0)) {
+                accepted++;
+            }
+        }
+        assertTrue(accepted < 10000);
+    }
+
+    // Ensure that samples for fleet airlocks are applied on the airlock's shard
+    @Test
+    void testFleetSamplesAppliedOnShard() throws Exception {
+        pipeline.close();
+        try (AirLockFleet fleet = new AirLockFleet(2)) {
+            AirLockAssembly assembly = new AirLockAssembly(1.0, 1.0, 1.0);
+            fleet.register(4, assembly);
+            pipeline = new TelemetryPipeline(fleet, 64, 8);
+            pipeline.submit(4, SensorPosition.EXTERIOR, 0.5);
+            pipeline.submit(5, SensorPosition.EXTERIOR, 0.5);
+            pipeline.flush();
+            assertEquals(0.5, assembly.getExteriorSensor().getPressure());
+            assertEquals(1, pipeline.getAppliedCount());
+            assertEquals(1, pipeline.getRejectedCount());
+
+            // A command submitted after the sample sees it applied
+            fleet.submit(4, AirLockCommand.EQUALISE_ENVIRONMENT).get();
+            assertEquals(0.5, assembly.getLockSensor().getPressure());
+        }
+    }
+
+    // Ensure that queued commands still coalesce while samples stream to the same airlock
+    @Test
+    void testFleetCommandsCoalesceUnderTelemetry() throws Exception {
+        pipeline.close();
+        AirLockAssembly assembly = new AirLockAssembly(1.0, 1.0, 0.5);
+        CountDownLatch release = new CountDownLatch(1);
+        try (AirLockFleet fleet = new AirLockFleet(1)) {
+            fleet.register(1, assembly);
+            fleet.register(2, new AirLockAssembly(1.0, 1.0, 1.0));
+            fleet.execute(2, () -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            pipeline = new TelemetryPipeline(fleet, 64, 8);
+            for (int i = 0; i < 200; i++) {
+                fleet.enqueue(1, AirLockCommand.EQUALISE_CABIN);
+                pipeline.submit(1, SensorPosition.EXTERIOR, i % 2 == 0 ? 0.75 : 0.25);
+                pipeline.submit(2, SensorPosition.EXTERIOR, 0.5);
+            }
+            release.countDown();
+            pipeline.flush();
+            assertEquals(199, fleet.getQueue(1).getCoalescedCount());
+            assertEquals(1, fleet.getQueue(1).getExecutedCount());
+        }
+        assertEquals(0.5, assembly.getLockSensor().getPressure());
+        assertEquals(0.25, assembly.getExteriorSensor().getPressure());
+    }
+
+    // Ensure that ids that would not fit alongside the sensor position are rejected
+    @Test
+    void testIdOutOfRange() throws Exception {
+        assertThrows(IllegalArgumentException.class, () -> pipeline.submit(1L << 61, SensorPosition.LOCK, 0.5));
+        assertThrows(IllegalArgumentException.class, () -> pipeline.submit(-(1L << 61) - 1, SensorPosition.LOCK, 0.5));
+        pipeline.submit(-(1L << 61), SensorPosition.LOCK, 0.5);
+        pipeline.flush();
+        long rejected = pipeline.getRejectedCount();
+        String line = ((1L << 61) + 1) + " L 0.5\n";
+        assertEquals(0, pipeline.ingest(new BufferedReader(new StringReader(line))));
+        assertEquals(rejected + 1, pipeline.getRejectedCount());
+    }
+
+    // Ensure that a producer blocked on a full queue fails when the pipeline closes instead of losing its sample
+    @Test
+    void testCloseFailsBlockedProducer() throws Exception {
+        pipeline.close();
+        pipeline = new TelemetryPipeline(airLocks, 1, 1);
+        // The leak listener parks the consumer, so the queue fills and the producer blocks
+        CountDownLatch release = new CountDownLatch(1);
+        pipeline.setLeakDetector(new LeakDetector(0.01, Long.MAX_VALUE, (id, baseline, pressure, elapsed) -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        AtomicInteger queued = new AtomicInteger();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread producer = new Thread(() -> {
+            try {
+                for (int i = 0; i < 1000; i++) {
+                    pipeline.submit(1, SensorPosition.LOCK, i / 1000.0);
+                    queued.incrementAndGet();
+                }
+            } catch (Throwable e) {
+                failure.set(e);
+            }
+        });
+        producer.start();
+        while (queued.get() < 3) {
+            Thread.sleep(1);
+        }
+        Thread closer = new Thread(pipeline::close);
+        closer.start();
+        producer.join(5000);
+        assertFalse(producer.isAlive());
+        release.countDown();
+        closer.join(5000);
+        assertFalse(closer.isAlive());
+
+        assertInstanceOf(IllegalStateException.class, failure.get());
+        assertEquals(queued.get(), pipeline.getAppliedCount() + pipeline.getCoalescedCount()
+                + pipeline.getRejectedCount());
+    }
+
+    // Ensure that samples streamed over the local socket are applied
+    @Test
+    void testSocketSource() throws Exception {
+        try (TelemetrySocketSource source = new TelemetrySocketSource(pipeline, 0)) {
+            try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), source.getPort());
+                 OutputStream out = socket.getOutputStream()) {
+                out.write("2 X 0.125\n".getBytes(StandardCharsets.UTF_8));
+            }
+            for (int i = 0; i < 200 && pipeline.getAppliedCount() == 0; i++) {
+                Thread.sleep(10);
+            }
+        }
+        assertEquals(0.125, airLocks.get(2L).getExteriorSensor().getPressure());
+    }
+
+    @AfterEach
+    void tearDown() {
+        pipeline.close();
+        pipeline = null;
+    }
+}
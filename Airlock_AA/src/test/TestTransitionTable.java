@@ -0,0 +1,233 @@
+package test;
+
+import airlock.entities.*;
+import airlock.exceptions.DoorException;
+import airlock.exceptions.PressureException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static airlock.entities.TransitionTable.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestTransitionTable {
+
+    IPressureSensor lockSensor;
+    IDoor outerDoor;
+    IDoor innerDoor;
+
+    @BeforeEach
+    public void setUp() throws PressureException, DoorException {
+        lockSensor = new PressureSensor(1.0);
+        outerDoor = new Door(new PressureSensor(0.0), lockSensor, DoorState.CLOSED);
+        innerDoor = new Door(new PressureSensor(1.0), lockSensor, DoorState.CLOSED);
+    }
+
+    // Ensure that the standard table gives the results AirLock has always given
+    @Test
+    void testStandardTable() {
+        TransitionTable table = TransitionTable.STANDARD;
+        assertEquals(AirLockResult.OUTER_DOOR_ALREADY_OPEN,
+                table.lookup(AirLockCommand.OPEN_OUTER, OUTER_OPEN | AUTO));
+        assertEquals(AirLockResult.OUTER_DOOR_PRESSURE_NOT_EQUAL,
+                table.lookup(AirLockCommand.OPEN_OUTER, SEALED | INNER_EQUAL));
+        assertEquals(AirLockResult.OK, table.lookup(AirLockCommand.OPEN_OUTER, SEALED | AUTO));
+        assertEquals(AirLockResult.OK, table.lookup(AirLockCommand.OPEN_INNER, INNER_EQUAL));
+        assertEquals(AirLockResult.INNER_DOOR_ALREADY_CLOSED, table.lookup(AirLockCommand.CLOSE_INNER, SEALED));
+        assertEquals(AirLockResult.OK, table.lookup(AirLockCommand.CLOSE_OUTER, OUTER_OPEN));
+        assertEquals(AirLockResult.NOT_SEALED, table.lookup(AirLockCommand.TOGGLE_MODE, OUTER_OPEN));
+        assertEquals(AirLockResult.NOT_SEALED, table.lookup(AirLockCommand.EQUALISE_CABIN, INNER_OPEN));
+        assertEquals(AirLockResult.OK, table.lookup(AirLockCommand.EQUALISE_ENVIRONMENT, SEALED));
+    }
+
+    // Ensure that the first matching rule decides the result
+    @Test
+    void testFirstRuleWins() {
+        TransitionTable table = new TransitionRuleSet()
+                .add(AirLockCommand.TOGGLE_MODE, AUTO, 0, AirLockResult.NOT_SEALED)
+                .add(AirLockCommand.TOGGLE_MODE, 0, 0, AirLockResult.OUTER_DOOR_ALREADY_OPEN)
+                .compile();
+        assertEquals(AirLockResult.NOT_SEALED, table.lookup(AirLockCommand.TOGGLE_MODE, AUTO | SEALED));
+        assertEquals(AirLockResult.OUTER_DOOR_ALREADY_OPEN, table.lookup(AirLockCommand.TOGGLE_MODE, SEALED));
+        assertEquals(AirLockResult.OK, table.lookup(AirLockCommand.OPEN_OUTER, 0));
+    }
+
+    // Ensure that a rule cannot both require and forbid a flag
+    @Test
+    void testConflictingRule() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new TransitionRule(AirLockCommand.OPEN_OUTER, AUTO, AUTO, AirLockResult.OK));
+    }
+
+    // Ensure that an airlock enforces a custom rule set, here one that keeps
+    // the airlock locked in MANUAL mode
+    @Test
+    void testCustomRulesOnAirLock() {
+        TransitionRuleSet rules = TransitionRuleSet.standard();
+        rules.add(AirLockCommand.TOGGLE_MODE, 0, AUTO, AirLockResult.NOT_SEALED);
+        AirLock airLock = new AirLock(outerDoor, innerDoor, lockSensor, OperationMode.MANUAL, rules.compile());
+
+        assertEquals(AirLockResult.NOT_SEALED, airLock.tryToggleOperationMode());
+        assertTrue(airLock.isInManualMode());
+        assertEquals(AirLockResult.OK, airLock.tryOpenInnerDoor());
+        assertEquals(AirLockResult.OUTER_DOOR_PRESSURE_NOT_EQUAL, airLock.tryOpenOuterDoor());
+    }
+
+    // Ensure that the table reports the flags each command's result depends on
+    @Test
+    void testUsedFlags() {
+        TransitionTable table = TransitionTable.STANDARD;
+        assertEquals(OUTER_OPEN | AUTO | OUTER_EQUAL, table.getUsedFlags(AirLockCommand.OPEN_OUTER));
+        assertEquals(INNER_OPEN | AUTO | INNER_EQUAL, table.getUsedFlags(AirLockCommand.OPEN_INNER));
+        assertEquals(OUTER_OPEN, table.getUsedFlags(AirLockCommand.CLOSE_OUTER));
+        assertEquals(SEALED, table.getUsedFlags(AirLockCommand.TOGGLE_MODE));
+        assertEquals(SEALED, table.getUsedFlags(AirLockCommand.EQUALISE_CABIN));
+    }
+
+    // Ensure that an airlock only reads the pressures for commands whose rules need them
+    @Test
+    void testPressuresReadOnlyWhenUsed() {
+        int[] reads = new int[1];
+        IDoor countingDoor = new IDoor() {
+            public void open() throws DoorException {
+                outerDoor.open();
+            }
+
+            public void close() throws DoorException {
+                outerDoor.close();
+            }
+
+            public double getExternalPressure() {
+                return outerDoor.getExternalPressure();
+            }
+
+            public double getInternalPressure() {
+                return outerDoor.getInternalPressure();
+            }
+
+            public boolean isOpen() {
+                return outerDoor.isOpen();
+            }
+
+            public boolean isClosed() {
+                return outerDoor.isClosed();
+            }
+
+            public boolean isPressureEqual() {
+                reads[0]++;
+                return outerDoor.isPressureEqual();
+            }
+        };
+        AirLock airLock = new AirLock(countingDoor, innerDoor, lockSensor);
+        airLock.tryToggleOperationMode();
+        airLock.tryToggleOperationMode();
+        airLock.tryCloseOuterDoor();
+        airLock.tryEqualiseWithCabinPressure();
+        assertEquals(0, reads[0]);
+        assertEquals(AirLockResult.OUTER_DOOR_PRESSURE_NOT_EQUAL, airLock.tryOpenOuterDoor());
+        assertEquals(1, reads[0]);
+    }
+
+    // Ensure that the direct checks for the standard rules agree with looking them up in the table
+    @Test
+    void testStandardChecksMatchTable() throws Exception {
+        PressureSensor[][] sensors = new PressureSensor[2][];
+        AirLock[] airLocks = new AirLock[2];
+        TransitionTable[] tables = {TransitionTable.STANDARD, TransitionRuleSet.standard().compile()};
+        for (int i = 0; i < 2; i++) {
+            // exterior, lock, interior
+            sensors[i] = new PressureSensor[]{new PressureSensor(0.0), new PressureSensor(1.0), new PressureSensor(1.0)};
+            airLocks[i] = new AirLock(new Door(sensors[i][0], sensors[i][1], DoorState.CLOSED),
+                    new Door(sensors[i][2], sensors[i][1], DoorState.CLOSED), sensors[i][1],
+                    OperationMode.MANUAL, tables[i]);
+        }
+
+        Random random = new Random(17);
+        AirLockCommand[] commands = AirLockCommand.values();
+        for (int step = 0; step < 5000; step++) {
+            int next = random.nextInt(commands.length + 2);
+            if (next >= commands.length) {
+                // Moves the exterior or interior pressure between 0, 0.5 and 1
+                double pressure = random.nextInt(3) * 0.5;
+                for (PressureSensor[] airLockSensors : sensors) {
+                    airLockSensors[next == commands.length ? 0 : 2].setPressure(pressure);
+                }
+                continue;
+            }
+            AirLockCommand command = commands[next];
+            assertEquals(command.tryExecute(airLocks[1]), command.tryExecute(airLocks[0]), command + " at step " + step);
+            assertEquals(airLocks[1].toString(), airLocks[0].toString());
+        }
+    }
+
+    // A door whose position and pressure check are set directly, so any state can be built
+    static class FixedDoor implements IDoor {
+        boolean open;
+        boolean equal;
+
+        public void open() {
+            open = true;
+        }
+
+        public void close() {
+            open = false;
+        }
+
+        public double getExternalPressure() {
+            return 1.0;
+        }
+
+        public double getInternalPressure() {
+            return 1.0;
+        }
+
+        public boolean isOpen() {
+            return open;
+        }
+
+        public boolean isClosed() {
+            return !open;
+        }
+
+        public boolean isPressureEqual() {
+            return equal;
+        }
+    }
+
+    // Ensure that the direct checks for the standard rules agree with the table for every state and command
+    @Test
+    void testStandardChecksMatchTableInEveryState() {
+        TransitionTable compiled = TransitionRuleSet.standard().compile();
+        for (int state = 0; state < STATE_COUNT; state++) {
+            for (TransitionTable rules : new TransitionTable[]{TransitionTable.STANDARD, compiled}) {
+                // The seal is set by the door positions the airlock starts with, the doors
+                // then move to the state's positions, which also builds states AirLock
+                // itself never reaches, such as sealed with a door open
+                FixedDoor outer = new FixedDoor();
+                FixedDoor inner = new FixedDoor();
+                outer.open = (state & SEALED) == 0;
+                AirLock airLock = new AirLock(outer, inner, lockSensor,
+                        (state & AUTO) != 0 ? OperationMode.AUTO : OperationMode.MANUAL, rules);
+                outer.open = (state & OUTER_OPEN) != 0;
+                inner.open = (state & INNER_OPEN) != 0;
+                outer.equal = (state & OUTER_EQUAL) != 0;
+                inner.equal = (state & INNER_EQUAL) != 0;
+                assertEquals((state & SEALED) != 0, airLock.isSealed());
+
+                for (AirLockCommand command : AirLockCommand.values()) {
+                    assertEquals(TransitionTable.STANDARD.lookup(command, state), airLock.check(command),
+                            command + " in state " + state);
+                }
+            }
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        lockSensor = null;
+        outerDoor = null;
+        innerDoor = null;
+    }
+}